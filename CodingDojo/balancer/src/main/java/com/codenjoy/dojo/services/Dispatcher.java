@@ -35,13 +35,12 @@ import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
-import org.springframework.web.client.RestClientException;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.stream.Collectors;
+import java.util.concurrent.*;
+import java.util.function.Function;
 
 import static java.util.stream.Collectors.toList;
 
@@ -65,6 +64,10 @@ public class Dispatcher {
 
     private Set<Disqualified> disqualified = new CopyOnWriteArraySet<>();
 
+    // опрашиваем игровые сервера параллельно, чтобы один медленный не тормозил всех
+    private ExecutorService executor = Executors.newCachedThreadPool();
+    private GameServersMetrics metrics = new GameServersMetrics();
+
     @PostConstruct
     public void postConstruct() {
         // в случае если сегодня сервер потушен был
@@ -108,21 +111,94 @@ public class Dispatcher {
                 .anyMatch(finalist -> player.getId().equals(finalist.getId()));
     }
 
+    @PreDestroy
+    public void preDestroy() {
+        executor.shutdownNow();
+    }
+
     public Map<String, Boolean> removeFromEveryGameServer(String id) {
         // удалить с других серверов если там есть что
-        return gameServers.stream()
-                .filter(s -> game.existsOnServer(s, id))
-                .collect(Collectors.toMap(
-                            s -> s,
-                            s -> game.remove(s, id)));
+        // если какой-то сервер не ответил - неизвестно есть ли игрок там,
+        // потому дальше (например регистрировать его на другом) идти нельзя
+        Map<String, Boolean> result = onEveryServer(
+                s -> game.existsOnServer(s, id) ? game.remove(s, id) : null);
+        result.values().removeIf(Objects::isNull);
+        return result;
     }
 
     public Map<String, Boolean> existsOnGameServers(String id) {
-        // удалить с других серверов если там есть что
-        return gameServers.stream()
-                .collect(Collectors.toMap(
-                        s -> s,
-                        s -> game.existsOnServer(s, id)));
+        return onEveryServer(
+                s -> game.existsOnServer(s, id));
+    }
+
+    /**
+     * То же что {@link #onEveryServer(Function, Function)}, но без fallback -
+     * если хоть один сервер не успел или упал, вызывающий получит исключение.
+     */
+    private <T> Map<String, T> onEveryServer(Function<String, T> call) {
+        return onEveryServer(call, null);
+    }
+
+    /**
+     * Выполняет call на всех игровых серверах одновременно и ждет
+     * их всех не дольше game.server-timeout (0 - без ограничения).
+     * Результат идет в порядке серверов. Для тех серверов, что не успели
+     * (их запрос отменяется) или упали, в результат идет fallback,
+     * а если его нет - бросается IllegalStateException.
+     */
+    private <T> Map<String, T> onEveryServer(Function<String, T> call, Function<String, T> fallback) {
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        gameServers.stream().forEach(server ->
+                futures.put(server, executor.submit(() -> measure(server, call))));
+
+        int timeout = config.getGame().getServerTimeout();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+
+        Map<String, T> result = new LinkedHashMap<>();
+        List<String> failed = new LinkedList<>();
+        futures.forEach((server, future) -> {
+            try {
+                if (timeout <= 0) {
+                    result.put(server, future.get());
+                    return;
+                }
+                long left = Math.max(0, deadline - System.nanoTime());
+                result.put(server, future.get(left, TimeUnit.NANOSECONDS));
+                return;
+            } catch (TimeoutException e) {
+                logger.error("Timeout waiting for server: " + server);
+                future.cancel(true);
+                metrics.timeout(server);
+            } catch (InterruptedException | ExecutionException e) {
+                logger.error("Error processing request to server: " + server, e);
+            }
+            if (fallback != null) {
+                result.put(server, fallback.apply(server));
+            } else {
+                failed.add(server);
+            }
+        });
+
+        if (!failed.isEmpty()) {
+            throw new IllegalStateException("No answer from game servers: " + failed);
+        }
+        return result;
+    }
+
+    private <T> T measure(String server, Function<String, T> call) {
+        long start = System.currentTimeMillis();
+        try {
+            T result = call.apply(server);
+            metrics.success(server, System.currentTimeMillis() - start);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.error(server, System.currentTimeMillis() - start);
+            throw e;
+        }
+    }
+
+    public Map<String, Object> getServersMetrics() {
+        return metrics.get();
     }
 
     public Player registerOnServer(Player player, String score, String save) {
@@ -151,8 +227,10 @@ public class Dispatcher {
     }
 
     public void updateScores() {
-        List<PlayerInfo> players = gameServers.stream()
-                .map(s -> getPlayersInfosCached(s))
+        List<PlayerInfo> players = onEveryServer(
+                    s -> getPlayersInfos(s),
+                    s -> scoresFromGameServers.getOrDefault(s, Arrays.asList()))
+                .values().stream()
                 .collect(LinkedList::new, List::addAll, List::addAll);
 
         long time = now();
@@ -164,22 +242,13 @@ public class Dispatcher {
         lastTime = time;
     }
 
-    private List<PlayerInfo> getPlayersInfosCached(String server) {
-        try {
-            List<PlayerInfo> result = game.getPlayersInfos(server);
-
-            scoresFromGameServers.put(server, result);
+    private List<PlayerInfo> getPlayersInfos(String server) {
+        List<PlayerInfo> result = game.getPlayersInfos(server);
 
-            return result;
-        } catch (RestClientException e) {
-            logger.error("Error processing scores from server: " + server, e);
+        // даже если ответ пришел после таймаута - пригодится в следующий раз
+        scoresFromGameServers.put(server, result);
 
-            if (scoresFromGameServers.containsKey(server)) {
-                return scoresFromGameServers.get(server);
-            } else {
-                return Arrays.asList();
-            }
-        }
+        return result;
     }
 
     private long now() {
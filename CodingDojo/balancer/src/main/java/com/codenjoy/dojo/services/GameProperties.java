@@ -47,4 +47,5 @@ public class GameProperties {
   private String schema;
   private String basicAuthUser;
   private String basicAuthPassword;
+  private int serverTimeout; // сколько миллисекунд ждем ответа от игрового сервера
 }
@@ -0,0 +1,92 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 - 2019 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика запросов балансера к каждому игровому серверу:
+ * сколько было вызовов, ошибок, таймаутов и сколько они длились.
+ */
+public class GameServersMetrics {
+
+    private Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public void success(String server, long millis) {
+        stats(server).add(millis);
+    }
+
+    public void error(String server, long millis) {
+        Stats stats = stats(server);
+        stats.add(millis);
+        stats.errors.increment();
+    }
+
+    public void timeout(String server) {
+        stats(server).timeouts.increment();
+    }
+
+    private Stats stats(String server) {
+        return stats.computeIfAbsent(server, key -> new Stats());
+    }
+
+    public Map<String, Object> get() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        stats.forEach((server, stats) -> result.put(server, stats.get()));
+        return result;
+    }
+
+    private static class Stats {
+
+        private LongAdder calls = new LongAdder();
+        private LongAdder errors = new LongAdder();
+        private LongAdder timeouts = new LongAdder();
+        private LongAdder total = new LongAdder();
+        private AtomicLong last = new AtomicLong();
+        private AtomicLong max = new AtomicLong();
+
+        void add(long millis) {
+            calls.increment();
+            total.add(millis);
+            last.set(millis);
+            max.accumulateAndGet(millis, Math::max);
+        }
+
+        Map<String, Object> get() {
+            long calls = this.calls.sum();
+            return new LinkedHashMap<String, Object>(){{
+                put("calls", calls);
+                put("errors", errors.sum());
+                put("timeouts", timeouts.sum());
+                put("lastMs", last.get());
+                put("avgMs", (calls == 0) ? 0 : total.sum() / calls);
+                put("maxMs", max.get());
+            }};
+        }
+    }
+}
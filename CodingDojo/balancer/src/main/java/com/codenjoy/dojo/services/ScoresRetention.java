@@ -0,0 +1,127 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import com.codenjoy.dojo.services.dao.Scores;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Calendar;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновое прореживание истории scores. Последние score.retention.days дней
+ * (включая сегодняшний) хранятся с полной детализацией, у более старых
+ * остаются только финальный и почасовые снепшоты.
+ * Работает на своем потоке, чтобы не задерживать таймер обновления очков.
+ * За один проход обрабатываются все еще не прореженные дни,
+ * каждый день - отдельным запросом. Если день прорядить не вышло,
+ * остальные все равно обрабатываются, а он - в следующий проход.
+ */
+@Component
+public class ScoresRetention implements Runnable {
+
+    private static Logger logger = DLoggerFactory.getLogger(ScoresRetention.class);
+
+    @Autowired Scores scores;
+
+    @Value("${score.retention.days}")
+    int days;
+
+    @Value("${score.retention.period}")
+    long period;
+
+    private ScheduledExecutorService executor;
+    private Set<String> done = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void start() {
+        if (period <= 0) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor();
+        executor.scheduleWithFixedDelay(this, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void run() {
+        downsample(System.currentTimeMillis());
+    }
+
+    void downsample(long now) {
+        try {
+            String border = border(now);
+            for (String day : scores.getDays()) {
+                if (day.compareTo(border) >= 0 || done.contains(day)) {
+                    continue;
+                }
+
+                downsample(day);
+            }
+        } catch (Exception e) {
+            logger.error("Error while downsampling scores", e);
+        }
+    }
+
+    private void downsample(String day) {
+        try {
+            scores.downsample(day);
+        } catch (Exception e) {
+            // день не отмечаем - попробуем снова в следующий раз
+            logger.error("Error while downsampling scores for {}", day, e);
+            return;
+        }
+        done.add(day);
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Scores history downsampled for {}", day);
+        }
+    }
+
+    /**
+     * @return первый день, который еще хранится полностью
+     */
+    private String border(long now) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(now);
+        calendar.add(Calendar.DAY_OF_MONTH, 1 - Math.max(1, days));
+        return scores.getDay(calendar.getTimeInMillis());
+    }
+}
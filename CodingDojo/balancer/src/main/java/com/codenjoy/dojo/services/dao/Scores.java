@@ -38,10 +38,7 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class Scores {
 
@@ -52,6 +49,13 @@ public class Scores {
     private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern(DAY_FORMAT);
     public static final SimpleDateFormat DAY_FORMATTER2 = new SimpleDateFormat(DAY_FORMAT);
 
+    /**
+     * day -> time финального (на момент game.finalTime) снепшота дня,
+     * который скопирован в day_scores. Прошедшие дни читаются только оттуда.
+     */
+    private Map<String, String> finals;
+    private String finalsFor;
+
     public Scores(ConnectionThreadPoolFactory factory) {
         pool = factory.create(
                 "CREATE TABLE IF NOT EXISTS scores (" +
@@ -59,7 +63,76 @@ public class Scores {
                         "time varchar(30), " +
                         "id varchar(255), " +
                         "score int," +
-                        "winner int);");
+                        "winner int);",
+                "CREATE INDEX IF NOT EXISTS scores_day_time ON scores (day, time);",
+                "CREATE INDEX IF NOT EXISTS scores_time ON scores (time);",
+                "CREATE INDEX IF NOT EXISTS scores_id ON scores (id);",
+                "CREATE TABLE IF NOT EXISTS day_scores (" +
+                        "day varchar(10), " +
+                        "time varchar(30), " +
+                        "id varchar(255), " +
+                        "score int," +
+                        "winner int);",
+                "CREATE INDEX IF NOT EXISTS day_scores_day ON day_scores (day);");
+    }
+
+    /**
+     * Пересобирает day_scores при первом обращении и если поменялся game.finalTime.
+     */
+    private synchronized Map<String, String> finals() {
+        String finalTime = config.getGame().getFinalTime();
+        if (finals != null && finalTime.equals(finalsFor)) {
+            return finals;
+        }
+
+        pool.update("DELETE FROM day_scores;");
+        finals = new HashMap<>();
+        finalsFor = finalTime;
+        for (String day : getDays()) {
+            String time = getFinalTimeOf(day);
+            if (time != null) {
+                copyFinal(day, time);
+            }
+        }
+        return finals;
+    }
+
+    /**
+     * @return time финального снепшота дня или null, если его нет
+     */
+    private synchronized String getFinalOf(String day) {
+        return finals().get(day);
+    }
+
+    private String getFinalTimeOf(String day) {
+        return pool.select("SELECT time FROM scores WHERE day = ? AND time LIKE ? ORDER BY time ASC LIMIT 1;",
+                new Object[]{day, day + "T" + config.getGame().getFinalTime() + "%"},
+                rs -> rs.next() ? rs.getString("time") : null);
+    }
+
+    private void copyFinal(String day, String time) {
+        pool.update("DELETE FROM day_scores WHERE day = ?;", day);
+        pool.update("INSERT INTO day_scores (day, time, id, score, winner) " +
+                        "SELECT day, time, id, score, winner FROM scores WHERE time = ?;",
+                time);
+        finals.put(day, time);
+    }
+
+    /**
+     * Первый снепшот в минуту game.finalTime становится финальным для дня.
+     */
+    private synchronized void updateFinals(String day, String time) {
+        if (!time.startsWith(day + "T" + config.getGame().getFinalTime())) {
+            return;
+        }
+
+        Map<String, String> finals = finals();
+        String current = finals.get(day);
+        if (current != null && !current.equals(time)) {
+            return;
+        }
+
+        copyFinal(day, time);
     }
 
     void removeDatabase() {
@@ -69,95 +142,101 @@ public class Scores {
     // TODO исправить тесты
     public void saveScore(long time, String id, int score, boolean winner) {
         Date date = new Date(time);
+        String day = DAY_FORMATTER2.format(date);
+        String stamp = JDBCTimeUtils.toString(date);
         pool.update("INSERT INTO scores " +
                         "(day, time, id, score, winner) " +
                         "VALUES (?,?,?,?,?);",
-                DAY_FORMATTER2.format(date),
-                JDBCTimeUtils.toString(date),
+                day,
+                stamp,
                 id,
                 score,
                 winner ? 1 : 0);
+        updateFinals(day, stamp);
     }
 
     public void saveScores(long time, List<PlayerInfo> playersInfos) {
         Date date = new Date(time);
+        String day = DAY_FORMATTER2.format(date);
+        String stamp = JDBCTimeUtils.toString(date);
         pool.batchUpdate("INSERT INTO scores " +
                         "(day, time, id, score, winner) " +
                         "VALUES (?,?,?,?,?);",
                 playersInfos,
                 (PreparedStatement stmt, PlayerInfo info) -> {
                     pool.fillStatement(stmt,
-                            DAY_FORMATTER2.format(date),
-                            JDBCTimeUtils.toString(date),
+                            day,
+                            stamp,
                             info.getId(),
                             Integer.valueOf(info.getScore()),
                             info.isWinner() ? 1 : 0);
                     return true;
                 });
+        updateFinals(day, stamp);
     }
 
     public List<PlayerScore> getFinalists(String from, String to,
                                           int finalistsCount,
                                           Collection<String> exclude)
     {
-        to = plusDay(to);
-        long time = parse(to);
-
-        List<String> finalists = new LinkedList<>();
-        return getDaysBetween(from, to).stream()
-                .map(day -> day.format(Scores.DAY_FORMATTER))
-                .filter(day -> isPast(day, time))
-                .flatMap(day -> getScores(day, time).stream()
-                    .filter(score -> score.getScore() > 0)
-                    .sorted(Comparator.comparingInt(PlayerScore::getScore).reversed())
-                    .filter(score -> !exclude.contains(score.getId()))
-                    .filter(score -> !finalists.contains(score.getId()))
-                    .limit(finalistsCount)
-                    .map(score -> {
-                        finalists.add(score.getId());
-                        score.setDay(day);
-                        return score;
-                    })
-            )
-            .collect(Collectors.toList());
+        finals();
+        Map<String, List<PlayerScore>> days = pool.select(
+                "SELECT * FROM day_scores WHERE day >= ? AND day < ?;",
+                new Object[]{from, plusDay(to)},
+                rs -> {
+                    Map<String, List<PlayerScore>> result = new TreeMap<>();
+                    while (rs.next()) {
+                        result.computeIfAbsent(rs.getString("day"), key -> new LinkedList<>())
+                                .add(buildScore(rs));
+                    }
+                    return result;
+                });
+
+        Set<String> excluded = new HashSet<>(exclude);
+        Set<String> finalists = new HashSet<>();
+        List<PlayerScore> result = new LinkedList<>();
+        days.forEach((day, scores) -> scores.stream()
+                .filter(score -> score.getScore() > 0)
+                .sorted(Comparator.comparingInt(PlayerScore::getScore).reversed())
+                .filter(score -> !excluded.contains(score.getId()))
+                .filter(score -> !finalists.contains(score.getId()))
+                .limit(finalistsCount)
+                .forEach(score -> {
+                    finalists.add(score.getId());
+                    score.setDay(day);
+                    result.add(score);
+                }));
+        return result;
     }
 
     private String plusDay(String day) {
         return LocalDate.parse(day, Scores.DAY_FORMATTER).plusDays(1).format(Scores.DAY_FORMATTER);
     }
 
-    private long parse(String to) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(getDate(to));
-        return calendar.getTimeInMillis();
-    }
-
     public void setWinnerFlag(PlayerScore playerScore, boolean isWinner) {
-        pool.update("update scores set winner = ? where" +
-                        " day = ? and time = ? and id = ? and score = ?",
-                isWinner ? 1 : 0,
-                playerScore.getDay(),
-                playerScore.getTime(),
-                playerScore.getId(),
-                playerScore.getScore()
-        );
+        for (String table : Arrays.asList("scores", "day_scores")) {
+            pool.update("update " + table + " set winner = ? where" +
+                            " day = ? and time = ? and id = ? and score = ?",
+                    isWinner ? 1 : 0,
+                    playerScore.getDay(),
+                    playerScore.getTime(),
+                    playerScore.getId(),
+                    playerScore.getScore()
+            );
+        }
     }
 
     public void cleanWinnerFlags() {
         pool.update("update scores set winner = 0 where winner <> 0");
-    }
-
-    private List<LocalDate> getDaysBetween(String from, String to) {
-        LocalDate start = LocalDate.parse(from, DAY_FORMATTER);
-        LocalDate end = LocalDate.parse(to, DAY_FORMATTER);
-        return Stream.iterate(start, date -> date.plusDays(1))
-                .limit(ChronoUnit.DAYS.between(start, end))
-                .collect(Collectors.toList());
+        pool.update("update day_scores set winner = 0 where winner <> 0");
     }
 
     public List<PlayerScore> getScores(String day, long time) {
         if (isPast(day, time)) {
-            time = getLastTimeOfPast(day);
+            finals();
+            return pool.select("SELECT * FROM day_scores WHERE day = ?;",
+                    new Object[]{day},
+                    rs -> buildScores(rs));
         }
 
         return pool.select("SELECT * FROM scores WHERE time = ?;",
@@ -168,17 +247,22 @@ public class Scores {
     private List<PlayerScore> buildScores(ResultSet rs) throws SQLException {
         return new LinkedList<PlayerScore>(){{
             while (rs.next()) {
-                add(new PlayerScore(
-                        rs.getString("id"),
-                        rs.getInt("score"),
-                        rs.getString("time"),
-                        rs.getInt("winner") == 1));
+                add(buildScore(rs));
             }
         }};
     }
 
+    private PlayerScore buildScore(ResultSet rs) throws SQLException {
+        return new PlayerScore(
+                rs.getString("id"),
+                rs.getInt("score"),
+                rs.getString("time"),
+                rs.getInt("winner") == 1);
+    }
+
     public void remove(String id) {
         pool.update("DELETE FROM scores WHERE id = ?;", id);
+        pool.update("DELETE FROM day_scores WHERE id = ?;", id);
     }
 
     public List<String> getDays() {
@@ -191,9 +275,29 @@ public class Scores {
                 }});
     }
 
-    public void removeByDay(String day) {
+    public synchronized void removeByDay(String day) {
         pool.update("DELETE FROM scores WHERE day = ?;",
                 day);
+        pool.update("DELETE FROM day_scores WHERE day = ?;",
+                day);
+        if (finals != null) {
+            finals.remove(day);
+        }
+    }
+
+    /**
+     * Прореживает историю прошедшего дня: остаются финальный снепшот,
+     * строки с флагом победителя и по одному (первому) снепшоту на каждый час.
+     * Финальный снепшот при этом по-прежнему лежит и в day_scores.
+     */
+    public void downsample(String day) {
+        String last = getFinalOf(day);
+        pool.update("DELETE FROM scores WHERE day = ? AND winner = 0 AND time <> ? " +
+                        "AND time NOT IN (SELECT MIN(time) FROM scores WHERE day = ? " +
+                        "GROUP BY substr(time, 1, 13));",
+                day,
+                (last == null) ? "" : last,
+                day);
     }
 
     public long getLastTime(long time) {
@@ -232,7 +336,11 @@ public class Scores {
         }
     }
 
-    public void removeAll() {
+    public synchronized void removeAll() {
         pool.update("DELETE FROM scores;");
+        pool.update("DELETE FROM day_scores;");
+        if (finals != null) {
+            finals.clear();
+        }
     }
 }
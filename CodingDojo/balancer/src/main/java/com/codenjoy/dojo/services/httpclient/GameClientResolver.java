@@ -26,6 +26,7 @@ import com.codenjoy.dojo.services.GameProperties;
 import com.codenjoy.dojo.services.hash.Hash;
 import feign.Feign;
 import feign.Logger.Level;
+import feign.Request;
 import feign.Response;
 import feign.auth.BasicAuthRequestInterceptor;
 import feign.codec.ErrorDecoder;
@@ -37,8 +38,11 @@ import feign.slf4j.Slf4jLogger;
 import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.PostConstruct;
 
+import okhttp3.ConnectionPool;
+
 import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -54,21 +58,38 @@ public class GameClientResolver {
 
     private final Map<String, GameServerClient> clientsByLocation = new ConcurrentHashMap<>();
 
+    private static final int MAX_IDLE_CONNECTIONS = 20;
+
     @Autowired
     private GameProperties gameProperties;
 
+    // один на всех клиентов, чтобы переиспользовать соединения и потоки
+    private okhttp3.OkHttpClient http;
+    private Request.Options options;
+
     @PostConstruct
     void init() {
+        int timeout = gameProperties.getServerTimeout();
+        http = new okhttp3.OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, 5, TimeUnit.MINUTES))
+                .connectTimeout(timeout, TimeUnit.MILLISECONDS)
+                .readTimeout(timeout, TimeUnit.MILLISECONDS)
+                .build();
+        // иначе feign на каждый запрос будет пересоздавать клиента со своими таймаутами
+        options = new Request.Options(timeout, timeout);
+
         gameProperties.getServers().forEach(server -> clientsByLocation.put(server, buildGameServerClient(server)));
     }
 
     public GameServerClient resolveClient(String location) {
-        return clientsByLocation.get(location);
+        // список серверов может поменяться в процессе работы
+        return clientsByLocation.computeIfAbsent(location, this::buildGameServerClient);
     }
 
     private GameServerClient buildGameServerClient(String server) {
         return Feign.builder()
-                .client(new OkHttpClient())
+                .client(new OkHttpClient(http))
+                .options(options)
                 .encoder(new JacksonEncoder())
                 .decoder(new JacksonDecoder())
                 .errorDecoder(new ClientErrorDecoder())
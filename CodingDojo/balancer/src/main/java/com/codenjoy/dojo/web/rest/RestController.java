@@ -73,6 +73,7 @@ public class RestController {
     public static final String GAME_SETTINGS = "/game/settings";
     public static final String VERSION = "/version";
     public static final String LOGS = "/logs";
+    public static final String METRICS = "/metrics";
 
     private static Logger logger = DLoggerFactory.getLogger(RestController.class);
 
@@ -534,6 +535,12 @@ public class RestController {
         return !timer.isPaused();
     }
 
+    @GetMapping(METRICS + "/servers")
+    @ResponseBody
+    public Map<String, Object> getServersMetrics() {
+        return dispatcher.getServersMetrics();
+    }
+
     // TODO test me
     @GetMapping(CACHE + "/clear/{mask}")
     @ResponseStatus(HttpStatus.OK)
@@ -0,0 +1,242 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 - 2019 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import com.codenjoy.dojo.services.dao.GameServer;
+import com.codenjoy.dojo.services.dao.Scores;
+import com.codenjoy.dojo.services.entity.Player;
+import com.codenjoy.dojo.services.entity.server.PlayerInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.*;
+
+public class DispatcherTest {
+
+    private static final int TIMEOUT = 200;
+
+    private Dispatcher dispatcher;
+    private GameServer game;
+    private Scores scores;
+    private CountDownLatch hang;
+    private CountDownLatch interrupted;
+
+    @Before
+    public void setup() {
+        GameProperties properties = new GameProperties();
+        properties.setServerTimeout(TIMEOUT);
+        properties.setEndDay("2019-01-31");
+        ConfigProperties config = new ConfigProperties() {
+            @Override
+            public GameProperties getGame() {
+                return properties;
+            }
+        };
+
+        GameServers servers = new GameServers();
+        servers.update(Arrays.asList("server1", "server2", "server3"));
+
+        game = mock(GameServer.class);
+        scores = mock(Scores.class);
+        when(scores.getDay(anyLong())).thenReturn("2019-01-01");
+
+        dispatcher = new Dispatcher();
+        dispatcher.config = config;
+        dispatcher.gameServers = servers;
+        dispatcher.game = game;
+        dispatcher.scores = scores;
+
+        hang = new CountDownLatch(1);
+        interrupted = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() {
+        hang.countDown();
+        dispatcher.preDestroy();
+    }
+
+    private <T> T hang() throws InterruptedException {
+        try {
+            hang.await();
+            return null;
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+            throw e;
+        }
+    }
+
+    @Test
+    public void shouldAskAllServersConcurrently_andReturnResultsInServerOrder() {
+        // given
+        // первый сервер ответит только после того, как ответит последний
+        CountDownLatch last = new CountDownLatch(1);
+        when(game.existsOnServer("server1", "player")).thenAnswer(inv -> last.await(1, TimeUnit.SECONDS));
+        when(game.existsOnServer("server2", "player")).thenReturn(false);
+        when(game.existsOnServer("server3", "player")).thenAnswer(inv -> {
+            last.countDown();
+            return true;
+        });
+
+        // when
+        Map<String, Boolean> result = dispatcher.existsOnGameServers("player");
+
+        // then
+        assertEquals("{server1=true, server2=false, server3=true}", result.toString());
+    }
+
+    @Test
+    public void shouldUseCachedScores_andCancelRequest_whenServerTimedOut() throws Exception {
+        // given
+        when(game.getPlayersInfos("server1")).thenReturn(Arrays.asList(new PlayerInfo("player1", "10")));
+        when(game.getPlayersInfos("server2")).thenReturn(Arrays.asList(new PlayerInfo("player2", "20")));
+        when(game.getPlayersInfos("server3")).thenReturn(Arrays.asList(new PlayerInfo("player3", "30")));
+        dispatcher.updateScores();
+
+        // when
+        // второй сервер больше не отвечает
+        when(game.getPlayersInfos("server1")).thenReturn(Arrays.asList(new PlayerInfo("player1", "11")));
+        when(game.getPlayersInfos("server2")).thenAnswer(inv -> hang());
+        when(game.getPlayersInfos("server3")).thenReturn(Arrays.asList(new PlayerInfo("player3", "31")));
+        long start = System.currentTimeMillis();
+        dispatcher.updateScores();
+        long duration = System.currentTimeMillis() - start;
+
+        // then
+        // для него взяты данные с прошлого раза
+        ArgumentCaptor<List<PlayerInfo>> captor = ArgumentCaptor.forClass(List.class);
+        verify(scores, times(2)).saveScores(anyLong(), captor.capture());
+        assertEquals("[player1:11, player2:20, player3:31]",
+                scores(captor.getAllValues().get(1)));
+
+        // ждали не дольше таймаута, а запрос к нему отменен
+        assertEquals(true, duration < 5 * TIMEOUT);
+        assertEquals(true, interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    private String scores(List<PlayerInfo> infos) {
+        return infos.stream()
+                .map(info -> info.getId() + ":" + info.getScore())
+                .collect(toList())
+                .toString();
+    }
+
+    @Test
+    public void shouldFail_whenServerTimedOut_caseExists() {
+        // given
+        when(game.existsOnServer("server1", "player")).thenReturn(false);
+        when(game.existsOnServer("server2", "player")).thenAnswer(inv -> hang());
+        when(game.existsOnServer("server3", "player")).thenReturn(false);
+
+        // when
+        try {
+            dispatcher.existsOnGameServers("player");
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            // then
+            // не ответивший сервер - это не "игрока там нет"
+            assertEquals("No answer from game servers: [server2]", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldNotRegisterOnNewServer_whenOldOneDidNotAnswer() {
+        // given
+        Player player = new Player();
+        player.setId("player");
+        player.setServer("server1");
+        when(game.existsOnServer("server1", "player")).thenReturn(false);
+        when(game.existsOnServer("server2", "player")).thenAnswer(inv -> hang());
+        when(game.existsOnServer("server3", "player")).thenReturn(false);
+
+        // when
+        try {
+            dispatcher.registerIfNotExists(player);
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            // then
+            assertEquals("No answer from game servers: [server2]", e.getMessage());
+        }
+
+        // игрок мог остаться на server2 - второй раз его не создаем
+        verify(game, never()).createNewPlayer(any(), any(), any(), any(),
+                any(), any(), any(), any(), any(), any());
+        verify(game, never()).remove(anyString(), anyString());
+    }
+
+    @Test
+    public void shouldRemoveFromServersWherePlayerExists() {
+        // given
+        when(game.existsOnServer("server1", "player")).thenReturn(true);
+        when(game.existsOnServer("server2", "player")).thenReturn(false);
+        when(game.existsOnServer("server3", "player")).thenReturn(true);
+        when(game.remove(anyString(), eq("player"))).thenReturn(true);
+
+        // when
+        Map<String, Boolean> result = dispatcher.removeFromEveryGameServer("player");
+
+        // then
+        assertEquals("{server1=true, server3=true}", result.toString());
+        verify(game, never()).remove("server2", "player");
+    }
+
+    @Test
+    public void shouldCountCallsErrorsAndTimeouts_perServer() {
+        // given
+        when(game.existsOnServer("server1", "player")).thenReturn(true);
+        when(game.existsOnServer("server2", "player")).thenAnswer(inv -> hang());
+        when(game.existsOnServer("server3", "player")).thenThrow(new RuntimeException("Error"));
+
+        // when
+        try {
+            dispatcher.existsOnGameServers("player");
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            assertEquals("No answer from game servers: [server2, server3]", e.getMessage());
+        }
+
+        // then
+        Map<String, Object> metrics = dispatcher.getServersMetrics();
+        assertMetrics("calls=1, errors=0, timeouts=0", metrics.get("server1"));
+        assertMetrics("calls=0, errors=0, timeouts=1", metrics.get("server2"));
+        assertMetrics("calls=1, errors=1, timeouts=0", metrics.get("server3"));
+    }
+
+    private void assertMetrics(String expected, Object actual) {
+        Map<String, Object> stats = (Map<String, Object>) actual;
+        assertEquals(expected,
+                String.format("calls=%s, errors=%s, timeouts=%s",
+                        stats.get("calls"), stats.get("errors"), stats.get("timeouts")));
+    }
+}
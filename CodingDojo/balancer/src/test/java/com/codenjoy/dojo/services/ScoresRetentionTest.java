@@ -0,0 +1,167 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 - 2019 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import com.codenjoy.dojo.services.dao.Scores;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+
+import static org.mockito.Mockito.*;
+
+public class ScoresRetentionTest {
+
+    private ScoresRetention retention;
+    private Scores scores;
+
+    @Before
+    public void setup() {
+        scores = mock(Scores.class);
+        when(scores.getDay(anyLong())).thenAnswer(inv ->
+                new SimpleDateFormat("yyyy-MM-dd").format(new Date((long)inv.getArgument(0))));
+        when(scores.getDays()).thenReturn(Arrays.asList(
+                "2019-01-26", "2019-01-27", "2019-01-28", "2019-01-29"));
+
+        retention = new ScoresRetention();
+        retention.scores = scores;
+        retention.days = 2;
+    }
+
+    /**
+     * Полдень по локальным часам - чтобы день не зависел от таймзоны.
+     */
+    private long noon(int day) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2019, Calendar.JANUARY, day, 12, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    @Test
+    public void shouldDownsampleOnlyDaysBeforeBorder() {
+        // when
+        // сегодня 29е, полностью храним 2 дня - 28е и 29е
+        retention.downsample(noon(29));
+
+        // then
+        verify(scores).downsample("2019-01-26");
+        verify(scores).downsample("2019-01-27");
+        verify(scores, never()).downsample("2019-01-28");
+        verify(scores, never()).downsample("2019-01-29");
+    }
+
+    @Test
+    public void shouldKeepTodayOnly_whenDaysIsNotPositive() {
+        // given
+        retention.days = 0;
+
+        // when
+        retention.downsample(noon(29));
+
+        // then
+        verify(scores).downsample("2019-01-28");
+        verify(scores, never()).downsample("2019-01-29");
+    }
+
+    @Test
+    public void shouldMoveBorder_withTime() {
+        // when
+        retention.downsample(noon(28));
+
+        // then
+        verify(scores).downsample("2019-01-26");
+        verify(scores, never()).downsample("2019-01-27");
+
+        // when
+        retention.downsample(noon(29));
+
+        // then
+        verify(scores).downsample("2019-01-27");
+        verify(scores, never()).downsample("2019-01-28");
+    }
+
+    @Test
+    public void shouldNotDownsampleDayTwice() {
+        // when
+        retention.downsample(noon(29));
+        retention.downsample(noon(29));
+
+        // then
+        verify(scores, times(1)).downsample("2019-01-26");
+        verify(scores, times(1)).downsample("2019-01-27");
+    }
+
+    @Test
+    public void shouldRetryDay_whenDownsampleFailed() {
+        // given
+        doThrow(new RuntimeException("database is locked"))
+                .doNothing()
+                .when(scores).downsample("2019-01-26");
+
+        // when
+        retention.downsample(noon(29));
+
+        // then
+        // упавший день не мешает остальным
+        verify(scores, times(1)).downsample("2019-01-26");
+        verify(scores, times(1)).downsample("2019-01-27");
+
+        // when
+        retention.downsample(noon(29));
+
+        // then
+        // а в следующий раз пробуем его снова - и только его
+        verify(scores, times(2)).downsample("2019-01-26");
+        verify(scores, times(1)).downsample("2019-01-27");
+
+        // when
+        retention.downsample(noon(29));
+
+        // then
+        verify(scores, times(2)).downsample("2019-01-26");
+    }
+
+    @Test
+    public void shouldTryAgainLater_whenDaysNotAvailable() {
+        // given
+        when(scores.getDays())
+                .thenThrow(new RuntimeException("database is locked"))
+                .thenReturn(Arrays.asList("2019-01-26"));
+
+        // when
+        retention.downsample(noon(29));
+
+        // then
+        verify(scores, never()).downsample(anyString());
+
+        // when
+        retention.downsample(noon(29));
+
+        // then
+        verify(scores).downsample("2019-01-26");
+    }
+}
@@ -25,6 +25,7 @@ package com.codenjoy.dojo.services.dao;
 import com.codenjoy.dojo.services.ConfigProperties;
 import com.codenjoy.dojo.services.ContextPathGetter;
 import com.codenjoy.dojo.services.GameProperties;
+import com.codenjoy.dojo.services.entity.PlayerScore;
 import com.codenjoy.dojo.services.entity.server.PlayerInfo;
 import com.codenjoy.dojo.services.jdbc.JDBCTimeUtils;
 import com.codenjoy.dojo.services.jdbc.SqliteConnectionThreadPoolFactory;
@@ -33,7 +34,9 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
@@ -41,12 +44,14 @@ import static org.junit.Assert.fail;
 public class ScoresTest {
 
     private static Scores service;
+    private String finalTime;
 
     @Before
     public void setup() {
         // TODO продолжить с этим - проблема что на travis другая таймзона и все слетает
         JDBCTimeUtils.setTimeZone(TimeZone.getTimeZone("Europe/Kiev"));
 
+        finalTime = "19:00";
         String dbFile = "target/scores.db" + new Random().nextInt();
         service = new Scores(
                 new SqliteConnectionThreadPoolFactory(false, dbFile,
@@ -61,7 +66,7 @@ public class ScoresTest {
                 @Override
                 public GameProperties getGame() {
                     GameProperties game = new GameProperties();
-                    game.setFinalTime("19:00");
+                    game.setFinalTime(finalTime);
                     return game;
                 }
             };
@@ -540,4 +545,109 @@ public class ScoresTest {
 
     }
 
+    /**
+     * Время по часам Europe/Kiev (как пишет JDBCTimeUtils) - в середине дня,
+     * чтобы день совпадал в любой таймзоне, где гоняют тесты.
+     */
+    private long kiev(String day, int hour, int minute) {
+        LocalDate date = LocalDate.parse(day);
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("Europe/Kiev"));
+        calendar.clear();
+        calendar.set(date.getYear(), date.getMonthValue() - 1, date.getDayOfMonth(), hour, minute);
+        return calendar.getTimeInMillis();
+    }
+
+    private void save(long time, String... scores) {
+        service.saveScores(time, Arrays.stream(scores)
+                .map(score -> score.split(":"))
+                .map(pair -> new PlayerInfo(pair[0], pair[1]))
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void shouldGetScoresOfPastDay_fromFinalSnapshot() {
+        // given
+        finalTime = "12:00";
+        save(kiev("2019-01-27", 11, 0), "stiven.pupkin.id:100", "eva.pupkina.id:200");
+        save(kiev("2019-01-27", 12, 0), "stiven.pupkin.id:110", "eva.pupkina.id:220");
+        save(kiev("2019-01-27", 13, 0), "stiven.pupkin.id:130", "eva.pupkina.id:240");
+        save(kiev("2019-01-28", 11, 0), "stiven.pupkin.id:10", "eva.pupkina.id:20");
+
+        // when then
+        // прошедший день - его финальный снепшот, а не последний
+        assertEquals("[PlayerScore{id='stiven.pupkin.id', name='null', score=110, day='null', time='2019-01-27T12:00:00.000+0200', server='null', winner=false}, " +
+                        "PlayerScore{id='eva.pupkina.id', name='null', score=220, day='null', time='2019-01-27T12:00:00.000+0200', server='null', winner=false}]",
+                service.getScores("2019-01-27", kiev("2019-01-28", 11, 0)).toString());
+
+        // текущий день - конкретный снепшот
+        assertEquals("[PlayerScore{id='stiven.pupkin.id', name='null', score=130, day='null', time='2019-01-27T13:00:00.000+0200', server='null', winner=false}, " +
+                        "PlayerScore{id='eva.pupkina.id', name='null', score=240, day='null', time='2019-01-27T13:00:00.000+0200', server='null', winner=false}]",
+                service.getScores("2019-01-27", kiev("2019-01-27", 13, 0)).toString());
+    }
+
+    @Test
+    public void shouldGetFinalists_fromFinalSnapshots() {
+        // given
+        finalTime = "12:00";
+        save(kiev("2019-01-27", 12, 0), "stiven.pupkin.id:110", "eva.pupkina.id:220", "bob.marley.id:330");
+        save(kiev("2019-01-27", 13, 0), "stiven.pupkin.id:999", "eva.pupkina.id:220", "bob.marley.id:330");
+        save(kiev("2019-01-28", 12, 0), "stiven.pupkin.id:50", "eva.pupkina.id:300", "bob.marley.id:0");
+        // этот день еще не закончился - финального снепшота нет
+        save(kiev("2019-01-29", 11, 0), "stiven.pupkin.id:500", "eva.pupkina.id:600", "bob.marley.id:700");
+
+        // when
+        List<PlayerScore> finalists = service.getFinalists("2019-01-27", "2019-01-29", 1,
+                Arrays.asList("bob.marley.id"));
+
+        // then
+        // очки после финального свистка не в счет, а победитель прошлого дня второй раз не берется
+        assertEquals("[PlayerScore{id='eva.pupkina.id', name='null', score=220, day='2019-01-27', time='2019-01-27T12:00:00.000+0200', server='null', winner=false}, " +
+                        "PlayerScore{id='stiven.pupkin.id', name='null', score=50, day='2019-01-28', time='2019-01-28T12:00:00.000+0200', server='null', winner=false}]",
+                finalists.toString());
+    }
+
+    @Test
+    public void shouldDownsample_keepFinalSnapshot_winnersAndHourlyPoints() {
+        // given
+        finalTime = "12:00";
+        String day = "2019-01-27";
+        save(kiev(day, 11, 0), "stiven.pupkin.id:100", "eva.pupkina.id:200");
+        save(kiev(day, 11, 30), "stiven.pupkin.id:105", "eva.pupkina.id:205");
+        save(kiev(day, 12, 0), "stiven.pupkin.id:110", "eva.pupkina.id:220");
+        save(kiev(day, 12, 10), "stiven.pupkin.id:115", "eva.pupkina.id:225");
+        save(kiev(day, 12, 20), "eva.pupkina.id:230");
+        service.saveScore(kiev(day, 12, 20), "stiven.pupkin.id", 120, true);
+        save(kiev(day, 13, 0), "stiven.pupkin.id:130", "eva.pupkina.id:240");
+        save(kiev(day, 13, 5), "stiven.pupkin.id:135", "eva.pupkina.id:245");
+
+        // when
+        service.downsample(day);
+
+        // then
+        // по первому снепшоту в час, финальный и строки победителей
+        assertEquals("[stiven.pupkin.id:100, eva.pupkina.id:200]", scoresAt(day, 11, 0));
+        assertEquals("[]", scoresAt(day, 11, 30));
+        assertEquals("[stiven.pupkin.id:110, eva.pupkina.id:220]", scoresAt(day, 12, 0));
+        assertEquals("[]", scoresAt(day, 12, 10));
+        assertEquals("[stiven.pupkin.id:120]", scoresAt(day, 12, 20));
+        assertEquals("[stiven.pupkin.id:130, eva.pupkina.id:240]", scoresAt(day, 13, 0));
+        assertEquals("[]", scoresAt(day, 13, 5));
+
+        // и для прошедшего дня по-прежнему виден финальный снепшот
+        assertEquals(Arrays.asList(day), service.getDays());
+        assertEquals("[stiven.pupkin.id:110, eva.pupkina.id:220]",
+                scores(service.getScores(day, kiev("2019-01-28", 11, 0))));
+    }
+
+    private String scoresAt(String day, int hour, int minute) {
+        return scores(service.getScores(day, kiev(day, hour, minute)));
+    }
+
+    private String scores(List<PlayerScore> scores) {
+        return scores.stream()
+                .map(score -> score.getId() + ":" + score.getScore())
+                .collect(Collectors.toList())
+                .toString();
+    }
+
 }
@@ -44,6 +44,9 @@ public class Battlecity implements Field {
     private List<Construction> constructions;
     private List<Border> borders;
 
+    // конструкции и границы не двигаются, так что ищем их сразу по клетке
+    private CellIndex<Point> walls;
+
     private List<Player> players = new LinkedList<Player>();
 
     public Battlecity(int size, Dice dice, List<Construction> constructions, Tank... aiTanks) {
@@ -59,6 +62,10 @@ public class Battlecity implements Field {
         this.constructions = new LinkedList<>(constructions);
         this.borders = new LinkedList<>(borders);
 
+        walls = new CellIndex<>(size);
+        walls.addAll(this.constructions);
+        walls.addAll(this.borders);
+
         for (Tank tank : aiTanks) {
             addAI(tank);
         }
@@ -111,8 +118,10 @@ public class Battlecity implements Field {
             bullet.move();
         }
 
+        CellIndex<Point> busy = new CellIndex<>(size, tanks);
+        busy.addAll(getBullets());
         for (Construction construction : constructions) {
-            if (!tanks.contains(construction) && !getBullets().contains(construction)) {
+            if (!busy.contains(construction)) {
                 construction.tick();
             }
         }
@@ -152,7 +161,7 @@ public class Battlecity implements Field {
 
     @Override
     public void affect(Bullet bullet) {
-        if (borders.contains(bullet)) {
+        if (walls.contains(bullet, Border.class)) {
             bullet.onDestroy();
             return;
         }
@@ -179,9 +188,8 @@ public class Battlecity implements Field {
             }
         }
 
-        if (constructions.contains(bullet)) {
-            Construction construction = getConstructionAt(bullet);
-
+        Construction construction = walls.get(bullet, Construction.class);
+        if (construction != null) {
             if (!construction.destroyed()) {
                 construction.destroyFrom(bullet.getDirection());
                 bullet.onDestroy();  // TODO заимплементить взрыв
@@ -191,11 +199,6 @@ public class Battlecity implements Field {
         }
     }
 
-    private Construction getConstructionAt(Bullet bullet) {
-        int index = constructions.indexOf(bullet);
-        return constructions.get(index);
-    }
-
     private void scoresForKill(Bullet killedBullet, Tank diedTank) {
         Player died = null;
         boolean aiDied = aiTanks.contains(diedTank);
@@ -234,15 +237,10 @@ public class Battlecity implements Field {
 
     @Override
     public boolean isBarrier(Point pt) {
-        for (Construction construction : constructions) {
-            if (construction.itsMe(pt) && !construction.destroyed()) {
-                return true;
-            }
-        }
-        for (Point border : borders) {
-            if (border.itsMe(pt)) {
-                return true;
-            }
+        if (walls.get(pt, it -> !(it instanceof Construction)
+                || !((Construction) it).destroyed()) != null)
+        {
+            return true;
         }
         for (Tank tank : getTanks()) {   //  TODO проверить как один танк не может проходить мимо другого танка игрока (не AI)
             if (tank.itsMe(pt)) {
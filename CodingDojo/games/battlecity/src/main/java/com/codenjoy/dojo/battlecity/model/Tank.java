@@ -25,11 +25,12 @@ package com.codenjoy.dojo.battlecity.model;
 
 import com.codenjoy.dojo.services.*;
 import com.codenjoy.dojo.services.multiplayer.PlayerHero;
+import com.codenjoy.dojo.services.printer.PlayerDependent;
 
 import java.util.LinkedList;
 import java.util.List;
 
-public class Tank extends PlayerHero<Field> implements State<Elements, Player> {
+public class Tank extends PlayerHero<Field> implements State<Elements, Player>, PlayerDependent {
 
     public static final int MAX = 100;
     protected Dice dice;
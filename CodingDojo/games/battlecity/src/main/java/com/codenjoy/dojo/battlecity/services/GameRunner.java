@@ -37,6 +37,8 @@ import com.codenjoy.dojo.services.multiplayer.GameField;
 import com.codenjoy.dojo.services.multiplayer.GamePlayer;
 import com.codenjoy.dojo.services.multiplayer.MultiplayerType;
 import com.codenjoy.dojo.services.printer.CharElements;
+import com.codenjoy.dojo.services.printer.PrinterFactory;
+import com.codenjoy.dojo.services.printer.PrinterFactoryImpl;
 import com.codenjoy.dojo.services.settings.Parameter;
 
 import static com.codenjoy.dojo.services.settings.SimpleParameter.v;
@@ -90,6 +92,11 @@ public class GameRunner extends AbstractGameType implements GameType {
         return Board.class;
     }
 
+    @Override
+    public PrinterFactory getPrinterFactory() {
+        return new PrinterFactoryImpl(true);
+    }
+
     @Override
     public MultiplayerType getMultiplayerType() {
         return MultiplayerType.MULTIPLE;
@@ -463,14 +463,10 @@ public class Bomberman extends RoundField<Player> implements Field {
             }
         }
 
-        for (Wall wall : walls) {
-            if (!wall.itsMe(pt)) {
-                continue;
-            }
-
+        if (walls.itsMe(pt)) {
             // TODO test me стенка или другой чопер не могут появиться на чопере
             // TODO но герой может пойти к нему на встречу
-            if (isForHero && wall instanceof MeatChopper) {
+            if (isForHero && walls.get(pt) instanceof MeatChopper) {
                 return false;
             }
             return true;
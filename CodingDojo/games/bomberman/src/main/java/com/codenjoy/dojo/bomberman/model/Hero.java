@@ -28,6 +28,7 @@ import com.codenjoy.dojo.bomberman.model.perks.Perk;
 import com.codenjoy.dojo.bomberman.model.perks.PerkOnBoard;
 import com.codenjoy.dojo.bomberman.services.Events;
 import com.codenjoy.dojo.services.*;
+import com.codenjoy.dojo.services.printer.PlayerDependent;
 import com.codenjoy.dojo.services.round.RoundPlayerHero;
 
 import java.util.List;
@@ -37,7 +38,7 @@ import static com.codenjoy.dojo.bomberman.model.Field.FOR_HERO;
 import static com.codenjoy.dojo.bomberman.model.StateUtils.filter;
 import static com.codenjoy.dojo.bomberman.model.StateUtils.filterOne;
 
-public class Hero extends RoundPlayerHero<Field> implements State<Elements, Player> {
+public class Hero extends RoundPlayerHero<Field> implements State<Elements, Player>, PlayerDependent {
 
     public static final int MAX = 1000;
 
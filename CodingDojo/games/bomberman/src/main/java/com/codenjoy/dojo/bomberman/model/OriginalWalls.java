@@ -35,7 +35,7 @@ public class OriginalWalls extends WallsImpl implements Iterable<Wall> {
     private Parameter<Integer> size;
 
     public OriginalWalls(Parameter<Integer> size) {
-        super();
+        super(size.getValue());
         currentSize = size.getValue();
         this.size = size;
 
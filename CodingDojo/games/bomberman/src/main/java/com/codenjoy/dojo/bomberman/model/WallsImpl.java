@@ -23,6 +23,7 @@ package com.codenjoy.dojo.bomberman.model;
  */
 
 
+import com.codenjoy.dojo.services.CellIndex;
 import com.codenjoy.dojo.services.Point;
 
 import java.util.Iterator;
@@ -35,15 +36,24 @@ import static java.util.stream.Collectors.toList;
 public class WallsImpl implements Walls {
 
     private List<Wall> walls;
+    private CellIndex<Wall> index;
 
     public WallsImpl() {
+        this(0);
+    }
+
+    /**
+     * @param size ожидаемый размер поля, чтобы индекс не перестраивался по мере роста.
+     */
+    public WallsImpl(int size) {
         walls = new LinkedList<>();
+        index = new CellIndex<>(size);
     }
 
     public WallsImpl(Walls input) {
         this();
         for (Wall wall : input) {
-            walls.add(wall.copy());
+            add(wall.copy());
         }
     }
 
@@ -66,8 +76,7 @@ public class WallsImpl implements Walls {
 
     @Override
     public boolean itsMe(Point pt) {
-        return walls.stream()
-                .anyMatch(wall -> wall.itsMe(pt));
+        return index.contains(pt);
     }
 
     @Override
@@ -89,43 +98,52 @@ public class WallsImpl implements Walls {
     @Override
     public void add(Wall wall) {
         walls.add(wall);
+        index.add(wall);
     }
 
     @Override
     public Wall destroy(Point pt) {
-        int index = walls.indexOf(new Wall(pt));
-        if (index == -1) {
+        Wall wall = index.get(pt);
+        if (wall == null) {
             return new Wall(-1, -1);
         }
-        return walls.remove(index);
+        return remove(wall);
     }
 
     @Override
     public Wall destroyExact(Wall wall) {
-        for (int index = 0; index < walls.size(); index++) {
-            Wall item = walls.get(index);
-            // если тот же элемент, или тип тот же и координаты идентичны
-            if (item == wall
-                    || ( item.getClass().equals(wall.getClass())
-                        && item.equals(wall)))
-            {
-                return walls.remove(index);
-            }
+        // если тот же элемент, или тип тот же и координаты идентичны
+        Wall item = index.get(wall, it -> it == wall
+                || it.getClass().equals(wall.getClass()));
+        if (item == null) {
+            return new Wall(-1, -1);
         }
-        return new Wall(-1, -1);
+        return remove(item);
+    }
+
+    private Wall remove(Wall wall) {
+        index.remove(wall);
+        walls.removeIf(it -> it == wall);
+        return wall;
     }
 
     @Override
     public Wall get(Point pt) {
-        int index = walls.indexOf(new Wall(pt));
-        if (index == -1) {
+        Wall wall = index.get(pt);
+        if (wall == null) {
             return new NotAWall(-1, -1);
         }
-        return walls.get(index);
+        return wall;
     }
 
     @Override
     public void tick() {
-        new LinkedList<>(walls).forEach(Wall::tick);
+        // митчоперы ходят сами, так что после тика переносим их в индексе
+        new LinkedList<>(walls).forEach(wall -> {
+            int x = wall.getX();
+            int y = wall.getY();
+            wall.tick();
+            index.moved(wall, x, y);
+        });
     }
 }
@@ -39,6 +39,8 @@ import com.codenjoy.dojo.services.multiplayer.GameField;
 import com.codenjoy.dojo.services.multiplayer.GamePlayer;
 import com.codenjoy.dojo.services.multiplayer.MultiplayerType;
 import com.codenjoy.dojo.services.printer.CharElements;
+import com.codenjoy.dojo.services.printer.PrinterFactory;
+import com.codenjoy.dojo.services.printer.PrinterFactoryImpl;
 import com.codenjoy.dojo.services.settings.Parameter;
 
 public class GameRunner extends AbstractGameType implements GameType {
@@ -86,6 +88,11 @@ public class GameRunner extends AbstractGameType implements GameType {
         return Board.class;
     }
 
+    @Override
+    public PrinterFactory getPrinterFactory() {
+        return new PrinterFactoryImpl(true);
+    }
+
     @Override
     public MultiplayerType getMultiplayerType() {
         if (gameSettings.isMultiple().getValue()) {
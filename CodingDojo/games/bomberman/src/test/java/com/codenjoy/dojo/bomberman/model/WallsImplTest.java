@@ -0,0 +1,182 @@
+package com.codenjoy.dojo.bomberman.model;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import com.codenjoy.dojo.bomberman.model.perks.PerkOnBoard;
+import com.codenjoy.dojo.services.Dice;
+import com.codenjoy.dojo.services.Point;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.codenjoy.dojo.services.PointImpl.pt;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WallsImplTest {
+
+    private final static int SIZE = 5;
+    private Field field;
+    private Dice dice;
+    private WallsImpl walls;
+
+    @Before
+    public void setup() {
+        walls = new WallsImpl(SIZE);
+
+        dice = mock(Dice.class);
+        field = mock(Field.class);
+        when(field.size()).thenReturn(SIZE);
+        when(field.walls()).thenAnswer(inv -> walls);
+        when(field.isBarrier(any(Point.class), anyBoolean()))
+                .thenAnswer(inv -> walls.itsMe(inv.getArgument(0, Point.class)));
+    }
+
+    @Test
+    public void shouldFindMeatChopper_onNewPlace_afterTick() {
+        // given
+        MeatChopper chopper = new MeatChopper(pt(1, 1), field, dice);
+        walls.add(chopper);
+
+        // кубик выберет RIGHT
+        when(dice.next(anyInt())).thenReturn(1);
+
+        // when
+        walls.tick();
+
+        // then
+        assertEquals(pt(2, 1), chopper);
+        assertFalse(walls.itsMe(pt(1, 1)));
+        assertTrue(walls.itsMe(pt(2, 1)));
+        assertSame(chopper, walls.get(pt(2, 1)));
+    }
+
+    @Test
+    public void shouldMoveMeatChopperHunter_andDestroyWallsBehind() {
+        // given
+        Hero prey = new Hero(mock(Level.class), dice);
+        prey.init(field);
+        prey.move(4, 1);
+        prey.setActive(true);
+
+        DestroyWall first = new DestroyWall(1, 1);
+        DestroyWall second = new DestroyWall(2, 1);
+        walls.add(first);
+        walls.add(second);
+        MeatChopperHunter hunter = new MeatChopperHunter(new PerkOnBoard(pt(1, 1), null), prey);
+        walls.add(hunter);
+
+        // when
+        walls.tick();
+
+        // then
+        // охотник ушел вперед и снес прожженную стенку, на которой стоял
+        assertEquals(pt(2, 1), hunter);
+        assertFalse(walls.itsMe(pt(1, 1)));
+        // а стенка под ним была добавлена раньше - она и первая в клетке
+        assertSame(second, walls.get(pt(2, 1)));
+        assertEquals(Arrays.asList(hunter), walls.listSubtypes(MeatChopperHunter.class));
+
+        // when
+        walls.tick();
+
+        // then
+        assertEquals(pt(3, 1), hunter);
+        assertFalse(walls.itsMe(pt(2, 1)));
+        assertSame(hunter, walls.get(pt(3, 1)));
+        assertEquals(Arrays.asList(hunter), walls.listSubtypes(Wall.class));
+    }
+
+    @Test
+    public void shouldDestroy_inOrderOfAdding() {
+        // given
+        Wall wall = new Wall(1, 1);
+        DestroyWall destroy = new DestroyWall(1, 1);
+        walls.add(wall);
+        walls.add(destroy);
+
+        // when then
+        assertSame(wall, walls.destroy(pt(1, 1)));
+        assertSame(destroy, walls.destroy(pt(1, 1)));
+        assertEquals(pt(-1, -1), walls.destroy(pt(1, 1)));
+        assertFalse(walls.itsMe(pt(1, 1)));
+    }
+
+    @Test
+    public void shouldDestroy_inOrderOfAdding_whenWallMovedToOtherWall() {
+        // given
+        Wall mover = new Wall(1, 1) {
+            @Override
+            public void tick() {
+                move(getX() + 1, getY());
+            }
+        };
+        DestroyWall destroy = new DestroyWall(2, 1);
+        walls.add(mover);
+        walls.add(destroy);
+
+        // when
+        walls.tick();
+
+        // then
+        assertEquals(pt(2, 1), mover);
+        assertFalse(walls.itsMe(pt(1, 1)));
+
+        // как и в списке - первым в клетке будет тот, кого добавили раньше
+        assertSame(mover, walls.destroy(pt(2, 1)));
+        assertSame(destroy, walls.destroy(pt(2, 1)));
+    }
+
+    @Test
+    public void shouldDestroyExact_onlySameTypeOrSameObject() {
+        // given
+        Wall wall = new Wall(1, 1);
+        DestroyWall destroy = new DestroyWall(1, 1);
+        walls.add(wall);
+        walls.add(destroy);
+
+        // when
+        Wall removed = walls.destroyExact(new DestroyWall(1, 1));
+
+        // then
+        assertSame(destroy, removed);
+        assertSame(wall, walls.get(pt(1, 1)));
+
+        // when
+        removed = walls.destroyExact(new DestroyWall(1, 1));
+
+        // then
+        assertEquals(pt(-1, -1), removed);
+        assertSame(wall, walls.get(pt(1, 1)));
+
+        // when
+        removed = walls.destroyExact(wall);
+
+        // then
+        assertSame(wall, removed);
+        assertFalse(walls.itsMe(pt(1, 1)));
+    }
+}
@@ -0,0 +1,101 @@
+package com.codenjoy.dojo.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import java.nio.ByteBuffer;
+
+/**
+ * Бинарное кодирование фреймов для вебсокет протокола.
+ * Доски состоят из небольшого набора символов, которые в UTF-8
+ * занимают по 3 байта (☼, ☺, ♥ и т.д.). Тут фрейм кодируется палитрой:
+ * [количество символов палитры, 2 байта][символы палитры по 2 байта]
+ * [по 1 байту на каждый символ сообщения - индекс в палитре].
+ * Подходит для любой строки, в которой не больше 256 разных символов.
+ */
+public class BoardBinary {
+
+    public static final int MAX_PALETTE = 256;
+
+    private static final ThreadLocal<int[]> INDEXES =
+            ThreadLocal.withInitial(() -> new int[Character.MAX_VALUE + 1]);
+
+    /**
+     * @return закодированное сообщение или null, если символов
+     *         слишком много для однобайтовых индексов
+     */
+    public static ByteBuffer encode(String message) {
+        int[] indexes = INDEXES.get(); // индекс в палитре + 1, 0 - символа нет
+        char[] palette = new char[MAX_PALETTE];
+        int size = 0;
+        int length = message.length();
+        byte[] cells = new byte[length];
+        try {
+            for (int index = 0; index < length; index++) {
+                char ch = message.charAt(index);
+                int found = indexes[ch];
+                if (found == 0) {
+                    if (size == MAX_PALETTE) {
+                        return null;
+                    }
+                    palette[size] = ch;
+                    found = ++size;
+                    indexes[ch] = found;
+                }
+                cells[index] = (byte) (found - 1);
+            }
+        } finally {
+            for (int index = 0; index < size; index++) {
+                indexes[palette[index]] = 0;
+            }
+        }
+
+        ByteBuffer result = ByteBuffer.allocate(2 + 2 * size + length);
+        result.putShort((short) size);
+        for (int index = 0; index < size; index++) {
+            result.putChar(palette[index]);
+        }
+        result.put(cells);
+        result.flip();
+        return result;
+    }
+
+    public static String decode(byte[] data, int offset, int length) {
+        ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
+        int size = buffer.getShort() & 0xFFFF;
+        if (size > MAX_PALETTE) {
+            throw new IllegalArgumentException("Bad binary frame, palette size: " + size);
+        }
+
+        char[] palette = new char[size];
+        for (int index = 0; index < size; index++) {
+            palette[index] = buffer.getChar();
+        }
+
+        char[] result = new char[buffer.remaining()];
+        for (int index = 0; index < result.length; index++) {
+            result[index] = palette[buffer.get() & 0xFF];
+        }
+        return new String(result);
+    }
+}
@@ -0,0 +1,111 @@
+package com.codenjoy.dojo.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+/**
+ * Разностное кодирование доски для вебсокет протокола.
+ * Сервер шлет клиенту полный кадр "board=..." раз в N тиков,
+ * а между ними только изменившиеся участки строки доски "delta=...".
+ * Каждый участок записан как "offset,length:chars", участки идут подряд.
+ * Доска - просто строка, так что формат подходит любой игре, в том числе
+ * тем, что отдают json.
+ */
+public class BoardDelta {
+
+    public static final String BOARD = "board=";
+    public static final String DELTA = "delta=";
+
+    /**
+     * Одинаковые символы между изменениями короче этого
+     * дешевле переслать, чем начинать новый участок.
+     */
+    private static final int GAP = 8;
+
+    /**
+     * @return участки, которыми to отличается от from,
+     *         или null если доски несопоставимы (другой размер)
+     */
+    public static String diff(String from, String to) {
+        if (from == null || from.length() != to.length()) {
+            return null;
+        }
+
+        StringBuilder result = new StringBuilder();
+        int length = to.length();
+        int index = 0;
+        while (index < length) {
+            if (from.charAt(index) == to.charAt(index)) {
+                index++;
+                continue;
+            }
+
+            int start = index;
+            int end = index + 1;
+            for (int next = end; next < length && next - end < GAP; next++) {
+                if (from.charAt(next) != to.charAt(next)) {
+                    end = next + 1;
+                }
+            }
+
+            // суррогатные пары не разрываем, иначе фрейм не закодируется в UTF-8
+            if (start > 0 && Character.isLowSurrogate(to.charAt(start))) {
+                start--;
+            }
+            if (end < length && Character.isLowSurrogate(to.charAt(end))) {
+                end++;
+            }
+
+            result.append(start).append(',')
+                    .append(end - start).append(':')
+                    .append(to, start, end);
+            index = end;
+        }
+        return result.toString();
+    }
+
+    /**
+     * @return доска from с примененными к ней участками delta
+     */
+    public static String apply(String from, String delta) {
+        if (from == null) {
+            throw new IllegalStateException("Delta frame received before keyframe");
+        }
+
+        char[] result = from.toCharArray();
+        int index = 0;
+        while (index < delta.length()) {
+            int comma = delta.indexOf(',', index);
+            int colon = delta.indexOf(':', comma);
+            if (comma == -1 || colon == -1) {
+                throw new IllegalArgumentException("Bad delta format at " + index + ": " + delta);
+            }
+
+            int offset = Integer.parseInt(delta.substring(index, comma));
+            int length = Integer.parseInt(delta.substring(comma + 1, colon));
+            delta.getChars(colon + 1, colon + 1 + length, result, offset);
+            index = colon + 1 + length;
+        }
+        return new String(result);
+    }
+}
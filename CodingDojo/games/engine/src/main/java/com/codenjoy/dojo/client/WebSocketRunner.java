@@ -29,6 +29,7 @@ import org.eclipse.jetty.websocket.api.RemoteEndpoint;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.UpgradeException;
 import org.eclipse.jetty.websocket.api.annotations.*;
+import org.eclipse.jetty.websocket.client.ClientUpgradeRequest;
 import org.eclipse.jetty.websocket.client.WebSocketClient;
 
 import java.io.PrintStream;
@@ -55,6 +56,22 @@ public class WebSocketRunner implements Closeable {
     public static int TIMEOUT = 10000;
     public static Integer ATTEMPTS = 5;
 
+    /**
+     * Если больше 0 - сервер шлет полную доску раз в DELTA тиков,
+     * а между ними только изменения (см. {@link BoardDelta}).
+     */
+    public static int DELTA = 0;
+
+    /**
+     * Просить сервер слать фреймы в бинарном виде (см. {@link BoardBinary}).
+     */
+    public static boolean BINARY = false;
+
+    /**
+     * Предлагать серверу сжатие permessage-deflate.
+     */
+    public static boolean COMPRESS = false;
+
     private Session session;
     private WebSocketClient client;
     private Solver solver;
@@ -62,6 +79,7 @@ public class WebSocketRunner implements Closeable {
     private Runnable onClose;
     private boolean forceClose;
     private URI uri;
+    private String last;
 
     public WebSocketRunner(Solver solver, ClientBoard board) {
         this.solver = solver;
@@ -109,7 +127,7 @@ public class WebSocketRunner implements Closeable {
 
     @SneakyThrows
     private void start(URI uri, int countAttempts) {
-        this.uri = uri;
+        this.uri = withParameters(uri);
 
         client = createClient();
         client.start();
@@ -126,6 +144,22 @@ public class WebSocketRunner implements Closeable {
         connectLoop(countAttempts);
     }
 
+    @SneakyThrows
+    private static URI withParameters(URI uri) {
+        String result = uri.toString();
+        if (DELTA > 0) {
+            result = withParameter(result, "delta=" + DELTA);
+        }
+        if (BINARY) {
+            result = withParameter(result, "binary=true");
+        }
+        return new URI(result);
+    }
+
+    private static String withParameter(String uri, String parameter) {
+        return uri + (uri.contains("?") ? "&" : "?") + parameter;
+    }
+
     private WebSocketClient createClient() {
         if (UrlParser.WSS_PROTOCOL.equals(uri.getScheme())) {
             SslContextFactory ssl = new SslContextFactory(true);
@@ -186,12 +220,7 @@ public class WebSocketRunner implements Closeable {
         @OnWebSocketMessage
         public void onMessage(String data) {
             try {
-                Matcher matcher = BOARD_PATTERN.matcher(data);
-                if (!matcher.matches()) {
-                    throw new IllegalArgumentException("Unexpected board format, should be: " + BOARD_FORMAT);
-                }
-
-                board.forString(matcher.group(1));
+                board.forString(parseBoard(data));
                 print("Board: \n" + board);
 
                 String answer = solver.get(board);
@@ -209,6 +238,31 @@ public class WebSocketRunner implements Closeable {
             }
             printBreak();
         }
+
+        @OnWebSocketMessage
+        public void onMessage(byte[] data, int offset, int length) {
+            try {
+                onMessage(BoardBinary.decode(data, offset, length));
+            } catch (Exception e) {
+                print("Error decoding binary frame");
+                print(e);
+            }
+        }
+    }
+
+    private String parseBoard(String data) {
+        if (data.startsWith(BoardDelta.DELTA)) {
+            last = BoardDelta.apply(last, data.substring(BoardDelta.DELTA.length()));
+            return last;
+        }
+
+        Matcher matcher = BOARD_PATTERN.matcher(data);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Unexpected board format, should be: " + BOARD_FORMAT);
+        }
+
+        last = matcher.group(1);
+        return last;
     }
 
     private boolean isUnauthorizedAccess(Throwable exception) {
@@ -251,8 +305,14 @@ public class WebSocketRunner implements Closeable {
         if (session != null) {
             session.close();
         }
+        last = null;
+
+        ClientUpgradeRequest request = new ClientUpgradeRequest();
+        if (COMPRESS) {
+            request.addExtensions("permessage-deflate");
+        }
 
-        session = client.connect(new ClientSocket(), uri)
+        session = client.connect(new ClientSocket(), uri, request)
                 .get(TIMEOUT, TimeUnit.MILLISECONDS);
     }
 
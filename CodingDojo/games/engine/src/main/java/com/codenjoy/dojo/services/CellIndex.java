@@ -0,0 +1,294 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Индекс объектов поля по клеткам - замена линейным List.contains(pt) / indexOf(pt).
+ * Клетка адресуется как x + y*size, внутри клетки объекты лежат в порядке добавления,
+ * поэтому get(pt) вернет тот же объект, что и list.get(list.indexOf(pt)) у списка,
+ * в который добавляли в том же порядке.
+ *
+ * Объекты с координатами за пределами поля складываются в отдельную (последнюю) клетку.
+ * Если поле растет (добавили объект дальше текущего size), индекс перестраивается.
+ *
+ * Индекс не следит за объектами сам: если объект сдвинулся через свой Point.move(...),
+ * надо сказать об этом через {@link #moved(Point, int, int)} или двигать его
+ * через {@link #move(Point, int, int)}.
+ */
+public class CellIndex<T extends Point> {
+
+    private int size;
+    private Object[][] cells;
+    private int[][] orders;
+    private int[] counts;
+
+    private int sequence;
+    private int count;
+
+    public CellIndex() {
+        this(0);
+    }
+
+    public CellIndex(int size) {
+        this.size = size;
+        allocate();
+    }
+
+    public CellIndex(int size, Iterable<? extends T> items) {
+        this(size);
+        addAll(items);
+    }
+
+    public void addAll(Iterable<? extends T> items) {
+        for (T item : items) {
+            add(item);
+        }
+    }
+
+    public void add(T item) {
+        grow(item.getX(), item.getY());
+        insert(key(item.getX(), item.getY()), item, sequence++);
+        count++;
+    }
+
+    /**
+     * Удаляет именно этот объект (по ссылке, а не по координатам).
+     */
+    public boolean remove(T item) {
+        if (delete(key(item.getX(), item.getY()), item) != -1) {
+            count--;
+            return true;
+        }
+        // объект сдвинулся, а индекс об этом не знает - ищем везде
+        for (int key = 0; key < counts.length; key++) {
+            if (delete(key, item) != -1) {
+                count--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Переносит объект, который сдвинулся сам, из клетки [fromX, fromY]
+     * в клетку, соответствующую его текущим координатам.
+     */
+    public void moved(T item, int fromX, int fromY) {
+        grow(item.getX(), item.getY());
+        int from = key(fromX, fromY);
+        int to = key(item.getX(), item.getY());
+        if (from == to) {
+            return;
+        }
+        int order = delete(from, item);
+        if (order != -1) {
+            insert(to, item, order);
+        }
+    }
+
+    public void move(T item, int x, int y) {
+        int fromX = item.getX();
+        int fromY = item.getY();
+        item.move(x, y);
+        moved(item, fromX, fromY);
+    }
+
+    public boolean contains(Point pt) {
+        return get(pt) != null;
+    }
+
+    public boolean contains(int x, int y) {
+        return find(x, y, null, null) != null;
+    }
+
+    public boolean contains(Point pt, Class<? extends T> type) {
+        return get(pt, type) != null;
+    }
+
+    public boolean contains(int x, int y, Class<? extends T> type) {
+        return find(x, y, type, null) != null;
+    }
+
+    /**
+     * @return первый добавленный объект в клетке или null.
+     */
+    public T get(Point pt) {
+        return find(pt.getX(), pt.getY(), null, null);
+    }
+
+    public T get(int x, int y) {
+        return find(x, y, null, null);
+    }
+
+    /**
+     * @return первый добавленный объект в клетке указанного типа (или наследник) или null.
+     */
+    public <E extends T> E get(Point pt, Class<E> type) {
+        return find(pt.getX(), pt.getY(), type, null);
+    }
+
+    public <E extends T> E get(int x, int y, Class<E> type) {
+        return find(x, y, type, null);
+    }
+
+    /**
+     * @return первый добавленный объект в клетке, удовлетворяющий фильтру, или null.
+     */
+    public T get(Point pt, Predicate<? super T> filter) {
+        return find(pt.getX(), pt.getY(), null, filter);
+    }
+
+    public List<T> getAll(Point pt) {
+        List<T> result = new LinkedList<>();
+        int key = key(pt.getX(), pt.getY());
+        Object[] cell = cells[key];
+        for (int index = 0; index < counts[key]; index++) {
+            T item = (T) cell[index];
+            if (key != outside() || item.itsMe(pt)) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public void clear() {
+        sequence = 0;
+        count = 0;
+        allocate();
+    }
+
+    private <E> E find(int x, int y, Class<?> type, Predicate<? super T> filter) {
+        int key = key(x, y);
+        Object[] cell = cells[key];
+        for (int index = 0; index < counts[key]; index++) {
+            T item = (T) cell[index];
+            if (key == outside() && !item.itsMe(x, y)) {
+                continue;
+            }
+            if (type != null && !type.isInstance(item)) {
+                continue;
+            }
+            if (filter != null && !filter.test(item)) {
+                continue;
+            }
+            return (E) item;
+        }
+        return null;
+    }
+
+    private int outside() {
+        return size * size;
+    }
+
+    private int key(int x, int y) {
+        if (x < 0 || y < 0 || x >= size || y >= size) {
+            return outside();
+        }
+        return x + y * size;
+    }
+
+    private void allocate() {
+        int length = size * size + 1;
+        cells = new Object[length][];
+        orders = new int[length][];
+        counts = new int[length];
+    }
+
+    private void grow(int x, int y) {
+        int max = Math.max(x, y);
+        if (max < size) {
+            return;
+        }
+
+        Object[][] cells = this.cells;
+        int[][] orders = this.orders;
+        int[] counts = this.counts;
+
+        size = Math.max(max + 1, size * 2);
+        allocate();
+
+        for (int key = 0; key < counts.length; key++) {
+            for (int index = 0; index < counts[key]; index++) {
+                T item = (T) cells[key][index];
+                insert(key(item.getX(), item.getY()), item, orders[key][index]);
+            }
+        }
+    }
+
+    private void insert(int key, T item, int order) {
+        Object[] cell = cells[key];
+        int count = counts[key];
+        if (cell == null) {
+            cell = cells[key] = new Object[2];
+            orders[key] = new int[2];
+        } else if (count == cell.length) {
+            cell = cells[key] = Arrays.copyOf(cell, count * 2);
+            orders[key] = Arrays.copyOf(orders[key], count * 2);
+        }
+        int[] ranks = orders[key];
+
+        // обычно добавляется в конец, сдвигать приходится только при переезде
+        int index = count;
+        while (index > 0 && ranks[index - 1] > order) {
+            cell[index] = cell[index - 1];
+            ranks[index] = ranks[index - 1];
+            index--;
+        }
+        cell[index] = item;
+        ranks[index] = order;
+        counts[key] = count + 1;
+    }
+
+    /**
+     * @return порядковый номер удаленного объекта или -1, если его в клетке не было.
+     */
+    private int delete(int key, T item) {
+        Object[] cell = cells[key];
+        int[] ranks = orders[key];
+        int count = counts[key];
+        for (int index = 0; index < count; index++) {
+            if (cell[index] != item) {
+                continue;
+            }
+            int order = ranks[index];
+            System.arraycopy(cell, index + 1, cell, index, count - index - 1);
+            System.arraycopy(ranks, index + 1, ranks, index, count - index - 1);
+            cell[count - 1] = null;
+            counts[key] = count - 1;
+            return order;
+        }
+        return -1;
+    }
+}
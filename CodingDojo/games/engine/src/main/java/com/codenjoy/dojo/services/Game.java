@@ -79,6 +79,27 @@ public interface Game extends Closeable, Progressive {
      */
     Object getBoardAsString();
 
+    /**
+     * Все игроки на одном поле получают почти одинаковые борды,
+     * отличаются они лишь парой спрайтов (свой/чужой герой).
+     * @return общая для всех игроков поля часть борды (строится раз за тик на поле)
+     *         или null, если принтер игры так не умеет
+     * @see #getBoardAsString(Object)
+     */
+    default Object getSharedBoard() {
+        return null;
+    }
+
+    /**
+     * @param shared общая часть борды, полученная от любого игрока
+     *               этого же поля методом {@link #getSharedBoard()} в этом же тике
+     * @return то же, что и {@link #getBoardAsString()}, но дорисовывается
+     *         только та часть борды, которая зависит от игрока
+     */
+    default Object getBoardAsString(Object shared) {
+        return getBoardAsString();
+    }
+
     /**
      * Если вдруг пользователь передумает играть и уйдет, от при выходе из игры фреймворк дернет этот метод.
      * Мало ли, вдруг ты хранишь всех игроков у себя (актуально для игры типа много игроков на одном поле).
@@ -24,11 +24,17 @@ package com.codenjoy.dojo.services;
 
 
 import java.security.SecureRandom;
+import java.util.Random;
 
 public class RandomDice implements Dice {
 
     private static final SecureRandom random = new SecureRandom(String.valueOf(System.nanoTime()).getBytes());
 
+    /**
+     * Кубик поля, которое сейчас тикается на этом потоке (см. {@link #inField}).
+     */
+    private static final ThreadLocal<Random> field = new ThreadLocal<>();
+
     /**
      * Simulates a dice throwing.
      *
@@ -38,6 +44,30 @@ public class RandomDice implements Dice {
     @Override
     public int next(int n) {
         if (n <= 0) throw new IllegalArgumentException("Dice should have a positive number of faces");
-        return random.nextInt(n);
+        Random current = field.get();
+        return (current != null) ? current.nextInt(n) : random.nextInt(n);
+    }
+
+    /**
+     * Пока выполняется action, все RandomDice на этом потоке бросают fieldRandom.
+     * Так у каждого поля своя последовательность бросков, даже если
+     * поля одного GameType делят один Dice (например через настройки),
+     * и поля можно тикать на разных потоках в любом порядке.
+     *
+     * @param fieldRandom кубик поля
+     * @param action что делать с этим кубиком (обычно тик поля)
+     */
+    public static void inField(Random fieldRandom, Runnable action) {
+        Random previous = field.get();
+        field.set(fieldRandom);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                field.remove();
+            } else {
+                field.set(previous);
+            }
+        }
     }
 }
@@ -30,12 +30,16 @@ import java.util.*;
 
 import static com.codenjoy.dojo.services.PointImpl.pt;
 
+/**
+ * Осталась ради совместимости с AI, которые ее используют, сам поиск
+ * делегирован в {@link WayFinder}, который переиспользует массивы между
+ * вызовами. Результаты те же, что раньше: ходы опрашиваются для всех клеток
+ * в прежнем порядке, bfs обходит соседей в порядке UP, DOWN, LEFT, RIGHT,
+ * выбирается ближайшая цель, а из равноудаленных - первая в списке.
+ */
 public class DeikstraFindWay {
 
-    private static final List<Direction> DIRECTIONS = Arrays.asList(Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT);
-    private Map<Point, List<Direction>> ways;
-    private int size;
-    private Possible checker;
+    private WayFinder finder = new WayFinder();
 
     public interface Possible {
 
@@ -62,95 +66,33 @@ public class DeikstraFindWay {
     }
 
     public List<Direction> getShortestWay(int size, Point from, List<Point> goals, Possible possible) {
-        this.size = size;
-        this.checker = possible;
         if (possible == null) {
             throw new RuntimeException("Please setup Possible object before run getShortestWay");
         }
-        setupWays();
-
-        List<List<Direction>> paths = new LinkedList<>();
-        for (Point to : goals) {
-            List<Direction> path = getPath(from).get(to);
-            if (path == null || path.isEmpty()) continue;
-            paths.add(path);
-        }
+        finder.setup(size, possible);
+        // некоторые AI бросают кубик в possible, так что опрашиваем
+        // все клетки в прежнем порядке, иначе поменяется их поведение
+        finder.prepareAll();
 
-        int minDistance = Integer.MAX_VALUE;
-        int indexMin = 0;
-        for (int index = 0; index < paths.size(); index++) {
-            List<Direction> path = paths.get(index);
-            if (minDistance > path.size()) {
-                minDistance = path.size();
-                indexMin = index;
-            }
-        }
-
-        if (paths.isEmpty()) return Arrays.asList();
-        List<Direction> shortest = paths.get(indexMin);
-        if (shortest.size() == 0) return Arrays.asList();
+        List<Direction> shortest = finder.getShortestWay(from, goals);
+        if (shortest.isEmpty()) return Arrays.asList();
 
         return shortest;
     }
 
-    private Map<Point, List<Direction>> getPath(Point from) {
-        Map<Point, List<Direction>> path = new HashMap<>();
-        for (Point point : ways.keySet()) {
-            path.put(point, new LinkedList<>());
+    public Map<Point, List<Direction>> getPossibleWays() {
+        if (!finder.isReady()) {
+            return null;
         }
 
-        boolean[][] processed = new boolean[size][size];
-        LinkedList<Point> toProcess = new LinkedList<>();
-
-        Point current = from;
-        do {
-            if (current == null) {
-                if (toProcess.isEmpty()) { // TODO test me
-                    break;
-                }
-                current = toProcess.remove();
-            }
-            List<Direction> before = path.get(current);
-            for (Direction direction : ways.get(current)) {
-                Point to = direction.change(current);
-                if (!checker.possible(to)) continue;
-                if (processed[to.getX()][to.getY()]) continue;
-
-                List<Direction> directions = path.get(to);
-                if (directions.isEmpty() || directions.size() > before.size() + 1) {
-                    directions.addAll(before);
-                    directions.add(direction);
-
-                    if (!processed[to.getX()][to.getY()]) {
-                        toProcess.add(to);
-                    }
-                }
-            }
-            processed[current.getX()][current.getY()] = true;
-            current = null;
-        } while (!toProcess.isEmpty());
-
-        return path;
-    }
-
-    private void setupWays() {
-        ways = new TreeMap<>();
-
+        Map<Point, List<Direction>> ways = new TreeMap<>();
+        int size = finder.size();
         for (int x = 0; x < size; x++) {
             for (int y = 0; y < size; y++) {
                 Point from = pt(x, y);
-                List<Direction> directions = new LinkedList<>();
-                for (Direction direction : DIRECTIONS) {
-                    if (checker.check(size, from, direction)) {
-                        directions.add(direction);
-                    }
-                }
-                ways.put(from, directions);
+                ways.put(from, finder.getDirections(from));
             }
         }
-    }
-
-    public Map<Point, List<Direction>> getPossibleWays() {
         return ways;
     }
 }
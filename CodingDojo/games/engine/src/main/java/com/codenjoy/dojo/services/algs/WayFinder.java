@@ -0,0 +1,432 @@
+package com.codenjoy.dojo.services.algs;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import com.codenjoy.dojo.services.Direction;
+import com.codenjoy.dojo.services.Point;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import static com.codenjoy.dojo.services.PointImpl.pt;
+
+/**
+ * Поиск пути на квадратном поле. Клетки адресуются индексом x + y * size,
+ * все рабочие массивы переиспользуются между поисками, так что повторный
+ * поиск (а AI ищет путь каждый тик) аллоцирует только сам результат.
+ *
+ * Куда можно пойти из клетки спрашиваем у {@link DeikstraFindWay.Possible},
+ * но лениво - только для тех клеток, до которых дошел поиск, и не больше
+ * одного раза на клетку после {@link #setup(int, DeikstraFindWay.Possible)}
+ * (или сразу для всех клеток через {@link #prepareAll()}).
+ */
+public class WayFinder {
+
+    private static final Direction[] DIRECTIONS = {Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT};
+    private static final int[] DX = new int[DIRECTIONS.length];
+    private static final int[] DY = new int[DIRECTIONS.length];
+    private static final int NONE = -1;
+
+    static {
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            DX[i] = DIRECTIONS[i].changeX(0);
+            DY[i] = DIRECTIONS[i].changeY(0);
+        }
+    }
+
+    private int size;
+    private DeikstraFindWay.Possible possible;
+
+    // вместо очистки массивов перед каждым поиском (и после каждого setup)
+    // помечаем клетки номером поиска (и номером setup), старые метки не валидны
+    private int search;
+    private int board;
+
+    private int[] movesOf;
+    private byte[] moves;
+    private int[] visitedIn;
+    private int[] closedIn;
+    private int[] goalIn;
+    private int[] goalOrder;
+    private int[] distance;
+    private int[] parent;
+    private byte[] via;
+    private int[] queue;
+
+    // для A*: куча из пар клетка/оценка и координаты целей для эвристики
+    private int[] heap = new int[16];
+    private int[] heapCost = new int[16];
+    private int heapSize;
+    private int[] goalsX = new int[16];
+    private int[] goalsY = new int[16];
+    private int goalsCount;
+
+    /**
+     * Готовит поиск на новом поле. Если размер не поменялся - массивы
+     * остаются прежними, забываются только посчитанные ходы.
+     */
+    public void setup(int size, DeikstraFindWay.Possible possible) {
+        if (possible == null) {
+            throw new IllegalArgumentException("Possible object is required");
+        }
+        this.possible = possible;
+        if (this.size != size || moves == null) {
+            this.size = size;
+            int length = size * size;
+            movesOf = new int[length];
+            moves = new byte[length];
+            visitedIn = new int[length];
+            closedIn = new int[length];
+            goalIn = new int[length];
+            goalOrder = new int[length];
+            distance = new int[length];
+            parent = new int[length];
+            via = new byte[length];
+            queue = new int[length];
+            board = 0;
+            search = 0;
+        }
+        board = next(board, movesOf);
+    }
+
+    public boolean isReady() {
+        return possible != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Битовая маска возможных ходов из клетки, бит i - направление
+     * {@link #direction(int)}.
+     */
+    public int moves(int index) {
+        if (movesOf[index] != board) {
+            Point from = pt(index % size, index / size);
+            int mask = 0;
+            for (int i = 0; i < DIRECTIONS.length; i++) {
+                if (possible.check(size, from, DIRECTIONS[i])) {
+                    mask |= 1 << i;
+                }
+            }
+            moves[index] = (byte) mask;
+            movesOf[index] = board;
+        }
+        return moves[index];
+    }
+
+    /**
+     * Считает возможные ходы сразу для всех клеток поля - по столбцам
+     * слева направо и снизу вверх. Нужно, если {@link DeikstraFindWay.Possible}
+     * не чистый (например, бросает кубик) и важен порядок его вызовов.
+     */
+    public void prepareAll() {
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                moves(x + y * size);
+            }
+        }
+    }
+
+    public List<Direction> getDirections(Point from) {
+        List<Direction> result = new LinkedList<>();
+        if (from.isOutOf(size)) {
+            return result;
+        }
+        int mask = moves(index(from));
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                result.add(DIRECTIONS[i]);
+            }
+        }
+        return result;
+    }
+
+    public static Direction direction(int bit) {
+        return DIRECTIONS[bit];
+    }
+
+    /**
+     * Кратчайший путь (bfs) до ближайшей из целей. Если ближайших несколько -
+     * берется та, что раньше в списке. Стартовая клетка целью не считается.
+     * @return пустой список, если ни одна цель не достижима
+     */
+    public List<Direction> getShortestWay(Point from, List<Point> goals) {
+        return getShortestWay(Arrays.asList(from), goals);
+    }
+
+    /**
+     * То же, что и {@link #getShortestWay(Point, List)}, но стартуем сразу из
+     * нескольких клеток - путь строится от ближайшей к цели.
+     */
+    public List<Direction> getShortestWay(List<Point> from, List<Point> goals) {
+        return wayTo(bfs(from, goals));
+    }
+
+    /**
+     * Заливка (bfs) от всех стартовых клеток сразу, после нее
+     * {@link #distance(Point)} отдает расстояние до каждой клетки поля.
+     */
+    public void flood(List<Point> from) {
+        bfs(from, null);
+    }
+
+    /**
+     * @return расстояние до клетки по результатам последнего поиска
+     * или -1, если поиск до нее не дошел
+     */
+    public int distance(Point to) {
+        if (to.isOutOf(size)) {
+            return NONE;
+        }
+        int index = index(to);
+        return (visitedIn[index] == search) ? distance[index] : NONE;
+    }
+
+    /**
+     * @return путь до клетки по результатам последнего поиска
+     */
+    public List<Direction> getWay(Point to) {
+        if (to.isOutOf(size)) {
+            return new LinkedList<>();
+        }
+        int index = index(to);
+        return wayTo((visitedIn[index] == search) ? index : NONE);
+    }
+
+    /**
+     * Кратчайший путь до ближайшей из целей через A* с манхеттенской
+     * эвристикой. Обходит меньше клеток, чем bfs, если цель одна
+     * и в ее сторону есть проход, но среди путей одинаковой длины
+     * может выбрать другой.
+     */
+    public List<Direction> aStar(Point from, List<Point> goals) {
+        if (from.isOutOf(size)) {
+            return new LinkedList<>();
+        }
+        nextSearch();
+        markGoals(goals);
+        if (goalsCount == 0) {
+            return new LinkedList<>();
+        }
+
+        int start = index(from);
+        heapSize = 0;
+        visit(start, 0, NONE, NONE);
+        push(start, heuristic(start));
+
+        while (heapSize > 0) {
+            int current = pop();
+            if (closedIn[current] == search) {
+                continue;
+            }
+            closedIn[current] = search;
+            if (current != start && goalIn[current] == search) {
+                return wayTo(current);
+            }
+
+            int cost = distance[current] + 1;
+            int mask = moves(current);
+            for (int i = 0; i < DIRECTIONS.length; i++) {
+                if ((mask & (1 << i)) == 0) continue;
+
+                int to = current + DX[i] + DY[i] * size;
+                if (closedIn[to] == search) continue;
+                if (visitedIn[to] == search && distance[to] <= cost) continue;
+
+                visit(to, cost, current, i);
+                push(to, cost + heuristic(to));
+            }
+        }
+        return new LinkedList<>();
+    }
+
+    private int bfs(List<Point> from, List<Point> goals) {
+        nextSearch();
+        markGoals(goals);
+        boolean flood = goals == null;
+        if (!flood && goalsCount == 0) {
+            return NONE;
+        }
+
+        int head = 0;
+        int tail = 0;
+        for (Point point : from) {
+            if (point.isOutOf(size)) continue;
+
+            int index = index(point);
+            if (visitedIn[index] == search) continue;
+
+            visit(index, 0, NONE, NONE);
+            queue[tail++] = index;
+        }
+
+        int found = NONE;
+        int foundDistance = Integer.MAX_VALUE;
+        while (head < tail) {
+            int current = queue[head++];
+            int cost = distance[current] + 1;
+            if (cost > foundDistance) {
+                // все цели на расстоянии foundDistance уже найдены
+                break;
+            }
+
+            int mask = moves(current);
+            for (int i = 0; i < DIRECTIONS.length; i++) {
+                if ((mask & (1 << i)) == 0) continue;
+
+                int to = current + DX[i] + DY[i] * size;
+                if (visitedIn[to] == search) continue;
+
+                visit(to, cost, current, i);
+                queue[tail++] = to;
+
+                if (!flood && goalIn[to] == search) {
+                    if (found == NONE || goalOrder[to] < goalOrder[found]) {
+                        found = to;
+                        foundDistance = cost;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private void visit(int index, int cost, int from, int direction) {
+        visitedIn[index] = search;
+        distance[index] = cost;
+        parent[index] = from;
+        via[index] = (byte) direction;
+    }
+
+    private void markGoals(List<Point> goals) {
+        goalsCount = 0;
+        if (goals == null) {
+            return;
+        }
+        int order = 0;
+        for (Point goal : goals) {
+            order++;
+            if (goal.isOutOf(size)) continue;
+
+            int index = index(goal);
+            if (goalIn[index] == search) continue;
+
+            goalIn[index] = search;
+            goalOrder[index] = order;
+            if (goalsCount == goalsX.length) {
+                goalsX = Arrays.copyOf(goalsX, goalsCount * 2);
+                goalsY = Arrays.copyOf(goalsY, goalsCount * 2);
+            }
+            goalsX[goalsCount] = goal.getX();
+            goalsY[goalsCount] = goal.getY();
+            goalsCount++;
+        }
+    }
+
+    private int heuristic(int index) {
+        int x = index % size;
+        int y = index / size;
+        int result = Integer.MAX_VALUE;
+        for (int i = 0; i < goalsCount; i++) {
+            int distance = Math.abs(goalsX[i] - x) + Math.abs(goalsY[i] - y);
+            if (distance < result) {
+                result = distance;
+            }
+        }
+        return result;
+    }
+
+    private List<Direction> wayTo(int index) {
+        LinkedList<Direction> result = new LinkedList<>();
+        if (index == NONE) {
+            return result;
+        }
+        while (parent[index] != NONE) {
+            result.addFirst(DIRECTIONS[via[index]]);
+            index = parent[index];
+        }
+        return result;
+    }
+
+    private void push(int index, int cost) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+            heapCost = Arrays.copyOf(heapCost, heapSize * 2);
+        }
+        int child = heapSize++;
+        while (child > 0) {
+            int parent = (child - 1) / 2;
+            if (heapCost[parent] <= cost) break;
+
+            heap[child] = heap[parent];
+            heapCost[child] = heapCost[parent];
+            child = parent;
+        }
+        heap[child] = index;
+        heapCost[child] = cost;
+    }
+
+    private int pop() {
+        int result = heap[0];
+        int index = heap[--heapSize];
+        int cost = heapCost[heapSize];
+        int parent = 0;
+        while (true) {
+            int child = parent * 2 + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heapCost[child + 1] < heapCost[child]) {
+                child++;
+            }
+            if (heapCost[child] >= cost) break;
+
+            heap[parent] = heap[child];
+            heapCost[parent] = heapCost[child];
+            parent = child;
+        }
+        heap[parent] = index;
+        heapCost[parent] = cost;
+        return result;
+    }
+
+    private void nextSearch() {
+        search = next(search, visitedIn, closedIn, goalIn);
+    }
+
+    private int next(int stamp, int[]... marks) {
+        if (stamp == Integer.MAX_VALUE) {
+            for (int[] array : marks) {
+                Arrays.fill(array, 0);
+            }
+            stamp = 0;
+        }
+        return stamp + 1;
+    }
+
+    private int index(Point point) {
+        return point.getX() + point.getY() * size;
+    }
+}
@@ -29,6 +29,7 @@ import com.codenjoy.dojo.services.hero.HeroData;
 import com.codenjoy.dojo.services.hero.HeroDataImpl;
 import com.codenjoy.dojo.services.printer.Printer;
 import com.codenjoy.dojo.services.printer.PrinterFactory;
+import com.codenjoy.dojo.services.printer.SharedPrinter;
 import org.json.JSONObject;
 
 /**
@@ -123,8 +124,28 @@ public class Single implements Game {
             throw new IllegalStateException("No board for this player");
         }
 
-        Object data = printer.print();
+        return withProgress(printer.print());
+    }
+
+    @Override
+    public Object getSharedBoard() {
+        if (!(printer instanceof SharedPrinter)) {
+            return null;
+        }
+
+        return ((SharedPrinter) printer).shared();
+    }
+
+    @Override
+    public Object getBoardAsString(Object shared) {
+        if (shared == null || !(printer instanceof SharedPrinter)) {
+            return getBoardAsString();
+        }
+
+        return withProgress(((SharedPrinter) printer).printOver(shared));
+    }
 
+    private Object withProgress(Object data) {
         if (multiplayerType.isTraining()) { // TODO инкапсулировать
             if (data instanceof JSONObject) {
                 JSONObject json = (JSONObject) data;
@@ -0,0 +1,33 @@
+package com.codenjoy.dojo.services.printer;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * Этим интерфейсом надо пометить элементы борды, вид которых
+ * зависит от того, кто на них смотрит (например свой и чужой герой).
+ * Клетки с такими элементами {@link SharedPrinter} дорисовывает
+ * для каждого игрока отдельно, все прочие - печатаются раз на поле.
+ */
+public interface PlayerDependent {
+
+}
@@ -29,8 +29,27 @@ import com.codenjoy.dojo.services.multiplayer.GamePlayer;
  * Фабрика для PrinterImpl. Используется by default для всех графических "квадратных" игр.--
  */
 public class PrinterFactoryImpl<E extends CharElements, P extends GamePlayer> implements PrinterFactory<E, P> {
+
+    private boolean shared;
+
+    public PrinterFactoryImpl() {
+        this(false);
+    }
+
+    /**
+     * @param shared true, если все элементы игры, вид которых зависит от игрока,
+     *               помечены {@link PlayerDependent} - тогда общая часть борды
+     *               может печататься раз на поле, см. {@link SharedPrinter}
+     */
+    public PrinterFactoryImpl(boolean shared) {
+        this.shared = shared;
+    }
+
     @Override
     public Printer getPrinter(BoardReader reader, P player) {
+        if (shared) {
+            return PrinterImpl.getSharedPrinter(reader, player);
+        }
         return PrinterImpl.getPrinter(reader, player);
     }
 }
@@ -25,29 +25,56 @@ package com.codenjoy.dojo.services.printer;
 
 import com.codenjoy.dojo.services.GamePrinter;
 import com.codenjoy.dojo.services.Point;
-import com.codenjoy.dojo.services.PointImpl;
 import com.codenjoy.dojo.services.State;
 
-import static com.codenjoy.dojo.services.PointImpl.pt;
+import java.util.Arrays;
 
 /**
  * Этот малый умеет печатать состояние борды на экране.
+ * Все буферы живут вместе с принтером и переиспользуются от тика к тику,
+ * так что на печать аллоцируется только итоговая строка.
  * @see PrinterImpl#print(Object...)
   */
 class PrinterImpl implements Printer<String> {
     public static final String ERROR_SYMBOL = "Ъ";
-    private char[][] field;
-    private final int size;
+    private static final char ERROR_CHAR = ERROR_SYMBOL.charAt(0);
+
+    private int size;
     private GamePrinter printer;
 
+    // строки борды подряд, каждая заканчивается '\n'
+    protected char[] chars;
+    // смещение начала строки в chars для каждого y
+    private int[] rows;
+    protected boolean error;
+    protected final GamePrinter.Filler filler = this::set;
+
     public static <E extends CharElements, P> Printer getPrinter(BoardReader reader, P player) {
         return new PrinterImpl(reader.size(),
                 new GamePrinterImpl<E, P>(reader, player));
     }
 
+    public static <E extends CharElements, P> Printer getSharedPrinter(BoardReader reader, P player) {
+        return new Shared(reader.size(),
+                new GamePrinterImpl<E, P>(reader, player));
+    }
+
     public PrinterImpl(int size, GamePrinter printer) {
         this.printer = printer;
+        resize(size);
+    }
+
+    protected void resize(int size) {
+        if (chars != null && this.size == size) {
+            return;
+        }
         this.size = size;
+        chars = new char[size * (size + 1)];
+        rows = new int[size];
+        for (int y = 0; y < size; y++) {
+            rows[y] = (size - 1 - y) * (size + 1);
+            chars[rows[y] + size] = '\n';
+        }
     }
 
     /**
@@ -56,18 +83,16 @@ class PrinterImpl implements Printer<String> {
      */
     @Override
     public String print(Object... parameters) {
-        fillField();
+        error = false;
+        printer.init();
+        printer.printAll(filler);
 
-        StringBuilder string = new StringBuilder();
-        for (char[] currentRow : field) {
-            for (char ch : currentRow) {
-                string.append(ch);
-            }
-            string.append("\n");
-        }
+        return validate();
+    }
 
-        String result = string.toString();
-        if (result.contains(ERROR_SYMBOL)) {
+    protected String validate() {
+        String result = new String(chars);
+        if (error) {
             throw new IllegalArgumentException("Обрати внимание на поле - в месте 'Ъ' появился " +
                     "null Element. И как только он туда попал?\n" + result);
         }
@@ -75,30 +100,92 @@ class PrinterImpl implements Printer<String> {
         return result;
     }
 
-    private void fillField() {
-        field = new char[size][size];
-        printer.init();
-
-        printer.printAll((x, y, ch) -> PrinterImpl.this.set(x, y, ch));
-    }
-
     private void set(int x, int y, char ch) {
         if (x == -1 || y == -1) { // TODO убрать это
             return;
         }
 
-        field[size - 1 - y][x] = ch;
+        if (ch == ERROR_CHAR) {
+            error = true;
+        }
+        chars[rows[y] + x] = ch;
+    }
+
+    /**
+     * Печатает борду в два этапа, см. {@link SharedPrinter}.
+     * Общая часть - это уже готовые символы всех клеток без {@link PlayerDependent}
+     * элементов, разложенные построчно так же, как в {@link #print(Object...)}.
+     */
+    static class Shared extends PrinterImpl implements SharedPrinter<String> {
+
+        private GamePrinterImpl printer;
+
+        public Shared(int size, GamePrinterImpl printer) {
+            super(size, printer);
+            this.printer = printer;
+        }
+
+        @Override
+        public Object shared() {
+            return printer.shared();
+        }
+
+        @Override
+        public String printOver(Object shared) {
+            SharedBoard board = (SharedBoard) shared;
+            resize(board.size);
+            System.arraycopy(board.chars, 0, chars, 0, board.chars.length);
+            error = board.error;
+
+            printer.printOver(board, filler);
+
+            return validate();
+        }
+    }
+
+    static class SharedBoard {
+
+        private final int size;
+        private final char[] chars;
+        private final Object[][] cells;
+        private final byte[] len;
+        private int[] dependent;
+        private boolean error;
+
+        SharedBoard(int size) {
+            this.size = size;
+            cells = new Object[size * size][];
+            len = new byte[size * size];
+            chars = new char[size * (size + 1)];
+            for (int y = 0; y < size; y++) {
+                chars[y * (size + 1) + size] = '\n';
+            }
+        }
+
+        int index(int x, int y) {
+            return (size - 1 - y) * (size + 1) + x;
+        }
+
+        void set(int x, int y, char ch) {
+            if (ch == ERROR_CHAR) {
+                error = true;
+            }
+            chars[index(x, y)] = ch;
+        }
     }
 
     static class GamePrinterImpl<E extends CharElements, P> implements GamePrinter {
 
+        public static final int MAX_ELEMENTS = 7;
+
         private final BoardReader board;
         private int size;
         private P player;
         private char emptyChar;
 
-        private Object[][] field;
-        private byte[][] len;
+        // клетки поля подряд (x + y*size), в каждой стопка элементов
+        private Object[][] cells;
+        private byte[] len;
 
         public GamePrinterImpl(BoardReader board, P player) {
             this.board = board;
@@ -108,51 +195,132 @@ class PrinterImpl implements Printer<String> {
 
         @Override
         public void init() {
-            size = board.size();
-            field = new Object[size][size];
-            len = new byte[size][size];
+            int size = board.size();
+            if (cells == null || this.size != size) {
+                this.size = size;
+                cells = new Object[size * size][];
+                len = new byte[size * size];
+            } else {
+                clear();
+            }
 
             addAll(board.elements());
         }
 
+        /**
+         * Стопки остаются от прошлой печати, но ссылки на элементы
+         * надо занулить - игры смотрят на alsoAtPoint целиком.
+         */
+        private void clear() {
+            for (int cell = 0; cell < len.length; cell++) {
+                if (len[cell] != 0) {
+                    Arrays.fill(cells[cell], 0, len[cell], null);
+                    len[cell] = 0;
+                }
+            }
+        }
+
         private void addAll(Iterable<? extends Point> elements) {
             for (Point el : elements) {
                 int x = el.getX();
                 int y = el.getY();
 
-                if (pt(x, y).isOutOf(field.length)) {
+                if (x < 0 || y < 0 || x >= size || y >= size) {
                     continue; // TODO test me (пропускаем элементы за пределами борды)
                 }
-                Object[] existing = (Object[]) field[x][y];
+                int cell = x + y * size;
+                Object[] existing = cells[cell];
                 if (existing == null) {
-                    existing = new Object[7];
-                    field[x][y] = existing;
+                    existing = new Object[MAX_ELEMENTS];
+                    cells[cell] = existing;
                 }
-                existing[len[x][y]] = el;
-                len[x][y]++;
+                existing[len[cell]] = el;
+                len[cell]++;
             }
         }
 
         @Override
         public void printAll(Filler filler) {
-            for (int x = 0; x < size; x++) {
-                for (int y = 0; y < size; y++) {
-                    Object[] elements = (Object[]) field[x][y];
-                    if (elements == null || len[x][y] == 0) {
-                        filler.set(x, y, emptyChar);
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    int cell = x + y * size;
+                    print(x, y, cells[cell], len[cell], filler);
+                }
+            }
+        }
+
+        private void print(int x, int y, Object[] elements, int count, Filler filler) {
+            if (elements == null || count == 0) {
+                filler.set(x, y, emptyChar);
+                return;
+            }
+
+            for (int index = 0; index < count; index++) {
+                State<E, P> state = (State<E, P>)elements[index];
+                E el = state.state(player, elements);
+                if (el != null) {
+                    filler.set(x, y, el.ch());
+                    return;
+                }
+            }
+
+            // никто не захотел рисоваться - клетка остается как в новом массиве
+            filler.set(x, y, '\0');
+        }
+
+        /**
+         * Печатает все клетки, в которых нет {@link PlayerDependent} элементов,
+         * а клетки с ними запоминает, чтобы потом дорисовать их для каждого игрока.
+         */
+        public SharedBoard shared() {
+            init();
+
+            SharedBoard board = new SharedBoard(size);
+            int[] dependent = new int[size * size];
+            int count = 0;
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    int cell = x + y * size;
+                    Object[] elements = cells[cell];
+                    if (isDependent(elements, len[cell])) {
+                        // буферы принтера переиспользуются, а общая часть живет весь тик
+                        board.cells[cell] = elements.clone();
+                        board.len[cell] = len[cell];
+                        dependent[count++] = cell;
                         continue;
                     }
 
-                    for (int index = 0; index < len[x][y]; index++) {
-                        State<E, P> state = (State<E, P>)elements[index];
-                        E el = state.state(player, elements);
-                        if (el != null) {
-                            filler.set(x, y, el.ch());
-                            break;
-                        }
-                    }
+                    print(x, y, elements, len[cell], board::set);
+                }
+            }
+            board.dependent = Arrays.copyOf(dependent, count);
+
+            return board;
+        }
+
+        private boolean isDependent(Object[] elements, int count) {
+            if (elements == null) {
+                return false;
+            }
+
+            for (int index = 0; index < count; index++) {
+                if (elements[index] instanceof PlayerDependent) {
+                    return true;
                 }
             }
+            return false;
+        }
+
+        /**
+         * Дорисовывает для своего игрока только те клетки
+         * общей борды, вид которых зависит от игрока.
+         */
+        public void printOver(SharedBoard board, Filler filler) {
+            for (int cell : board.dependent) {
+                int x = cell % board.size;
+                int y = cell / board.size;
+                print(x, y, board.cells[cell], board.len[cell], filler);
+            }
         }
     }
 }
@@ -0,0 +1,44 @@
+package com.codenjoy.dojo.services.printer;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * Принтер, который умеет печатать борду в два этапа: сперва общую для всех
+ * игроков поля часть (один раз за тик на поле), а потом поверх нее
+ * для каждого игрока только те клетки, вид которых зависит от игрока.
+ * @see PlayerDependent
+ */
+public interface SharedPrinter<T> extends Printer<T> {
+
+    /**
+     * @return общая для всех игроков поля часть борды
+     */
+    Object shared();
+
+    /**
+     * @param shared общая часть, построенная методом {@link #shared()}
+     *               принтером любого игрока этого же поля
+     * @return борда игрока, такая же как {@link #print(Object...)}
+     */
+    T printOver(Object shared);
+}
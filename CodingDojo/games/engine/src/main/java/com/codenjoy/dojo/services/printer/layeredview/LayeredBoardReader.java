@@ -26,15 +26,13 @@ package com.codenjoy.dojo.services.printer.layeredview;
 import com.codenjoy.dojo.services.Point;
 import com.codenjoy.dojo.services.State;
 
-import java.util.function.BiFunction;
-
 public interface LayeredBoardReader {
 
     int size();
 
     int viewSize();
 
-    BiFunction<Integer, Integer, State> elements();
+    LayerElements elements();
 
     Point viewCenter(Object player);
 
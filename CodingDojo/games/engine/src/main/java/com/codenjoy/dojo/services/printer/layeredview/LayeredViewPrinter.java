@@ -25,9 +25,10 @@ package com.codenjoy.dojo.services.printer.layeredview;
 
 
 import com.codenjoy.dojo.services.*;
+import com.codenjoy.dojo.services.printer.CharElements;
 import com.codenjoy.dojo.services.printer.Printer;
 
-import java.util.function.BiFunction;
+import java.util.Arrays;
 import java.util.function.Supplier;
 
 import static com.codenjoy.dojo.services.PointImpl.pt;
@@ -49,6 +50,13 @@ public class LayeredViewPrinter implements Printer<PrinterData> {
     private int bound;
     private Boolean needToCenter;
 
+    // буферы слоев переиспользуются между вызовами print, а если
+    // содержимое слоя не поменялось с прошлого раза - отдаем ту же строку
+    private char[][] buffers;
+    private int[] lengths;
+    private boolean[] dirty;
+    private String[] layers;
+
     public LayeredViewPrinter(Supplier<LayeredBoardReader> reader, Supplier<Object> player, int countLayers) {
         this.getReader = reader;
         this.getPlayer = player;
@@ -77,46 +85,87 @@ public class LayeredViewPrinter implements Printer<PrinterData> {
 
         centerPositionOnStart(player);
 
-        StringBuilder[] builders = prepareLayers();
-        fillLayers(player, builders);
-        PrinterData result = getPrinterData(builders);
+        prepareLayers();
+        fillLayers(player);
+        PrinterData result = getPrinterData();
 
         return result;
     }
 
-    private void fillLayers(Object player, StringBuilder[] builders) {
-        BiFunction<Integer, Integer, State> elements = reader.elements();
-        LengthToXY xy = new LengthToXY(size);
+    private void fillLayers(Object player) {
+        LayerElements elements = reader.elements();
         for (int y = vy + viewSize - 1; y >= vy; --y) {
+            int row = (size - 1 - y) * size;
             for (int x = vx; x < vx + viewSize; ++x) {
-                int index = xy.getLength(x, y);
+                int index = row + x;
 
                 for (int layer = 0; layer < countLayers; ++layer) {
                     State item = elements.apply(index, layer);
+                    if (item == null) {
+                        append(layer, '-');
+                        continue;
+                    }
                     Object[] inSameCell = reader.itemsInSameCell(item, layer);
-                    builders[layer].append(makeState(item, player, inSameCell));
+                    append(layer, item.state(player, inSameCell));
                 }
             }
         }
     }
 
-    private PrinterData getPrinterData(StringBuilder[] builders) {
+    private void append(int layer, Object state) {
+        if (state instanceof CharElements) {
+            append(layer, ((CharElements) state).ch());
+            return;
+        }
+
+        String string = state.toString();
+        for (int i = 0; i < string.length(); i++) {
+            append(layer, string.charAt(i));
+        }
+    }
+
+    private void append(int layer, char ch) {
+        char[] buffer = buffers[layer];
+        int length = lengths[layer]++;
+        if (length == buffer.length) {
+            buffer = buffers[layer] = Arrays.copyOf(buffer, length * 2 + 1);
+        }
+        if (buffer[length] != ch) {
+            buffer[length] = ch;
+            dirty[layer] = true;
+        }
+    }
+
+    private PrinterData getPrinterData() {
         PrinterData result = new PrinterData();
         result.setOffset(pt(vx, vy));
         result.setViewSize(viewSize);
         result.setMapSize(size);
         for (int i = 0; i < countLayers; ++i) {
-            result.addLayer(builders[i].toString());
+            if (dirty[i] || layers[i] == null || layers[i].length() != lengths[i]) {
+                layers[i] = new String(buffers[i], 0, lengths[i]);
+            }
+            result.addLayer(layers[i]);
         }
         return result;
     }
 
-    private StringBuilder[] prepareLayers() {
-        StringBuilder[] builders = new StringBuilder[countLayers];
+    private void prepareLayers() {
+        if (buffers == null) {
+            buffers = new char[countLayers][];
+            lengths = new int[countLayers];
+            dirty = new boolean[countLayers];
+            layers = new String[countLayers];
+        }
+        int capacity = viewSize * viewSize;
         for (int i = 0; i < countLayers; ++i) {
-            builders[i] = new StringBuilder(viewSize * viewSize + viewSize);
+            if (buffers[i] == null || buffers[i].length < capacity) {
+                buffers[i] = new char[capacity];
+                layers[i] = null;
+            }
+            lengths[i] = 0;
+            dirty[i] = false;
         }
-        return builders;
     }
 
     private void centerPositionOnStart(Object player) {
@@ -130,10 +179,6 @@ public class LayeredViewPrinter implements Printer<PrinterData> {
         adjustView(size);
     }
 
-    private String makeState(State item, Object player, Object[] elements) {
-        return (item == null) ? "-" : item.state(player, elements).toString();
-    }
-
     private void moveTo(Point point) {
         int left = point.getX() - (vx + bound);
         left = fixToNegative(left);
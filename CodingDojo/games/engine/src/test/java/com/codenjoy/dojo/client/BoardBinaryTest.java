@@ -0,0 +1,73 @@
+package com.codenjoy.dojo.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BoardBinaryTest {
+
+    @Test
+    public void shouldEncode_onePaletteBytePerChar() {
+        // when
+        ByteBuffer buffer = BoardBinary.encode("board=☼☼☼☼ ☺ ☼☼☼☼");
+
+        // then
+        // 2 байта размер палитры + 9 символов палитры по 2 байта + 17 символов
+        assertEquals(2 + 9 * 2 + 17, buffer.remaining());
+    }
+
+    @Test
+    public void shouldDecode() {
+        assertEncodeDecode("board=☼☼☼☼ ☺ ☼☼☼☼");
+        assertEncodeDecode("{\"layers\":[\"╔═┐║.│└─┘\",\"-----☺--\"]}");
+        assertEncodeDecode("a😀b");
+        assertEncodeDecode("");
+    }
+
+    private void assertEncodeDecode(String message) {
+        ByteBuffer buffer = BoardBinary.encode(message);
+        byte[] data = new byte[buffer.remaining() + 2];
+        buffer.get(data, 1, buffer.remaining());
+
+        assertEquals(message, BoardBinary.decode(data, 1, data.length - 2));
+    }
+
+    @Test
+    public void shouldNotEncode_whenTooManyChars() {
+        StringBuilder message = new StringBuilder();
+        for (char ch = 0; ch <= BoardBinary.MAX_PALETTE; ch++) {
+            message.append(ch);
+        }
+
+        assertNull(BoardBinary.encode(message.toString()));
+
+        // палитра не протекает в следующее кодирование
+        assertEncodeDecode("abc");
+    }
+}
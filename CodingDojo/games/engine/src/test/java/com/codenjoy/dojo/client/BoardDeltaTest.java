@@ -0,0 +1,95 @@
+package com.codenjoy.dojo.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BoardDeltaTest {
+
+    private static final String FROM =
+            "☼☼☼☼☼☼☼☼☼☼" +
+            "☼        ☼" +
+            "☼ ☺      ☼" +
+            "☼        ☼" +
+            "☼☼☼☼☼☼☼☼☼☼";
+
+    private static final String TO =
+            "☼☼☼☼☼☼☼☼☼☼" +
+            "☼        ☼" +
+            "☼  ☺     ☼" +
+            "☼      ♥ ☼" +
+            "☼☼☼☼☼☼☼☼☼☼";
+
+    @Test
+    public void shouldDiff_onlyChangedCells() {
+        assertEquals("22,2: ☺37,1:♥", BoardDelta.diff(FROM, TO));
+    }
+
+    @Test
+    public void shouldDiff_mergeNearChanges() {
+        assertEquals("1,5:bcdef", BoardDelta.diff("a12345g", "abcdefg"));
+        assertEquals("1,1:b12,1:c", BoardDelta.diff("a1----------2", "ab----------c"));
+    }
+
+    @Test
+    public void shouldDiff_emptyWhenSame() {
+        assertEquals("", BoardDelta.diff(FROM, FROM));
+    }
+
+    @Test
+    public void shouldDiff_nullWhenSizeChanged() {
+        assertNull(BoardDelta.diff(FROM, FROM + "☼"));
+        assertNull(BoardDelta.diff(null, FROM));
+    }
+
+    @Test
+    public void shouldApply() {
+        assertEquals(TO, BoardDelta.apply(FROM, BoardDelta.diff(FROM, TO)));
+        assertEquals(FROM, BoardDelta.apply(FROM, ""));
+    }
+
+    @Test
+    public void shouldApply_whenDelimitersInsideBoard() {
+        String from = "{\"layers\":[\"1,2:3\"]}";
+        String to = "{\"layers\":[\"4:5,6\"]}";
+
+        assertEquals(to, BoardDelta.apply(from, BoardDelta.diff(from, to)));
+    }
+
+    @Test
+    public void shouldNotSplitSurrogatePairs() {
+        String from = "a😀b";
+        String to = "a😁b";
+
+        assertEquals("1,2:😁", BoardDelta.diff(from, to));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFail_whenNoKeyframe() {
+        BoardDelta.apply(null, "1,1:a");
+    }
+}
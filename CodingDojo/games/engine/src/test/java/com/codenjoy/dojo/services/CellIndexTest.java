@@ -0,0 +1,171 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.codenjoy.dojo.services.PointImpl.pt;
+import static org.junit.Assert.*;
+
+public class CellIndexTest {
+
+    static class Apple extends PointImpl {
+        public Apple(int x, int y) {
+            super(x, y);
+        }
+    }
+
+    static class Stone extends PointImpl {
+        public Stone(int x, int y) {
+            super(x, y);
+        }
+    }
+
+    private CellIndex<Point> index = new CellIndex<>(5);
+
+    @Test
+    public void shouldFindByPoint() {
+        Apple apple = new Apple(1, 2);
+        index.add(apple);
+
+        assertSame(apple, index.get(pt(1, 2)));
+        assertTrue(index.contains(pt(1, 2)));
+        assertTrue(index.contains(1, 2));
+        assertFalse(index.contains(pt(2, 1)));
+        assertNull(index.get(pt(2, 1)));
+    }
+
+    @Test
+    public void shouldFindByType() {
+        Apple apple = new Apple(1, 2);
+        Stone stone = new Stone(1, 2);
+        index.add(stone);
+        index.add(apple);
+
+        assertSame(stone, index.get(pt(1, 2)));
+        assertSame(apple, index.get(pt(1, 2), Apple.class));
+        assertSame(stone, index.get(pt(1, 2), Stone.class));
+        assertTrue(index.contains(pt(1, 2), Apple.class));
+        assertFalse(index.contains(pt(1, 1), Apple.class));
+    }
+
+    @Test
+    public void shouldKeepAddingOrder_likeListIndexOf() {
+        Apple first = new Apple(3, 3);
+        Apple second = new Apple(1, 1);
+        index.add(first);
+        index.add(second);
+
+        // второй переехал к первому, но первым в клетке все равно остается первый
+        index.move(second, 3, 3);
+        assertSame(first, index.get(pt(3, 3)));
+        assertEquals(Arrays.asList(first, second), index.getAll(pt(3, 3)));
+
+        // а если первый ушел и вернулся, он снова станет первым
+        index.move(first, 0, 0);
+        index.move(first, 3, 3);
+        assertSame(first, index.get(pt(3, 3)));
+    }
+
+    @Test
+    public void shouldUpdate_whenItemMovedItself() {
+        Apple apple = new Apple(1, 2);
+        index.add(apple);
+
+        apple.move(4, 4);
+        assertTrue(index.contains(pt(1, 2)));
+
+        index.moved(apple, 1, 2);
+        assertFalse(index.contains(pt(1, 2)));
+        assertSame(apple, index.get(pt(4, 4)));
+    }
+
+    @Test
+    public void shouldRemove_evenIfItemMovedItself() {
+        Apple apple = new Apple(1, 2);
+        index.add(apple);
+
+        apple.move(4, 4);
+        assertTrue(index.remove(apple));
+
+        assertFalse(index.contains(pt(1, 2)));
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    public void shouldRemoveExactItem() {
+        Apple apple1 = new Apple(1, 2);
+        Apple apple2 = new Apple(1, 2);
+        index.add(apple1);
+        index.add(apple2);
+
+        assertTrue(index.remove(apple1));
+        assertFalse(index.remove(apple1));
+
+        assertSame(apple2, index.get(pt(1, 2)));
+        assertEquals(1, index.count());
+
+        index.remove(apple2);
+        assertFalse(index.contains(pt(1, 2)));
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    public void shouldStoreItemsOutOfField() {
+        Apple outside = new Apple(-1, 3);
+        index.add(outside);
+
+        assertSame(outside, index.get(pt(-1, 3)));
+        assertFalse(index.contains(pt(-1, 2)));
+        assertFalse(index.contains(pt(3, -1)));
+
+        index.move(outside, 2, 2);
+        assertFalse(index.contains(pt(-1, 3)));
+        assertSame(outside, index.get(pt(2, 2)));
+    }
+
+    @Test
+    public void shouldGrow_whenItemIsFarther() {
+        index = new CellIndex<>();
+        Apple near = new Apple(0, 0);
+        Apple far = new Apple(10, 7);
+        index.add(near);
+        index.add(far);
+
+        assertSame(near, index.get(pt(0, 0)));
+        assertSame(far, index.get(pt(10, 7)));
+        assertFalse(index.contains(pt(7, 10)));
+    }
+
+    @Test
+    public void shouldClear() {
+        index.add(new Apple(1, 2));
+        index.clear();
+
+        assertTrue(index.isEmpty());
+        assertFalse(index.contains(pt(1, 2)));
+    }
+}
@@ -0,0 +1,224 @@
+package com.codenjoy.dojo.services.algs;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import com.codenjoy.dojo.profile.Profiler;
+import com.codenjoy.dojo.services.Direction;
+import com.codenjoy.dojo.services.Point;
+import org.junit.Test;
+
+import java.util.*;
+
+import static com.codenjoy.dojo.services.PointImpl.pt;
+import static org.junit.Assert.assertEquals;
+
+public class DeikstraFindWayPerformanceTest {
+
+    /**
+     * Прежняя реализация DeikstraFindWay - для сверки результатов и скорости.
+     */
+    static class Legacy {
+
+        private static final List<Direction> DIRECTIONS = Arrays.asList(Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT);
+        private Map<Point, List<Direction>> ways;
+        private int size;
+        private DeikstraFindWay.Possible checker;
+
+        public List<Direction> getShortestWay(int size, Point from, List<Point> goals, DeikstraFindWay.Possible possible) {
+            this.size = size;
+            this.checker = possible;
+            setupWays();
+
+            List<List<Direction>> paths = new LinkedList<>();
+            for (Point to : goals) {
+                List<Direction> path = getPath(from).get(to);
+                if (path == null || path.isEmpty()) continue;
+                paths.add(path);
+            }
+
+            int minDistance = Integer.MAX_VALUE;
+            int indexMin = 0;
+            for (int index = 0; index < paths.size(); index++) {
+                List<Direction> path = paths.get(index);
+                if (minDistance > path.size()) {
+                    minDistance = path.size();
+                    indexMin = index;
+                }
+            }
+
+            if (paths.isEmpty()) return Arrays.asList();
+            return paths.get(indexMin);
+        }
+
+        private Map<Point, List<Direction>> getPath(Point from) {
+            Map<Point, List<Direction>> path = new HashMap<>();
+            for (Point point : ways.keySet()) {
+                path.put(point, new LinkedList<>());
+            }
+
+            boolean[][] processed = new boolean[size][size];
+            LinkedList<Point> toProcess = new LinkedList<>();
+
+            Point current = from;
+            do {
+                if (current == null) {
+                    current = toProcess.remove();
+                }
+                List<Direction> before = path.get(current);
+                for (Direction direction : ways.get(current)) {
+                    Point to = direction.change(current);
+                    if (!checker.possible(to)) continue;
+                    if (processed[to.getX()][to.getY()]) continue;
+
+                    List<Direction> directions = path.get(to);
+                    if (directions.isEmpty() || directions.size() > before.size() + 1) {
+                        directions.addAll(before);
+                        directions.add(direction);
+
+                        if (!processed[to.getX()][to.getY()]) {
+                            toProcess.add(to);
+                        }
+                    }
+                }
+                processed[current.getX()][current.getY()] = true;
+                current = null;
+            } while (!toProcess.isEmpty());
+
+            return path;
+        }
+
+        private void setupWays() {
+            ways = new TreeMap<>();
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    Point from = pt(x, y);
+                    List<Direction> directions = new LinkedList<>();
+                    for (Direction direction : DIRECTIONS) {
+                        if (checker.check(size, from, direction)) {
+                            directions.add(direction);
+                        }
+                    }
+                    ways.put(from, directions);
+                }
+            }
+        }
+    }
+
+    static class Case {
+
+        int size;
+        Point from;
+        List<Point> goals;
+        DeikstraFindWay.Possible possible;
+    }
+
+    private List<Case> cases(int size, int goals, int count) {
+        Random random = new Random(size * 31 + goals);
+        List<Case> result = new LinkedList<>();
+        for (int i = 0; i < count; i++) {
+            boolean[][] walls = new boolean[size][size];
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    walls[x][y] = x == 0 || y == 0 || x == size - 1 || y == size - 1
+                            || random.nextInt(100) < 25;
+                }
+            }
+
+            Case item = new Case();
+            item.size = size;
+            item.from = free(random, walls);
+            item.goals = new LinkedList<>();
+            for (int j = 0; j < goals; j++) {
+                item.goals.add(free(random, walls));
+            }
+            item.possible = new DeikstraFindWay.Possible() {
+                @Override
+                public boolean possible(Point point) {
+                    return !walls[point.getX()][point.getY()];
+                }
+            };
+            result.add(item);
+        }
+        return result;
+    }
+
+    private Point free(Random random, boolean[][] walls) {
+        while (true) {
+            int x = random.nextInt(walls.length);
+            int y = random.nextInt(walls.length);
+            if (!walls[x][y]) {
+                return pt(x, y);
+            }
+        }
+    }
+
+    @Test
+    public void test() {
+        for (int size : new int[]{20, 40}) {
+            for (int goals : new int[]{1, 5}) {
+                List<Case> cases = cases(size, goals, 50);
+                String name = size + "x" + size + " goals " + goals;
+
+                Legacy legacy = new Legacy();
+                DeikstraFindWay way = new DeikstraFindWay();
+                WayFinder finder = new WayFinder();
+
+                // те же пути, что и раньше, а A* находит пути той же длины
+                for (Case item : cases) {
+                    List<Direction> expected = legacy.getShortestWay(item.size, item.from, item.goals, item.possible);
+                    assertEquals(expected, way.getShortestWay(item.size, item.from, item.goals, item.possible));
+
+                    finder.setup(item.size, item.possible);
+                    assertEquals(expected.size(), finder.aStar(item.from, item.goals).size());
+                }
+
+                int ticks = 10;
+                Profiler profiler = new Profiler();
+                profiler.start();
+                for (int i = 0; i < ticks; i++) {
+                    for (Case item : cases) {
+                        legacy.getShortestWay(item.size, item.from, item.goals, item.possible);
+                    }
+                }
+                profiler.done("legacy " + name);
+
+                for (int i = 0; i < ticks; i++) {
+                    for (Case item : cases) {
+                        way.getShortestWay(item.size, item.from, item.goals, item.possible);
+                    }
+                }
+                profiler.done("adapter " + name);
+
+                for (int i = 0; i < ticks; i++) {
+                    for (Case item : cases) {
+                        finder.setup(item.size, item.possible);
+                        finder.aStar(item.from, item.goals);
+                    }
+                }
+                profiler.done("astar " + name);
+                profiler.print();
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.codenjoy.dojo.services.algs;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import com.codenjoy.dojo.services.Direction;
+import com.codenjoy.dojo.services.Point;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.codenjoy.dojo.services.PointImpl.pt;
+import static org.junit.Assert.assertEquals;
+
+public class WayFinderTest {
+
+    private WayFinder finder = new WayFinder();
+    private int asked;
+
+    private void givenBoard(String board) {
+        int size = (int) Math.sqrt(board.length());
+        finder.setup(size, new DeikstraFindWay.Possible() {
+            @Override
+            public boolean possible(Point point) {
+                asked++;
+                return board.charAt((size - 1 - point.getY()) * size + point.getX()) != '#';
+            }
+        });
+    }
+
+    @Test
+    public void shouldFindShortestWay() {
+        givenBoard("#####" +
+                   "#   #" +
+                   "# # #" +
+                   "#   #" +
+                   "#####");
+
+        assertEquals("[UP, UP, RIGHT, RIGHT]",
+                finder.getShortestWay(pt(1, 1), Arrays.asList(pt(3, 3))).toString());
+    }
+
+    @Test
+    public void shouldChooseNearestGoal_orFirstOfEqual() {
+        givenBoard("#####" +
+                   "#   #" +
+                   "#   #" +
+                   "#   #" +
+                   "#####");
+
+        assertEquals("[RIGHT]",
+                finder.getShortestWay(pt(2, 2), Arrays.asList(pt(1, 1), pt(3, 2))).toString());
+
+        assertEquals("[DOWN]",
+                finder.getShortestWay(pt(2, 2), Arrays.asList(pt(2, 1), pt(1, 2), pt(3, 2))).toString());
+
+        assertEquals("[LEFT]",
+                finder.getShortestWay(pt(2, 2), Arrays.asList(pt(1, 2), pt(2, 1), pt(3, 2))).toString());
+    }
+
+    @Test
+    public void shouldReturnEmpty_whenNoWay() {
+        givenBoard("#####" +
+                   "# # #" +
+                   "### #" +
+                   "#   #" +
+                   "#####");
+
+        assertEquals("[]",
+                finder.getShortestWay(pt(1, 3), Arrays.asList(pt(3, 1))).toString());
+
+        // старт целью не считается
+        assertEquals("[]",
+                finder.getShortestWay(pt(1, 3), Arrays.asList(pt(1, 3))).toString());
+
+        // цель за пределами поля
+        assertEquals("[]",
+                finder.getShortestWay(pt(1, 1), Arrays.asList(pt(10, 1))).toString());
+    }
+
+    @Test
+    public void shouldAskPossibleOnlyForReachedCells() {
+        givenBoard("#######" +
+                   "# #   #" +
+                   "###   #" +
+                   "#     #" +
+                   "#     #" +
+                   "#     #" +
+                   "#######");
+
+        finder.getShortestWay(pt(1, 5), Arrays.asList(pt(5, 1)));
+
+        // из закрытой клетки 4 попытки выйти, на каждую проверяем откуда и куда
+        assertEquals(8, asked);
+
+        // повторный поиск на том же поле возможные ходы не пересчитывает
+        finder.getShortestWay(pt(1, 5), Arrays.asList(pt(5, 1)));
+        assertEquals(8, asked);
+    }
+
+    @Test
+    public void shouldSearchFromSeveralSources() {
+        givenBoard("#######" +
+                   "#     #" +
+                   "#     #" +
+                   "#     #" +
+                   "#     #" +
+                   "#     #" +
+                   "#######");
+
+        assertEquals("[LEFT]",
+                finder.getShortestWay(Arrays.asList(pt(1, 1), pt(5, 5)),
+                        Arrays.asList(pt(4, 5))).toString());
+
+        finder.flood(Arrays.asList(pt(1, 1), pt(5, 5)));
+        assertEquals(0, finder.distance(pt(1, 1)));
+        assertEquals(4, finder.distance(pt(3, 3)));
+        assertEquals(3, finder.distance(pt(5, 2)));
+        assertEquals(-1, finder.distance(pt(0, 0)));
+        assertEquals("[DOWN, DOWN, DOWN]", finder.getWay(pt(5, 2)).toString());
+    }
+
+    @Test
+    public void shouldFindSameLengthWay_withAStar() {
+        givenBoard("#########" +
+                   "#       #" +
+                   "# ##### #" +
+                   "#     # #" +
+                   "##### # #" +
+                   "#     # #" +
+                   "# ##### #" +
+                   "#       #" +
+                   "#########");
+
+        List<Point> goals = Arrays.asList(pt(1, 7), pt(1, 5));
+        List<Direction> bfs = finder.getShortestWay(pt(1, 1), goals);
+        List<Direction> aStar = finder.aStar(pt(1, 1), goals);
+
+        assertEquals(12, bfs.size());
+        assertEquals(bfs.size(), aStar.size());
+        assertEquals(pt(1, 5), follow(pt(1, 1), aStar));
+    }
+
+    @Test
+    public void shouldForgetMoves_afterSetup() {
+        givenBoard("#####" +
+                   "#   #" +
+                   "#   #" +
+                   "#   #" +
+                   "#####");
+        assertEquals("[RIGHT, RIGHT]",
+                finder.getShortestWay(pt(1, 2), Arrays.asList(pt(3, 2))).toString());
+
+        givenBoard("#####" +
+                   "#   #" +
+                   "# # #" +
+                   "#   #" +
+                   "#####");
+        assertEquals("[UP, RIGHT, RIGHT, DOWN]",
+                finder.getShortestWay(pt(1, 2), Arrays.asList(pt(3, 2))).toString());
+    }
+
+    private Point follow(Point from, List<Direction> way) {
+        Point result = from;
+        for (Direction direction : way) {
+            result = direction.change(result);
+        }
+        return result;
+    }
+}
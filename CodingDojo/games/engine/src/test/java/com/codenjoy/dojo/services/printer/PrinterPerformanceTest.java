@@ -0,0 +1,137 @@
+package com.codenjoy.dojo.services.printer;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import com.codenjoy.dojo.profile.Profiler;
+import com.codenjoy.dojo.services.Point;
+import com.codenjoy.dojo.services.PointImpl;
+import com.codenjoy.dojo.services.State;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedList;
+import java.util.List;
+
+import static com.codenjoy.dojo.services.PointImpl.pt;
+import static org.junit.Assert.assertTrue;
+
+public class PrinterPerformanceTest {
+
+    enum Elements implements CharElements {
+
+        NONE(' '), WALL('#'), APPLE('@');
+
+        private final char ch;
+
+        Elements(char ch) {
+            this.ch = ch;
+        }
+
+        @Override
+        public char ch() {
+            return ch;
+        }
+    }
+
+    static class Item extends PointImpl implements State<Elements, Object> {
+
+        private Elements element;
+
+        public Item(Point pt, Elements element) {
+            super(pt);
+            this.element = element;
+        }
+
+        @Override
+        public Elements state(Object player, Object... alsoAtPoint) {
+            return element;
+        }
+    }
+
+    private BoardReader reader(int size) {
+        List<Point> elements = new LinkedList<>();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (x == 0 || y == 0 || x == size - 1 || y == size - 1) {
+                    elements.add(new Item(pt(x, y), Elements.WALL));
+                } else if ((x * 7 + y * 13) % 5 == 0) {
+                    elements.add(new Item(pt(x, y), Elements.APPLE));
+                }
+            }
+        }
+
+        return new BoardReader() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Iterable<? extends Point> elements() {
+                return elements;
+            }
+        };
+    }
+
+    @Test
+    public void test() {
+        for (int size : new int[]{20, 50, 100}) {
+            Printer<String> printer = PrinterImpl.getPrinter(reader(size), null);
+            int length = size * (size + 1);
+            int ticks = 1000;
+
+            // прогрев
+            for (int i = 0; i < ticks; i++) {
+                printer.print();
+            }
+
+            Profiler profiler = new Profiler();
+            profiler.start();
+            long before = allocated();
+            for (int i = 0; i < ticks; i++) {
+                printer.print();
+            }
+            long bytes = (allocated() - before) / ticks;
+            profiler.done("print " + size + "x" + size);
+            profiler.print();
+
+            System.out.println(size + "x" + size + ": " + bytes + " bytes per print");
+
+            // на печать аллоцируется только итоговая строка (char[] плюс заголовки)
+            // и итератор по элементам, все остальное переиспользуется
+            if (bytes >= 0) {
+                assertTrue(bytes + " bytes per print", bytes < length * 2 + 1024);
+            }
+        }
+    }
+
+    private long allocated() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        return ((com.sun.management.ThreadMXBean) bean)
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
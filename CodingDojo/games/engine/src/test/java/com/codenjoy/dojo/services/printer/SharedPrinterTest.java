@@ -0,0 +1,126 @@
+package com.codenjoy.dojo.services.printer;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import com.codenjoy.dojo.services.Point;
+import com.codenjoy.dojo.services.PointImpl;
+import com.codenjoy.dojo.services.State;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import static com.codenjoy.dojo.services.PointImpl.pt;
+import static org.junit.Assert.assertEquals;
+
+public class SharedPrinterTest {
+
+    enum Elements implements CharElements {
+
+        NONE(' '), WALL('#'), HERO('☺'), OTHER_HERO('☻');
+
+        private final char ch;
+
+        Elements(char ch) {
+            this.ch = ch;
+        }
+
+        @Override
+        public char ch() {
+            return ch;
+        }
+    }
+
+    static class Wall extends PointImpl implements State<Elements, Object> {
+
+        public Wall(Point pt) {
+            super(pt);
+        }
+
+        @Override
+        public Elements state(Object player, Object... alsoAtPoint) {
+            return Elements.WALL;
+        }
+    }
+
+    static class Hero extends PointImpl implements State<Elements, Object>, PlayerDependent {
+
+        public Hero(Point pt) {
+            super(pt);
+        }
+
+        @Override
+        public Elements state(Object player, Object... alsoAtPoint) {
+            return (player == this) ? Elements.HERO : Elements.OTHER_HERO;
+        }
+    }
+
+    private List<Point> elements = new LinkedList<>();
+
+    private BoardReader reader() {
+        return new BoardReader() {
+            @Override
+            public int size() {
+                return 4;
+            }
+
+            @Override
+            public Iterable<? extends Point> elements() {
+                return elements;
+            }
+        };
+    }
+
+    @Test
+    public void shouldPrintSameBoard_whenPrintOverSharedPart() {
+        // given
+        Hero hero1 = new Hero(pt(1, 1));
+        Hero hero2 = new Hero(pt(2, 2));
+        elements.addAll(Arrays.asList(
+                new Wall(pt(0, 0)), new Wall(pt(3, 3)),
+                new Wall(pt(0, 3)), hero1, hero2));
+
+        SharedPrinter<String> printer1 = (SharedPrinter) PrinterImpl.getSharedPrinter(reader(), hero1);
+        SharedPrinter<String> printer2 = (SharedPrinter) PrinterImpl.getSharedPrinter(reader(), hero2);
+
+        // when
+        Object shared = printer1.shared();
+
+        // then
+        assertEquals(
+                "#  #\n" +
+                "  ☻ \n" +
+                " ☺  \n" +
+                "#   \n", printer1.printOver(shared));
+
+        assertEquals(
+                "#  #\n" +
+                "  ☺ \n" +
+                " ☻  \n" +
+                "#   \n", printer2.printOver(shared));
+
+        assertEquals(printer1.print(), printer1.printOver(shared));
+        assertEquals(printer2.print(), printer2.printOver(shared));
+    }
+}
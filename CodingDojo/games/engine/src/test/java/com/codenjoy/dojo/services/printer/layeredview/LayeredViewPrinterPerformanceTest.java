@@ -0,0 +1,174 @@
+package com.codenjoy.dojo.services.printer.layeredview;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import com.codenjoy.dojo.profile.Profiler;
+import com.codenjoy.dojo.services.Point;
+import com.codenjoy.dojo.services.State;
+import com.codenjoy.dojo.services.printer.CharElements;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.IntConsumer;
+
+import static com.codenjoy.dojo.services.PointImpl.pt;
+import static org.junit.Assert.assertTrue;
+
+public class LayeredViewPrinterPerformanceTest {
+
+    private static final int LAYERS = 3;
+    private static final Object[] NONE = new Object[0];
+
+    enum Elements implements CharElements {
+
+        EMPTY('-'), FLOOR('.'), WALL('#'), HERO('☺');
+
+        private final char ch;
+
+        Elements(char ch) {
+            this.ch = ch;
+        }
+
+        @Override
+        public char ch() {
+            return ch;
+        }
+    }
+
+    static class Item implements State<Elements, Object> {
+
+        private Elements element;
+
+        public Item(Elements element) {
+            this.element = element;
+        }
+
+        @Override
+        public Elements state(Object player, Object... alsoAtPoint) {
+            return element;
+        }
+    }
+
+    private Item[][] cells;
+    private Point hero;
+
+    private LayeredBoardReader reader(int size, int viewSize) {
+        cells = new Item[LAYERS][size * size];
+        for (int index = 0; index < size * size; index++) {
+            int x = index % size;
+            int y = index / size;
+            boolean wall = x == 0 || y == 0 || x == size - 1 || y == size - 1
+                    || (x * 7 + y * 13) % 5 == 0;
+            cells[0][index] = new Item(wall ? Elements.WALL : Elements.FLOOR);
+            cells[1][index] = new Item(Elements.EMPTY);
+            cells[2][index] = new Item(Elements.EMPTY);
+        }
+
+        return new LayeredBoardReader() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public int viewSize() {
+                return viewSize;
+            }
+
+            @Override
+            public LayerElements elements() {
+                return (index, layer) -> cells[layer][index];
+            }
+
+            @Override
+            public Point viewCenter(Object player) {
+                return hero;
+            }
+
+            @Override
+            public Object[] itemsInSameCell(State item, int layer) {
+                return NONE;
+            }
+        };
+    }
+
+    @Test
+    public void test() {
+        for (int size : new int[]{20, 50, 100}) {
+            int viewSize = 20;
+            LayeredBoardReader reader = reader(size, viewSize);
+            hero = pt(size / 2, size / 2);
+            int index = (size - 1 - hero.getY()) * size + hero.getX();
+            LayeredViewPrinter printer = new LayeredViewPrinter(() -> reader, () -> null, LAYERS);
+
+            // поле не меняется, так что строки слоев переиспользуются
+            // и на кадр аллоцируется только сам PrinterData
+            long bytes = measure("same " + size + "x" + size, printer, tick -> {});
+            if (bytes >= 0) {
+                assertTrue(bytes + " bytes per frame", bytes < viewSize * viewSize);
+            }
+
+            // каждый тик герой мигает на верхнем слое - пересобирается
+            // только строка этого слоя, остальные переиспользуются
+            long changed = measure("changed " + size + "x" + size, printer, tick ->
+                    cells[2][index] = new Item((tick % 2 == 0) ? Elements.HERO : Elements.EMPTY));
+            if (changed >= 0) {
+                assertTrue(changed + " bytes per frame", changed < viewSize * viewSize * 2 + 1024);
+            }
+        }
+    }
+
+    private long measure(String name, LayeredViewPrinter printer, IntConsumer change) {
+        int ticks = 10000;
+
+        // прогрев
+        for (int i = 0; i < ticks; i++) {
+            change.accept(i);
+            printer.print();
+        }
+
+        Profiler profiler = new Profiler();
+        profiler.start();
+        long before = allocated();
+        for (int i = 0; i < ticks; i++) {
+            change.accept(i);
+            printer.print();
+        }
+        long bytes = (allocated() - before) / ticks;
+        profiler.done("print " + name);
+        profiler.print();
+
+        System.out.println(name + ": " + bytes + " bytes per frame");
+        return bytes;
+    }
+
+    private long allocated() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        return ((com.sun.management.ThreadMXBean) bean)
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -32,10 +32,10 @@ import com.codenjoy.dojo.utils.TestUtils;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.util.function.BiFunction;
 
 import static com.codenjoy.dojo.services.PointImpl.pt;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
 
 public class LayeredViewPrinterTest {
@@ -155,7 +155,7 @@ public class LayeredViewPrinterTest {
             }
 
             @Override
-            public BiFunction<Integer, Integer, State> elements() {
+            public LayerElements elements() {
                 return (index, layer) -> {
                     Point pt = lxy.getXY(index);
                     if (layer == 1) {
@@ -306,6 +306,46 @@ public class LayeredViewPrinterTest {
                 "+*+*+*+\n", 1);
     }
 
+    @Test
+    public void printSameLayersAgain() {
+        // given
+        printHeroView();
+        PrinterData before = board;
+        viewCenter = null;
+
+        // when
+        board = (PrinterData) printer.print();
+
+        // then
+        // на поле ничего не поменялось, так что и строки слоев те же самые
+        assertEquals("[9,10]", board.getOffset().toString());
+        assertSame(before.getLayers().get(0), board.getLayers().get(0));
+        assertSame(before.getLayers().get(1), board.getLayers().get(1));
+
+        // when
+        heroPosition = pt(12, 14);
+        board = (PrinterData) printer.print();
+
+        // then
+        assertEquals("[9,10]", board.getOffset().toString());
+
+        assertL(".o☻o.o.\n" +
+                "o.o.o.o\n" +
+                ".o.☺.o.\n" +
+                "o.o.o.o\n" +
+                ".o.o.o.\n" +
+                "o.o.o.o\n" +
+                ".o.o.o.\n", 0);
+
+        assertL("*+~+*+*\n" +
+                "+*+*+*+\n" +
+                "*+*~*+*\n" +
+                "+*+*+*+\n" +
+                "*+*+*+*\n" +
+                "+*+*+*+\n" +
+                "*+*+*+*\n", 1);
+    }
+
     void assertL(String expected, int layer) {
         assertEquals(expected, TestUtils.injectN(board.getLayers().get(layer)));
     }
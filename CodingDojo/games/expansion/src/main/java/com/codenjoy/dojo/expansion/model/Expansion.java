@@ -31,6 +31,7 @@ import com.codenjoy.dojo.expansion.services.Events;
 import com.codenjoy.dojo.expansion.services.SettingsWrapper;
 import com.codenjoy.dojo.services.*;
 import com.codenjoy.dojo.services.printer.BoardReader;
+import com.codenjoy.dojo.services.printer.layeredview.LayerElements;
 import com.codenjoy.dojo.services.printer.layeredview.LayeredBoardReader;
 import com.codenjoy.dojo.services.printer.layeredview.PrinterData;
 import com.codenjoy.dojo.utils.JsonUtils;
@@ -43,7 +44,6 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.function.BiFunction;
 
 import static com.codenjoy.dojo.expansion.services.SettingsWrapper.data;
 
@@ -625,7 +625,7 @@ public class Expansion implements Tickable, IField {
             }
 
             @Override
-            public BiFunction<Integer, Integer, State> elements() {
+            public LayerElements elements() {
                 Cell[] cells = Expansion.this.getCurrentLevel().getCells();
                 return (index, layer) -> {
                     if (layer == 2) {
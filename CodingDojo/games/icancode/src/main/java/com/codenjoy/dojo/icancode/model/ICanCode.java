@@ -28,11 +28,11 @@ import com.codenjoy.dojo.icancode.services.Events;
 import com.codenjoy.dojo.icancode.services.Levels;
 import com.codenjoy.dojo.services.*;
 import com.codenjoy.dojo.services.printer.BoardReader;
+import com.codenjoy.dojo.services.printer.layeredview.LayerElements;
 import com.codenjoy.dojo.services.printer.layeredview.LayeredBoardReader;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.function.BiFunction;
 
 public class ICanCode implements Tickable, Field {
 
@@ -289,7 +289,7 @@ public class ICanCode implements Tickable, Field {
             }
 
             @Override
-            public BiFunction<Integer, Integer, State> elements() {
+            public LayerElements elements() {
                 Cell[] cells = ICanCode.this.level.getCells();
                 return (index, layer) -> cells[index].item(layer);
             }
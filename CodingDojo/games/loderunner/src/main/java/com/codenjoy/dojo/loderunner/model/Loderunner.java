@@ -25,6 +25,7 @@ package com.codenjoy.dojo.loderunner.model;
 
 import com.codenjoy.dojo.loderunner.services.Events;
 import com.codenjoy.dojo.services.BoardUtils;
+import com.codenjoy.dojo.services.CellIndex;
 import com.codenjoy.dojo.services.Dice;
 import com.codenjoy.dojo.services.Point;
 import com.codenjoy.dojo.services.printer.BoardReader;
@@ -43,6 +44,7 @@ public class Loderunner implements Field {
     private List<Player> players;
     private List<Enemy> enemies;
     private List<Gold> gold;
+    private CellIndex<Gold> goldIndex;
 
     private final int size;
     private Dice dice;
@@ -58,6 +60,7 @@ public class Loderunner implements Field {
         toField(level.getPipe());
 
         gold = level.getGold();
+        goldIndex = new CellIndex<>(size, gold);
 
         enemies = level.getEnemies();
         for (Enemy enemy : enemies) {
@@ -208,8 +211,7 @@ public class Loderunner implements Field {
 
             hero.tick();
 
-            if (gold.contains(hero)) {
-                gold.remove(hero);
+            if (takeGold(hero)) {
                 player.event(Events.GET_GOLD);
 
                 Point pos = getFreeRandom();
@@ -222,13 +224,22 @@ public class Loderunner implements Field {
         for (Enemy enemy : enemies) {
             enemy.tick();
 
-            if (gold.contains(enemy) && !enemy.withGold()) {
-                gold.remove(enemy);
+            if (!enemy.withGold() && takeGold(enemy)) {
                 enemy.getGold();
             }
         }
     }
 
+    private boolean takeGold(Point pt) {
+        Gold item = goldIndex.get(pt);
+        if (item == null) {
+            return false;
+        }
+        goldIndex.remove(item);
+        gold.remove(item);
+        return true;
+    }
+
     private Player getPlayer(Hero hero) {
         for (Player player : players) {
             if (player.getHero() == hero) {
@@ -257,9 +268,9 @@ public class Loderunner implements Field {
 
         Point over = pt(x, y + 1);
         if (is(over, Ladder.class)
-                || gold.contains(over)
+                || goldIndex.contains(over)
                 || isFullBrick(over.getX(), over.getY())
-                || getHeroes().contains(over)
+                || isHeroAt(over.getX(), over.getY())
                 || enemies.contains(over))
         {
             return false;
@@ -281,7 +292,7 @@ public class Loderunner implements Field {
         return !(isFullBrick(pt.getX(), pt.getY())
                 || is(pt, Ladder.class)
                 || is(pt, Border.class)
-                || getHeroes().contains(pt)
+                || isHeroAt(pt.getX(), pt.getY())
                 || enemies.contains(pt));
     }
 
@@ -317,17 +328,22 @@ public class Loderunner implements Field {
 
     @Override
     public boolean isFree(Point pt) {
-        return !(gold.contains(pt)
+        return !(goldIndex.contains(pt)
                 || is(pt, Border.class)
                 || is(pt, Brick.class)
-                || getHeroes().contains(pt)
+                || isHeroAt(pt.getX(), pt.getY())
                 || is(pt, Pipe.class)
                 || is(pt, Ladder.class));
     }
 
     @Override
     public boolean isHeroAt(int x, int y) {
-        return getHeroes().contains(pt(x, y));
+        for (Player player : players) {
+            if (player.getHero().itsMe(x, y)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
@@ -342,7 +358,9 @@ public class Loderunner implements Field {
 
     @Override
     public void leaveGold(int x, int y) {
-        gold.add(new Gold(x, y));
+        Gold item = new Gold(x, y);
+        gold.add(item);
+        goldIndex.add(item);
     }
 
     @Override
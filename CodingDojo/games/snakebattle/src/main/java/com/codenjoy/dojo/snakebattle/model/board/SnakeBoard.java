@@ -24,6 +24,7 @@ package com.codenjoy.dojo.snakebattle.model.board;
 
 
 import com.codenjoy.dojo.services.BoardUtils;
+import com.codenjoy.dojo.services.CellIndex;
 import com.codenjoy.dojo.services.Dice;
 import com.codenjoy.dojo.services.Direction;
 import com.codenjoy.dojo.services.Point;
@@ -58,6 +59,9 @@ public class SnakeBoard extends RoundField<Player> implements Field {
     private List<FuryPill> furyPills;
     private List<Gold> gold;
 
+    // все неподвижные объекты поля, чтобы не искать их перебором списков
+    private CellIndex<Point> objects;
+
     private List<Player> players;
 
     private Parameter<Integer> flyingCount;
@@ -88,6 +92,15 @@ public class SnakeBoard extends RoundField<Player> implements Field {
         gold = level.getGold();
         size = level.getSize();
         players = new LinkedList<>();
+
+        objects = new CellIndex<>(size);
+        objects.addAll(walls);
+        objects.addAll(starts);
+        objects.addAll(apples);
+        objects.addAll(stones);
+        objects.addAll(flyingPills);
+        objects.addAll(furyPills);
+        objects.addAll(gold);
     }
 
     @Override
@@ -240,27 +253,35 @@ public class SnakeBoard extends RoundField<Player> implements Field {
             Point head = hero.head();
             hero.eat();
 
-            if (apples.contains(head)) {
-                apples.remove(head);
+            if (remove(apples, Apple.class, head)) {
                 player.event(Events.APPLE);
             }
-            if (stones.contains(head) && !hero.isFlying()) {
-                stones.remove(head);
+            if (!hero.isFlying() && remove(stones, Stone.class, head)) {
                 if (player.isAlive()) {
                     player.event(Events.STONE);
                 }
             }
-            if (gold.contains(head)) {
-                gold.remove(head);
+            if (remove(gold, Gold.class, head)) {
                 player.event(Events.GOLD);
             }
-            if (flyingPills.contains(head)) {
-                flyingPills.remove(head);
-            }
-            if (furyPills.contains(head)) {
-                furyPills.remove(head);
-            }
+            remove(flyingPills, FlyingPill.class, head);
+            remove(furyPills, FuryPill.class, head);
+        }
+    }
+
+    private <T extends Point> boolean remove(List<T> list, Class<T> type, Point pt) {
+        T item = objects.get(pt, type);
+        if (item == null) {
+            return false;
         }
+        objects.remove(item);
+        list.remove(item);
+        return true;
+    }
+
+    private <T extends Point> void add(List<T> list, T item) {
+        list.add(item);
+        objects.add(item);
     }
 
     private Stream<Hero> notFlyingHeroes() {
@@ -275,7 +296,9 @@ public class SnakeBoard extends RoundField<Player> implements Field {
 
     @Override
     public boolean isBarrier(Point p) {
-        return p.isOutOf(size) || walls.contains(p) || starts.contains(p);
+        return p.isOutOf(size)
+                || objects.contains(p, Wall.class)
+                || objects.contains(p, StartFloor.class);
     }
 
     @Override
@@ -298,17 +321,11 @@ public class SnakeBoard extends RoundField<Player> implements Field {
     public boolean isFreeForStone(Point pt) {
         Point leftSide = pt.copy();
         leftSide.change(Direction.LEFT);
-        return isFree(pt) && !starts.contains(leftSide);
+        return isFree(pt) && !objects.contains(leftSide, StartFloor.class);
     }
 
     public boolean isFreeOfObjects(Point pt) {
-        return !(apples.contains(pt) ||
-                stones.contains(pt) ||
-                walls.contains(pt) ||
-                starts.contains(pt) ||
-                flyingPills.contains(pt) ||
-                furyPills.contains(pt) ||
-                gold.contains(pt));
+        return !objects.contains(pt);
     }
 
     private boolean freeOfHero(Point pt) {
@@ -322,27 +339,27 @@ public class SnakeBoard extends RoundField<Player> implements Field {
 
     @Override
     public boolean isApple(Point p) {
-        return apples.contains(p);
+        return objects.contains(p, Apple.class);
     }
 
     @Override
     public boolean isStone(Point p) {
-        return stones.contains(p);
+        return objects.contains(p, Stone.class);
     }
 
     @Override
     public boolean isFlyingPill(Point p) {
-        return flyingPills.contains(p);
+        return objects.contains(p, FlyingPill.class);
     }
 
     @Override
     public boolean isFuryPill(Point p) {
-        return furyPills.contains(p);
+        return objects.contains(p, FuryPill.class);
     }
 
     @Override
     public boolean isGold(Point p) {
-        return gold.contains(p);
+        return objects.contains(p, Gold.class);
     }
 
     @Override
@@ -400,13 +417,13 @@ public class SnakeBoard extends RoundField<Player> implements Field {
     @Override
     public void setApple(Point p) {
         if (isFree(p))
-            apples.add(new Apple(p));
+            add(apples, new Apple(p));
     }
 
     @Override
     public boolean setStone(Point p) {
         if (isFreeForStone(p)) {
-            stones.add(new Stone(p));
+            add(stones, new Stone(p));
             return true;
         }
         return false;
@@ -415,19 +432,19 @@ public class SnakeBoard extends RoundField<Player> implements Field {
     @Override
     public void setFlyingPill(Point p) {
         if (isFree(p))
-            flyingPills.add(new FlyingPill(p));
+            add(flyingPills, new FlyingPill(p));
     }
 
     @Override
     public void setFuryPill(Point p) {
         if (isFree(p))
-            furyPills.add(new FuryPill(p));
+            add(furyPills, new FuryPill(p));
     }
 
     @Override
     public void setGold(Point p) {
         if (isFree(p))
-            gold.add(new Gold(p));
+            add(gold, new Gold(p));
     }
 
     public List<Apple> getApples() {
@@ -520,25 +537,25 @@ public class SnakeBoard extends RoundField<Player> implements Field {
     }
 
     public Point getOn(Point pt) {
-        if (apples.contains(pt)) {
+        if (objects.contains(pt, Apple.class)) {
             return new Apple(pt);
         }
-        if (stones.contains(pt)) {
+        if (objects.contains(pt, Stone.class)) {
             return new Stone(pt);
         }
-        if (flyingPills.contains(pt)) {
+        if (objects.contains(pt, FlyingPill.class)) {
             return new FlyingPill(pt);
         }
-        if (furyPills.contains(pt)) {
+        if (objects.contains(pt, FuryPill.class)) {
             return new FuryPill(pt);
         }
-        if (gold.contains(pt)) {
+        if (objects.contains(pt, Gold.class)) {
             return new Gold(pt);
         }
-        if (starts.contains(pt)) {
+        if (objects.contains(pt, StartFloor.class)) {
             return new StartFloor(pt);
         }
-        if (walls.contains(pt)) {
+        if (objects.contains(pt, Wall.class)) {
             return new Wall(pt);
         }
         for (Player player : players) {
@@ -25,6 +25,7 @@ package com.codenjoy.dojo.snakebattle.model.hero;
 
 import com.codenjoy.dojo.services.*;
 import com.codenjoy.dojo.services.multiplayer.PlayerHero;
+import com.codenjoy.dojo.services.printer.PlayerDependent;
 import com.codenjoy.dojo.services.round.RoundPlayerHero;
 import com.codenjoy.dojo.snakebattle.model.Player;
 import com.codenjoy.dojo.snakebattle.model.board.Field;
@@ -37,7 +38,7 @@ import static com.codenjoy.dojo.services.Direction.*;
 import static com.codenjoy.dojo.snakebattle.model.DirectionUtils.getPointAt;
 import static java.util.stream.Collectors.toList;
 
-public class Hero extends RoundPlayerHero<Field> implements State<LinkedList<Tail>, Player> {
+public class Hero extends RoundPlayerHero<Field> implements State<LinkedList<Tail>, Player>, PlayerDependent {
 
     private static final int MINIMUM_LENGTH = 2;
 
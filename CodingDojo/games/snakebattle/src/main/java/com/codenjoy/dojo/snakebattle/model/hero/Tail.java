@@ -27,6 +27,7 @@ import com.codenjoy.dojo.services.Direction;
 import com.codenjoy.dojo.services.Point;
 import com.codenjoy.dojo.services.PointImpl;
 import com.codenjoy.dojo.services.State;
+import com.codenjoy.dojo.services.printer.PlayerDependent;
 import com.codenjoy.dojo.snakebattle.model.Elements;
 import com.codenjoy.dojo.snakebattle.model.Player;
 
@@ -35,7 +36,7 @@ import java.util.List;
 
 import static com.codenjoy.dojo.snakebattle.model.Elements.*;
 
-public class Tail extends PointImpl implements State<Elements, Object> {
+public class Tail extends PointImpl implements State<Elements, Object>, PlayerDependent {
 
     private Hero snake;
 
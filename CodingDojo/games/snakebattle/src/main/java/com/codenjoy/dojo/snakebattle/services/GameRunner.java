@@ -30,6 +30,8 @@ import com.codenjoy.dojo.services.multiplayer.GameField;
 import com.codenjoy.dojo.services.multiplayer.GamePlayer;
 import com.codenjoy.dojo.services.multiplayer.MultiplayerType;
 import com.codenjoy.dojo.services.printer.CharElements;
+import com.codenjoy.dojo.services.printer.PrinterFactory;
+import com.codenjoy.dojo.services.printer.PrinterFactoryImpl;
 import com.codenjoy.dojo.services.round.RoundFactory;
 import com.codenjoy.dojo.services.settings.Parameter;
 import com.codenjoy.dojo.snakebattle.client.Board;
@@ -141,6 +143,11 @@ public class GameRunner extends AbstractGameType implements GameType {
         return Board.class;
     }
 
+    @Override
+    public PrinterFactory getPrinterFactory() {
+        return new PrinterFactoryImpl(true);
+    }
+
     @Override
     public MultiplayerType getMultiplayerType() {
         return MultiplayerType.TEAM.apply(playersPerRoom.getValue(), MultiplayerType.DISPOSABLE);
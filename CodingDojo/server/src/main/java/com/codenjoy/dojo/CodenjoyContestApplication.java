@@ -23,6 +23,7 @@ package com.codenjoy.dojo;
  */
 
 import com.codenjoy.dojo.config.AppProperties;
+import com.codenjoy.dojo.config.DBReadersProperties;
 import com.codenjoy.dojo.config.SQLiteFilesProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -37,7 +38,7 @@ import org.springframework.boot.web.servlet.support.SpringBootServletInitializer
  */
 @SpringBootApplication
 @ServletComponentScan
-@EnableConfigurationProperties({AppProperties.class, SQLiteFilesProperties.class})
+@EnableConfigurationProperties({AppProperties.class, SQLiteFilesProperties.class, DBReadersProperties.class})
 public class CodenjoyContestApplication extends SpringBootServletInitializer {
 
     @Override
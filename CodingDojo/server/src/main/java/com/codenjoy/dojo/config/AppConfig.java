@@ -48,8 +48,8 @@ public class AppConfig {
     }
 
     @Bean
-    public PlayerTransport screenPlayerTransport() {
-        return new PlayerTransportImpl();
+    public PlayerTransport screenPlayerTransport(@Value("${transport.screen.async-queue-size}") int asyncQueueSize) {
+        return new PlayerTransportImpl(asyncQueueSize);
     }
 
 }
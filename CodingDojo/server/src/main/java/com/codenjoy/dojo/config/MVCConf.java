@@ -28,6 +28,7 @@ import com.codenjoy.dojo.services.TimerService;
 import com.codenjoy.dojo.transport.auth.AuthenticationService;
 import com.codenjoy.dojo.transport.control.ControlWebSocketServlet;
 import com.codenjoy.dojo.transport.screen.ws.ScreenWebSocketServlet;
+import com.codenjoy.dojo.transport.ws.Compression;
 import com.codenjoy.dojo.transport.ws.PlayerTransport;
 import org.eclipse.jetty.websocket.servlet.WebSocketServlet;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -64,6 +65,15 @@ public class MVCConf implements WebMvcConfigurer {
     @Value("${plugins.static}")
     private String pluginsStatic;
 
+    @Value("${transport.compression.enabled}")
+    private boolean compressionEnabled;
+
+    @Value("${transport.compression.level}")
+    private int compressionLevel;
+
+    @Value("${transport.compression.context-takeover}")
+    private boolean compressionContextTakeover;
+
     @Autowired
     private TimerService timer;
 
@@ -107,9 +117,13 @@ public class MVCConf implements WebMvcConfigurer {
         }};
     }
 
+    private Compression compression() {
+        return new Compression(compressionEnabled, compressionLevel, compressionContextTakeover);
+    }
+
     @Bean
     public ServletRegistrationBean wsControlServlet(@Value("${mvc.control-servlet-path}") String path) {
-        WebSocketServlet servlet = new ControlWebSocketServlet(timer, controlPlayerTransport, secureAuthenticationService);
+        WebSocketServlet servlet = new ControlWebSocketServlet(timer, controlPlayerTransport, secureAuthenticationService, compression());
 
         return new ServletRegistrationBean<WebSocketServlet>(servlet, path){{
             setLoadOnStartup(100);
@@ -119,7 +133,7 @@ public class MVCConf implements WebMvcConfigurer {
 
     @Bean
     public ServletRegistrationBean wsScreenServlet(@Value("${mvc.screen-servlet-path}") String path) {
-        ScreenWebSocketServlet servlet = new ScreenWebSocketServlet(screenPlayerTransport, defaultAuthenticationService);
+        ScreenWebSocketServlet servlet = new ScreenWebSocketServlet(screenPlayerTransport, defaultAuthenticationService, compression());
 
         return new ServletRegistrationBean<WebSocketServlet>(servlet, path){{
             setLoadOnStartup(100);
@@ -50,35 +50,42 @@ public class PostgresDBConfig {
     @Autowired
     private ConfigProperties properties;
 
+    @Autowired
+    private DBReadersProperties readers;
+
     @Bean
     public ConnectionThreadPoolFactory connectionThreadPollFactory() {
         return new PostgreSQLConnectionThreadPoolFactory(jdbcString);
     }
 
+    private ConnectionThreadPoolFactory factory(int readers) {
+        return new PostgreSQLConnectionThreadPoolFactory(jdbcString, readers);
+    }
+
     @Bean
     public ActionLogger actionLogger() {
-        return new ActionLogger(connectionThreadPollFactory());
+        return new ActionLogger(factory(readers.getLog()));
     }
 
     @Bean
     public PlayerGameSaver playerGameSaver() {
-        return new PlayerGameSaver(connectionThreadPollFactory());
+        return new PlayerGameSaver(factory(readers.getSaves()));
     }
 
     @Bean
     public Registration registration(@Value("${admin.login}") String adminLogin,
                                      @Value("${admin.password}") String adminPassword) {
-        return new Registration(connectionThreadPollFactory(), adminLogin, adminPassword,
+        return new Registration(factory(readers.getUsers()), adminLogin, adminPassword,
                 passwordEncoder, properties, true);
     }
 
     @Bean
     public Payment payment() {
-        return new Payment(connectionThreadPollFactory());
+        return new Payment(factory(readers.getPayment()));
     }
 
     @Bean
     public GameData gameData() {
-        return new GameData(connectionThreadPollFactory());
+        return new GameData(factory(readers.getSettings()));
     }
 }
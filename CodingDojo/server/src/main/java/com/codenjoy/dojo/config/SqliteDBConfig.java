@@ -45,6 +45,7 @@ public class SqliteDBConfig {
 
     private final ContextPathGetter contextPathGetter;
     private final SQLiteFilesProperties database;
+    private final DBReadersProperties readers;
     private final PasswordEncoder passwordEncoder;
     private final ConfigProperties properties;
 
@@ -53,7 +54,8 @@ public class SqliteDBConfig {
         return new SqliteConnectionThreadPoolFactory(
                 database.isMemory(),
                 database.getFiles().getLog(),
-                contextPathGetter
+                contextPathGetter,
+                readers.getLog()
         );
     }
 
@@ -67,7 +69,8 @@ public class SqliteDBConfig {
         return new SqliteConnectionThreadPoolFactory(
                 database.isMemory(),
                 database.getFiles().getSaves(),
-                contextPathGetter
+                contextPathGetter,
+                readers.getSaves()
         );
     }
 
@@ -81,7 +84,8 @@ public class SqliteDBConfig {
         return new SqliteConnectionThreadPoolFactory(
                 database.isMemory(),
                 database.getFiles().getUsers(),
-                contextPathGetter
+                contextPathGetter,
+                readers.getUsers()
         );
     }
 
@@ -97,7 +101,8 @@ public class SqliteDBConfig {
         return new SqliteConnectionThreadPoolFactory(
                 database.isMemory(),
                 database.getFiles().getPayment(),
-                contextPathGetter
+                contextPathGetter,
+                readers.getPayment()
         );
     }
 
@@ -111,7 +116,8 @@ public class SqliteDBConfig {
         return new SqliteConnectionThreadPoolFactory(
                 database.isMemory(),
                 database.getFiles().getSettings(),
-                contextPathGetter
+                contextPathGetter,
+                readers.getSettings()
         );
     }
 
@@ -0,0 +1,179 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import com.codenjoy.dojo.client.ClientBoard;
+import com.codenjoy.dojo.client.Closeable;
+import com.codenjoy.dojo.client.Solver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Запускает серверных ботов внутри процесса: доска, отрисованная для бота
+ * на тике, сразу отдается его {@link Solver}, а ответ - в {@link Joystick},
+ * без вебсокета на 127.0.0.1, сериализации и отдельного клиента на бота.
+ * Боты считают ход на общем пуле потоков. Если бот не успел ответить
+ * до следующего тика - этот тик он пропускает, чтобы медленный бот
+ * не копил очередь. Выключается game.ai-runner.in-process: false,
+ * тогда боты как и раньше подключаются через {@link com.codenjoy.dojo.client.WebSocketRunner}.
+ */
+@Slf4j
+@Component
+public class AIRunner {
+
+    @Value("${game.ai-runner.in-process}")
+    protected boolean inProcess;
+
+    @Value("${game.ai-runner.pool-size}")
+    protected int poolSize;
+
+    private ExecutorService executor;
+    private Map<String, Bot> bots = new ConcurrentHashMap<>();
+
+    private LongAdder requested = new LongAdder();
+    private LongAdder answered = new LongAdder();
+    private LongAdder busy = new LongAdder();
+    private LongAdder errors = new LongAdder();
+    private LongAdder time = new LongAdder();
+    private AtomicLong maxTime = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, poolSize), runnable -> {
+            Thread thread = new Thread(runnable, "ai-runner-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    public boolean isInProcess() {
+        return inProcess;
+    }
+
+    /**
+     * @return бот, которого надо закрыть при удалении игрока
+     */
+    public Closeable run(String id, Solver solver, ClientBoard board) {
+        Bot bot = new Bot(id, solver, board);
+        Bot previous = bots.put(id, bot);
+        if (previous != null) {
+            previous.close();
+        }
+        return bot;
+    }
+
+    /**
+     * Вызывается на тике вместо отправки доски по вебсокету.
+     * @return true, если у игрока есть встроенный бот и запрос ему отдан
+     */
+    public boolean requestControl(String id, Joystick joystick, String board) {
+        Bot bot = bots.get(id);
+        if (bot == null) {
+            return false;
+        }
+
+        bot.request(joystick, board);
+        return true;
+    }
+
+    public Map<String, Object> getMetrics() {
+        long answered = this.answered.sum();
+        return new LinkedHashMap<String, Object>(){{
+            put("inProcess", inProcess);
+            put("bots", bots.size());
+            put("requested", requested.sum());
+            put("answered", answered);
+            put("busy", busy.sum());
+            put("errors", errors.sum());
+            put("avgTimeUs", (answered == 0) ? 0 : TimeUnit.NANOSECONDS.toMicros(time.sum() / answered));
+            put("maxTimeUs", TimeUnit.NANOSECONDS.toMicros(maxTime.get()));
+        }};
+    }
+
+    private class Bot implements Closeable {
+
+        private final String id;
+        private final Solver solver;
+        private final ClientBoard board;
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        Bot(String id, Solver solver, ClientBoard board) {
+            this.id = id;
+            this.solver = solver;
+            this.board = board;
+        }
+
+        void request(Joystick joystick, String data) {
+            if (!running.compareAndSet(false, true)) {
+                busy.increment();
+                return;
+            }
+
+            requested.increment();
+            executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    board.forString(data);
+                    String answer = solver.get(board);
+                    new PlayerCommand(joystick, answer).execute();
+
+                    long delta = System.nanoTime() - start;
+                    answered.increment();
+                    time.add(delta);
+                    maxTime.accumulateAndGet(delta, Math::max);
+                } catch (Exception e) {
+                    errors.increment();
+                    log.error("AI error for player: " + id, e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        }
+
+        @Override
+        public void close() {
+            bots.remove(id, this);
+        }
+    }
+}
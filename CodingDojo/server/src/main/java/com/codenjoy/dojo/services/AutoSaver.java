@@ -34,11 +34,13 @@ import java.util.concurrent.Executors;
 public class AutoSaver extends Suspendable implements Tickable {
 
     public static final int TICKS = 30;
+    public static final int COMPACT_SAVES = 100;
 
     @Autowired private SaveService save;
     private ExecutorService executor = Executors.newSingleThreadExecutor();
     private boolean justStart = true;
     private int count = 0;
+    private int saves = 0;
 
     @Value("${game.save.auto}")
     public void setActive(boolean active) {
@@ -59,7 +61,13 @@ public class AutoSaver extends Suspendable implements Tickable {
             count++;
             if (count % TICKS == (TICKS - 1)) {
                 // executor.submit потому что sqlite тормозит при сохранении
-                executor.submit(() -> save.saveAll());
+                executor.submit(() -> {
+                    save.saveAll();
+                    // историю сейвов чистим не так часто
+                    if (++saves % COMPACT_SAVES == 0) {
+                        save.compactSaves();
+                    }
+                });
             }
         }
     }
@@ -29,10 +29,27 @@ import java.util.List;
 public interface GameSaver {
     
     void saveGame(Player player, String save, long time);
+
+    /**
+     * Сохраняет сразу пачку сейвов одной транзакцией. Каждый из них
+     * становится последним сейвом игрока, предыдущие остаются в истории.
+     */
+    void saveGames(List<PlayerSave> saves, long time);
     
     PlayerSave loadGame(String id);
+
+    /**
+     * Одним запросом грузит последние сейвы всех игроков.
+     */
+    List<PlayerSave> loadAll();
     
     List<String> getSavedList();
     
     void delete(String id);
+
+    /**
+     * Чистит историю, оставляя у каждого игрока
+     * не больше keep последних сейвов.
+     */
+    void compact(int keep);
 }
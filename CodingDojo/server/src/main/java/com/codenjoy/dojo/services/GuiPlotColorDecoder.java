@@ -24,34 +24,85 @@ package com.codenjoy.dojo.services;
 
 
 import com.codenjoy.dojo.services.printer.CharElements;
-import lombok.AllArgsConstructor;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.util.Arrays;
 import java.util.stream.Collector;
 
-@AllArgsConstructor
 public class GuiPlotColorDecoder {
 
     public static String GUI = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final char NONE = 0;
+
     private CharElements[] values;
 
-    private char getGuiChar(char ch) {
-        return GUI.charAt(getIndex(ch));
+    /**
+     * Таблица перекодировки символ борды -> символ GUI,
+     * строится раз на GameType. NONE - символ не из enum.
+     */
+    private char[] table;
+
+    /**
+     * Переиспользуемый буфер для перекодирования борд
+     */
+    private char[] buffer = new char[0];
+
+    public GuiPlotColorDecoder(CharElements[] values) {
+        this.values = values;
+        this.table = buildTable(values);
     }
 
-    private int getIndex(char ch) {
-        for (int index = 0; index < values.length; index++) {
-            if (values[index].ch() == ch) {
-                return index;
+    private static char[] buildTable(CharElements[] values) {
+        int max = 0;
+        for (CharElements value : values) {
+            max = Math.max(max, value.ch());
+        }
+
+        char[] result = new char[max + 1];
+        int count = Math.min(values.length, GUI.length());
+        for (int index = 0; index < count; index++) {
+            char ch = values[index].ch();
+            if (result[ch] == NONE) {
+                result[ch] = GUI.charAt(index);
             }
         }
-        throw new IllegalArgumentException("Not enum symbol '" + ch + "'");
+        return result;
+    }
+
+    private char getGuiChar(char ch) {
+        char result = (ch < table.length) ? table[ch] : NONE;
+        if (result == NONE) {
+            throw new IllegalArgumentException("Not enum symbol '" + ch + "'");
+        }
+        return result;
     }
 
     public String encodeForClient(Object board) {
-        return board.toString().replaceAll("\n", "");
+        return removeN(board.toString());
+    }
+
+    private synchronized String removeN(String board) {
+        if (board.indexOf('\n') == -1) {
+            return board;
+        }
+
+        char[] chars = buffer(board.length());
+        int length = 0;
+        for (int index = 0; index < board.length(); index++) {
+            char ch = board.charAt(index);
+            if (ch != '\n') {
+                chars[length++] = ch;
+            }
+        }
+        return new String(chars, 0, length);
+    }
+
+    private char[] buffer(int length) {
+        if (buffer.length < length) {
+            buffer = new char[length];
+        }
+        return buffer;
     }
 
     public Object encodeForBrowser(Object board) {
@@ -63,28 +114,41 @@ public class GuiPlotColorDecoder {
             throw new IllegalArgumentException("You can use only String or JSONObject as board");
         }
 
-        JSONObject result = (JSONObject)board;
+        JSONObject json = (JSONObject)board;
 
         // TODO а что если придумать другой формат и не делать этого двойного безобразия?
         String key = "layers";
-        if (!result.has(key)) {
-            return result;
+        if (!json.has(key)) {
+            return json;
+        }
+
+        // исходная борда нужна еще как есть (клиенту, в лог) - потому копия
+        JSONObject result = new JSONObject();
+        for (String name : json.keySet()) {
+            result.put(name, json.get(name));
         }
 
         JSONArray encoded = new JSONArray();
-        for (Object layer : result.getJSONArray(key)) {
+        for (Object layer : json.getJSONArray(key)) {
             encoded.put(encode((String)layer));
         }
         result.put(key, encoded);
         return result;
     }
 
-    private String encode(String board) {
-        char[] chars = board.replaceAll("\n", "").toCharArray();
-        for (int index = 0; index < chars.length; index++) {
-            chars[index] = getGuiChar(chars[index]);
+    /**
+     * За один проход выбрасывает переводы строк и перекодирует символы.
+     */
+    private synchronized String encode(String board) {
+        char[] chars = buffer(board.length());
+        int length = 0;
+        for (int index = 0; index < board.length(); index++) {
+            char ch = board.charAt(index);
+            if (ch != '\n') {
+                chars[length++] = getGuiChar(ch);
+            }
         }
-        return String.copyValueOf(chars);
+        return new String(chars, 0, length);
     }
 
     @Override
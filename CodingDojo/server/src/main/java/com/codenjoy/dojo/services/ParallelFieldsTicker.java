@@ -0,0 +1,148 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import com.codenjoy.dojo.services.multiplayer.GameField;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.SecureRandom;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Тикает все переданные ему поля. Общих игроков у полей нет - каждое
+ * поле принадлежит своей Room в Spreader, но поля одного GameType делят
+ * его Dice (например в Bomberman один OptionGameSettings с одним Dice
+ * на все поля). Поэтому каждое поле тикается со своим кубиком
+ * (см. {@link RandomDice#inField}): он создается при первом тике поля
+ * из общего seed в порядке полей, и дальше бросается только этим полем.
+ * Так при parallelism > 1 каждое поле - отдельная задача, а результат
+ * совпадает с последовательным режимом при том же seed.
+ * Остальное общее состояние GameType (настройки, уровни) во время тика
+ * только читается.
+ * Метод tick возвращает управление только после того,
+ * как будут тикнуты все поля.
+ */
+@Slf4j
+public class ParallelFieldsTicker {
+
+    private int parallelism;
+    private ForkJoinPool pool;
+    private Random seeds;
+    private Map<GameField, Random> dices = new IdentityHashMap<>();
+
+    public ParallelFieldsTicker(int parallelism) {
+        this(parallelism, new SecureRandom().nextLong());
+    }
+
+    public ParallelFieldsTicker(int parallelism, long seed) {
+        this.parallelism = parallelism;
+        this.seeds = new Random(seed);
+    }
+
+    /**
+     * @param fields поля в порядке, в котором их тикали бы последовательно
+     */
+    public void tick(List<GameField> fields) {
+        Map<GameField, Random> dices = dices(fields);
+
+        if (!isParallel() || fields.size() < 2) {
+            fields.forEach(field -> tick(field, dices.get(field)));
+            return;
+        }
+
+        List<Callable<Object>> tasks = new LinkedList<>();
+        for (GameField field : fields) {
+            Random dice = dices.get(field);
+            tasks.add(() -> {
+                tick(field, dice);
+                return null;
+            });
+        }
+
+        for (Future<Object> future : pool().invokeAll(tasks)) {
+            check(future);
+        }
+    }
+
+    private void tick(GameField field, Random dice) {
+        RandomDice.inField(dice, field::quietTick);
+    }
+
+    private void check(Future<Object> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Error during field tick", e.getCause());
+        }
+    }
+
+    /**
+     * Кубики полей, которых больше нет, забываем,
+     * новым полям - свой seed в порядке их следования.
+     */
+    private Map<GameField, Random> dices(List<GameField> fields) {
+        Map<GameField, Random> result = new IdentityHashMap<>();
+        for (GameField field : fields) {
+            Random dice = dices.get(field);
+            if (dice == null) {
+                dice = new Random(seeds.nextLong());
+            }
+            result.put(field, dice);
+        }
+        dices = result;
+        return result;
+    }
+
+    private synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism);
+            log.debug("Fields will be ticked on {} threads", parallelism);
+        }
+        return pool;
+    }
+
+    public boolean isParallel() {
+        return parallelism > 1;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+}
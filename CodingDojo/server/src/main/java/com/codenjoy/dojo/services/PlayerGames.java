@@ -23,6 +23,7 @@ package com.codenjoy.dojo.services;
  */
 
 
+import com.codenjoy.dojo.services.lock.FieldLocks;
 import com.codenjoy.dojo.services.lock.LockedGame;
 import com.codenjoy.dojo.services.multiplayer.*;
 import com.codenjoy.dojo.services.nullobj.NullPlayerGame;
@@ -30,6 +31,7 @@ import com.google.common.collect.Multimap;
 import lombok.experimental.FieldNameConstants;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -50,11 +52,14 @@ public class PlayerGames implements Iterable<PlayerGame>, Tickable {
     public static final boolean ACTIVE = !ALL;
 
     private List<PlayerGame> all = new LinkedList<>();
+    private PlayerGamesIndex index = new PlayerGamesIndex();
 
     private Consumer<PlayerGame> onAdd;
     private Consumer<PlayerGame> onRemove;
     private ReadWriteLock lock;
+    private FieldLocks fieldLocks = new FieldLocks(FieldLocks.DEFAULT_STRIPES);
     private Spreader spreader = new Spreader();
+    private ParallelFieldsTicker fieldsTicker = new ParallelFieldsTicker(1);
 
     @Autowired
     protected RoomService roomService;
@@ -71,6 +76,16 @@ public class PlayerGames implements Iterable<PlayerGame>, Tickable {
         this.lock = lock;
     }
 
+    /**
+     * @param parallelism сколько независимых GameField можно тикать одновременно,
+     *                    1 - все поля тикаются последовательно в потоке таймера
+     */
+    @Value("${game.tick.parallelism}")
+    public void setTickParallelism(int parallelism) {
+        fieldsTicker.shutdown();
+        fieldsTicker = new ParallelFieldsTicker(parallelism);
+    }
+
     public PlayerGames() {
         lock = new ReentrantReadWriteLock();
     }
@@ -88,9 +103,10 @@ public class PlayerGames implements Iterable<PlayerGame>, Tickable {
     }
 
     private void remove(Player player, boolean reloadAlone) {
-        int index = all.indexOf(player);
-        if (index == -1) return;
-        PlayerGame game = all.remove(index);
+        PlayerGame game = index.get(player.getId());
+        if (game == null || !game.equals(player)) return;
+        all.removeIf(pg -> pg == game);
+        index.remove(game, all);
 
         if (reloadAlone) {
             removeWithResetAlone(game.getGame());
@@ -107,13 +123,15 @@ public class PlayerGames implements Iterable<PlayerGame>, Tickable {
     }
 
     public PlayerGame get(String id) {
-        return all.stream()
-                .filter(pg -> pg.getPlayer().getId().equals(id))
-                .findFirst()
-                .orElse(NullPlayerGame.INSTANCE);
+        PlayerGame result = index.get(id);
+        return (result != null) ? result : NullPlayerGame.INSTANCE;
     }
 
     public PlayerGame get(GamePlayer player) {
+        PlayerGame result = index.get(player);
+        if (result != null) {
+            return result;
+        }
         return all.stream()
                 .filter(pg -> pg.getGame().getPlayer().equals(player))
                 .findFirst()
@@ -150,7 +168,7 @@ public class PlayerGames implements Iterable<PlayerGame>, Tickable {
 
         Single single = buildSingle(player, gameType);
 
-        Game game = new LockedGame(lock).wrap(single);
+        Game game = new LockedGame(lock, fieldLocks).wrap(single);
 
         play(game, roomName, gameType, parseSave(save));
 
@@ -159,6 +177,7 @@ public class PlayerGames implements Iterable<PlayerGame>, Tickable {
             onAdd.accept(playerGame);
         }
         all.add(playerGame);
+        index.add(playerGame);
         return playerGame;
     }
 
@@ -237,16 +256,7 @@ public class PlayerGames implements Iterable<PlayerGame>, Tickable {
     }
 
     public List<GameType> getGameTypes() {
-        List<GameType> result = new LinkedList<>();
-
-        for (PlayerGame playerGame : all) {
-            GameType gameType = playerGame.getGameType();
-            if (!result.contains(gameType)) {
-                result.add(gameType);
-            }
-        }
-
-        return result;
+        return index.gameTypes();
     }
 
     @Override
@@ -293,11 +303,13 @@ public class PlayerGames implements Iterable<PlayerGame>, Tickable {
         //      но только те, которые не DISPOSABLE и одновременно
         //      недокомплектованные пользователями
         //      а так же котмнаты которых активны
+        //      у каждого поля свой кубик, а потому их можно тикать одновременно
+        Set<GameField> fields = new LinkedHashSet<>();
         active.stream()
-                .map(PlayerGame::getField)
-                .distinct()
-                .filter(spreader::isRoomStaffed)
-                .forEach(GameField::quietTick);
+                .filter(playerGame -> spreader.isRoomStaffed(playerGame.getField()))
+                .forEach(playerGame -> fields.add(playerGame.getField()));
+
+        fieldsTicker.tick(new LinkedList<>(fields));
 
         // ну и тикаем все GameRunner мало ли кому надо на это подписаться
         getGameTypes().forEach(GameType::quietTick);
@@ -319,7 +331,9 @@ public class PlayerGames implements Iterable<PlayerGame>, Tickable {
 
     private void reload(Game game, String roomName, JSONObject save, boolean reloadAlone) {
         PlayerGame playerGame = getPlayerGame(game);
+        String oldRoomName = playerGame.getRoomName();
         playerGame.setRoomName(roomName);
+        index.changeRoom(playerGame, oldRoomName, roomName);
         GameType gameType = playerGame.getGameType();
         if (reloadAlone) {
             removeWithResetAlone(game);
@@ -351,6 +365,10 @@ public class PlayerGames implements Iterable<PlayerGame>, Tickable {
     }
 
     private PlayerGame getPlayerGame(Game game) {
+        PlayerGame result = index.get(game.getPlayer());
+        if (result != null && LockedGame.equals(result.getGame(), game)) {
+            return result;
+        }
         return all.stream()
                 .filter(pg -> pg.equals(by(game)))
                 .findFirst()
@@ -368,12 +386,17 @@ public class PlayerGames implements Iterable<PlayerGame>, Tickable {
     }
 
     public List<Player> getPlayers(String gameName) {
-        return all.stream()
+        return index.byGame(gameName).stream()
                 .map(playerGame -> playerGame.getPlayer())
-                .filter(player -> player.getGameName().equals(gameName))
                 .collect(toList());
     }
 
+    public void changeId(PlayerGame playerGame, String id) {
+        String oldId = playerGame.getPlayer().getId();
+        playerGame.getPlayer().setId(id);
+        index.changeId(playerGame, oldId);
+    }
+
     public void changeLevel(String playerId, int level) {
         PlayerGame playerGame = get(playerId);
         String roomName = playerGame.getRoomName();
@@ -413,7 +436,7 @@ public class PlayerGames implements Iterable<PlayerGame>, Tickable {
     }
 
     public List<PlayerGame> all() {
-        return all;
+        return Collections.unmodifiableList(all);
     }
 
     /**
@@ -436,10 +459,8 @@ public class PlayerGames implements Iterable<PlayerGame>, Tickable {
      * @return Все найденные комнаты для всех играющих
      */
     public List<String> getRooms(boolean isAll) {
-        return all.stream()
-                .filter(((Predicate<PlayerGame>) pg -> isAll).or(withActive()))
-                .map(PlayerGame::getRoomName)
-                .distinct()
+        return index.rooms().stream()
+                .filter(room -> isAll || roomService.isActive(room))
                 .collect(toList());
     }
 }
@@ -0,0 +1,179 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import com.codenjoy.dojo.services.multiplayer.GamePlayer;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Хеш индексы над списком {@link PlayerGames} - по id игрока,
+ * по {@link GamePlayer}, по комнате, по типу игры и по имени игры.
+ * Внутри каждой группы игры лежат в том же порядке, что и в общем списке,
+ * а группы упорядочены по первому своему элементу - так результаты
+ * совпадают с тем, что давал бы линейный проход по списку.
+ * Меняется индекс только под write lock {@link PlayerGames}, но читают
+ * его и без блокировки (REST, сохранения) - потому мапы синхронизированы
+ * (ключами бывают null, ConcurrentHashMap не подходит), обходятся по копии,
+ * а списки групп копируются при записи.
+ */
+class PlayerGamesIndex {
+
+    private Map<String, PlayerGame> byId = Collections.synchronizedMap(new HashMap<>());
+    private Map<GamePlayer, PlayerGame> byGamePlayer = Collections.synchronizedMap(new IdentityHashMap<>());
+    private Map<String, List<PlayerGame>> byRoom = Collections.synchronizedMap(new HashMap<>());
+    private Map<GameType, List<PlayerGame>> byType = Collections.synchronizedMap(new HashMap<>());
+    private Map<String, List<PlayerGame>> byGame = Collections.synchronizedMap(new HashMap<>());
+    private Map<PlayerGame, Long> order = Collections.synchronizedMap(new IdentityHashMap<>());
+    private long counter;
+
+    public void add(PlayerGame playerGame) {
+        order.put(playerGame, counter++);
+        byId.putIfAbsent(playerGame.getPlayer().getId(), playerGame);
+        byGamePlayer.put(playerGame.getGame().getPlayer(), playerGame);
+        insert(byRoom, playerGame.getRoomName(), playerGame);
+        insert(byType, playerGame.getGameType(), playerGame);
+        insert(byGame, gameName(playerGame), playerGame);
+    }
+
+    public void remove(PlayerGame playerGame, List<PlayerGame> all) {
+        if (!order.containsKey(playerGame)) {
+            return;
+        }
+        String id = playerGame.getPlayer().getId();
+        if (byId.get(id) == playerGame) {
+            byId.remove(id);
+            // вдруг есть еще игра с таким же id
+            all.stream()
+                    .filter(pg -> pg != playerGame && Objects.equals(id, pg.getPlayer().getId()))
+                    .findFirst()
+                    .ifPresent(pg -> byId.put(id, pg));
+        }
+        byGamePlayer.remove(playerGame.getGame().getPlayer());
+        delete(byRoom, playerGame.getRoomName(), playerGame);
+        delete(byType, playerGame.getGameType(), playerGame);
+        delete(byGame, gameName(playerGame), playerGame);
+        order.remove(playerGame);
+    }
+
+    public void changeRoom(PlayerGame playerGame, String oldRoom, String newRoom) {
+        delete(byRoom, oldRoom, playerGame);
+        insert(byRoom, newRoom, playerGame);
+    }
+
+    public void changeId(PlayerGame playerGame, String oldId) {
+        if (byId.get(oldId) == playerGame) {
+            byId.remove(oldId);
+        }
+        byId.putIfAbsent(playerGame.getPlayer().getId(), playerGame);
+    }
+
+    public PlayerGame get(String id) {
+        PlayerGame result = byId.get(id);
+        if (result == null || !Objects.equals(id, result.getPlayer().getId())) {
+            return null;
+        }
+        return result;
+    }
+
+    public PlayerGame get(GamePlayer player) {
+        return byGamePlayer.get(player);
+    }
+
+    /**
+     * Группа уже в порядке общего списка - отдаем ее снимок.
+     */
+    public List<PlayerGame> byGame(String gameName) {
+        List<PlayerGame> list = byGame.get(gameName);
+        if (list == null) {
+            return new LinkedList<>();
+        }
+        return new ArrayList<>(list);
+    }
+
+    public List<String> rooms() {
+        return firsts(byRoom);
+    }
+
+    public List<GameType> gameTypes() {
+        return firsts(byType);
+    }
+
+    private <K> List<K> firsts(Map<K, List<PlayerGame>> map) {
+        return entries(map).stream()
+                .filter(entry -> first(entry.getValue()) != null)
+                .sorted(Comparator.comparing(entry -> order(first(entry.getValue()))))
+                .map(Map.Entry::getKey)
+                .collect(toList());
+    }
+
+    private <K> List<Map.Entry<K, List<PlayerGame>>> entries(Map<K, List<PlayerGame>> map) {
+        synchronized (map) {
+            return new ArrayList<>(map.entrySet());
+        }
+    }
+
+    private String gameName(PlayerGame playerGame) {
+        return playerGame.getPlayer().getGameName();
+    }
+
+    /**
+     * Список группы могут менять, пока его читают - итератор
+     * {@link CopyOnWriteArrayList} работает со снимком.
+     */
+    private PlayerGame first(List<PlayerGame> list) {
+        Iterator<PlayerGame> iterator = list.iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    /**
+     * Игру могли удалить, пока ее читали без блокировки - тогда она в конце.
+     */
+    private long order(PlayerGame playerGame) {
+        return order.getOrDefault(playerGame, Long.MAX_VALUE);
+    }
+
+    private <K> void insert(Map<K, List<PlayerGame>> map, K key, PlayerGame playerGame) {
+        List<PlayerGame> list = map.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>());
+        long position = order.get(playerGame);
+        int index = list.size();
+        while (index > 0 && order.get(list.get(index - 1)) > position) {
+            index--;
+        }
+        list.add(index, playerGame);
+    }
+
+    private <K> void delete(Map<K, List<PlayerGame>> map, K key, PlayerGame playerGame) {
+        List<PlayerGame> list = map.get(key);
+        if (list == null) {
+            return;
+        }
+        list.removeIf(pg -> pg == playerGame);
+        if (list.isEmpty()) {
+            map.remove(key);
+        }
+    }
+}
@@ -39,48 +39,59 @@ public class PlayerGamesView {
     @Autowired
     protected PlayerGames service;
 
+    private Map<GameType, GuiPlotColorDecoder> decoders = new HashMap<>();
+
+    /**
+     * Все данные собираются за один проход по играм: игроки группируются
+     * по полю, а карты очков, координат и имен строятся раз на группу
+     * и общие для всех ее участников. Так что это O(n) от числа игроков.
+     */
     public Map<String, GameData> getGamesDataMap() {
         Map<String, GuiPlotColorDecoder> decoders = getDecoders();
-        Map<String, List<String>> groupsMap = getGroupsMap();
-        Map<String, Object> scores = getScores();
-        Map<String, HeroData> coordinates = getCoordinates();
-        Map<String, String> readableNames = getReadableNames();
+        Map<String, GameData> result = new HashMap<>();
+
+        for (List<PlayerGame> group : groupBy(PlayerGame::getField)) {
+            List<String> ids = new LinkedList<>();
+            Map<String, Object> scores = new HashMap<>();
+            Map<String, HeroData> coordinates = new HashMap<>();
+            Map<String, String> readableNames = new HashMap<>();
+
+            for (PlayerGame pg : group) {
+                Player player = pg.getPlayer();
+                String id = player.getId();
+                ids.add(id);
+                scores.put(id, player.getScore());
+                coordinates.put(id, pg.getGame().getHero());
+                readableNames.put(id, player.getNotNullReadableName());
+            }
 
-        return service.all().stream()
-                .collect(toMap(
-                        pg -> pg.getPlayer().getId(),
-                        pg -> {
-                            GameType gameType = pg.getGameType();
-                            String player = pg.getPlayer().getId();
-                            List<String> group = groupsMap.get(player);
-
-                            return new GameData(
-                                    gameType.getBoardSize().getValue(),
-                                    decoders.get(gameType.name()),
-                                    filterByGroup(scores, group),
-                                    group,
-                                    filterByGroup(coordinates, group),
-                                    filterByGroup(readableNames, group));
-                        }));
-    }
+            for (PlayerGame pg : group) {
+                GameType gameType = pg.getGameType();
+                result.put(pg.getPlayer().getId(), new GameData(
+                        gameType.getBoardSize().getValue(),
+                        decoders.get(gameType.name()),
+                        scores,
+                        ids,
+                        coordinates,
+                        readableNames));
+            }
+        }
 
-    protected Map<String, GuiPlotColorDecoder> getDecoders() {
-        return service.getGameTypes().stream()
-                .collect(toMap(type -> type.name(),
-                        type -> new GuiPlotColorDecoder(type.getPlots())));
+        return result;
     }
 
-    private <K, V> Map<K, V> filterByGroup(Map<K, V> map, List<String> group) {
-        return map.entrySet().stream()
-                .filter(entry -> group.contains(entry.getKey()))
-                .collect(toMap(entry -> entry.getKey(),
-                        entry -> entry.getValue()));
-    }
+    /**
+     * Декодеры строятся раз на каждый GameType и переиспользуются
+     * пока в этот GameType хоть кто-то играет.
+     */
+    protected Map<String, GuiPlotColorDecoder> getDecoders() {
+        List<GameType> gameTypes = service.getGameTypes();
+        decoders.keySet().retainAll(gameTypes);
 
-    private Map<String, HeroData> getCoordinates() {
-        return service.all().stream()
-                .collect(toMap(pg -> pg.getPlayer().getId(),
-                        pg -> pg.getGame().getHero()));
+        return gameTypes.stream()
+                .collect(toMap(type -> type.name(),
+                        type -> decoders.computeIfAbsent(type,
+                                key -> new GuiPlotColorDecoder(key.getPlots()))));
     }
 
     public Map<String, List<String>> getGroupsMap() {
@@ -105,15 +116,19 @@ public class PlayerGamesView {
     }
 
     private List<List<String>> getGroupBy(Function<PlayerGame, Object> function) {
-        return service.all().stream()
-                    .collect(groupingBy(function))
-                    .values().stream()
+        return groupBy(function).stream()
                     .map(group -> group.stream()
                             .map(pg -> pg.getPlayer().getId())
                             .collect(toList()))
                     .collect(toList());
     }
 
+    private Collection<List<PlayerGame>> groupBy(Function<PlayerGame, Object> function) {
+        return service.all().stream()
+                    .collect(groupingBy(function))
+                    .values();
+    }
+
     public Map<String, Object> getScores() {
         return service.all().stream()
                 .collect(toMap(pg -> pg.getPlayer().getId(),
@@ -61,6 +61,7 @@ public class PlayerServiceImpl implements PlayerService {
     
     private ReadWriteLock lock = new ReentrantReadWriteLock(true);
     private Map<Player, String> cacheBoards = new HashMap<>();
+    private Map<Player, Object> lastBoards = new HashMap<>();
 
     @Autowired protected PlayerGames playerGames;
     @Autowired private PlayerGamesView playerGamesView;
@@ -81,6 +82,9 @@ public class PlayerServiceImpl implements PlayerService {
     @Autowired protected ConfigProperties config;
     @Autowired protected Semifinal semifinal;
     @Autowired protected SimpleProfiler profiler;
+    @Autowired protected TickMetrics tickMetrics;
+    @Autowired protected AIRunner aiRunner;
+    @Autowired protected SharedBoardsCache sharedBoards;
 
     @Value("${game.ai}")
     protected boolean isAiNeeded;
@@ -88,6 +92,8 @@ public class PlayerServiceImpl implements PlayerService {
     @PostConstruct
     public void init() {
         playerGames.init(lock);
+        // в лог пишем ту борду, что игрок видел на прошлом тике - она уже отрисована
+        actionLogger.setBoards(this::lastBoard);
         playerGames.onAdd(playerGame -> {
             Player player = playerGame.getPlayer();
             Joystick joystick = playerGame.getJoystick();
@@ -238,14 +244,16 @@ public class PlayerServiceImpl implements PlayerService {
                     .in(gameType.getBoard())
                     .newInstance();
 
-            WebSocketRunner runner = runAI(id, code, solver, board);
-            return runner;
+            return runAI(id, code, solver, board);
         } catch (Exception e) {
             return null;
         }
     }
 
-    protected WebSocketRunner runAI(String id, String code, Solver solver, ClientBoard board) {
+    protected Closeable runAI(String id, String code, Solver solver, ClientBoard board) {
+        if (aiRunner.isInProcess()) {
+            return aiRunner.run(id, solver, board);
+        }
         return WebSocketRunner.runAI(id, code, solver, board);
     }
 
@@ -290,15 +298,38 @@ public class PlayerServiceImpl implements PlayerService {
         lock.writeLock().lock();
         try {
             profiler.start("PlayerService.tick()");
+            long time = System.nanoTime();
 
             actionLogger.log(playerGames);
+            time = tickMetrics.done(TickMetrics.LOG, time);
+
             autoSaver.tick();
+            time = tickMetrics.done(TickMetrics.AUTOSAVE, time);
 
             playerGames.tick();
-            sendScreenUpdates();
-            requestControls();
+            time = tickMetrics.done(TickMetrics.GAME, time);
+
+            Map<ScreenRecipient, ScreenData> screen = buildScreenData();
+            time = tickMetrics.done(TickMetrics.SCREEN, time);
+
+            // рассылка только читает уже подготовленные данные, а потому
+            // на время IO по сокетам понижаем блокировку до read -
+            // REST запросы и джойстики не ждут, пока отправятся все экраны
+            lock.readLock().lock();
+            lock.writeLock().unlock();
+            try {
+                sendScreenForWebSockets(screen);
+                time = tickMetrics.done(TickMetrics.SEND, time);
+
+                requestControls();
+                time = tickMetrics.done(TickMetrics.CONTROL, time);
+            } finally {
+                lock.readLock().unlock();
+                lock.writeLock().lock();
+            }
 
             semifinal.tick();
+            tickMetrics.done(TickMetrics.SEMIFINAL, time);
 
             profiler.end();
         } catch (Error e) {
@@ -316,6 +347,11 @@ public class PlayerServiceImpl implements PlayerService {
             Player player = playerGame.getPlayer();
             try {
                 String board = cacheBoards.get(player);
+                // встроенные боты получают доску сразу, минуя вебсокет
+                if (aiRunner.requestControl(player.getId(), playerGame.getJoystick(), board)) {
+                    requested++;
+                    continue;
+                }
                 // TODO в конце концов если if (pair == null || pair.noSockets()) то ничего не отправляется, и зря гоняли но вроде как из кеша берем, так что проблем быть не должно
                 if (playerController.requestControl(player, board)) {
                     requested++;
@@ -328,25 +364,22 @@ public class PlayerServiceImpl implements PlayerService {
         log.debug("tick().requestControls() {} players", requested);
     }
 
-    private void sendScreenUpdates() {
-        Map<ScreenRecipient, ScreenData> map = buildScreenData();
-        sendScreenForWebSockets(map);
-    }
-
     private Map<ScreenRecipient, ScreenData> buildScreenData() {
         Map<ScreenRecipient, ScreenData> map = new HashMap<>();
         cacheBoards.clear();
+        lastBoards.clear();
+        sharedBoards.tick();
 
         Map<String, GameData> gameDataMap = playerGamesView.getGamesDataMap();
         for (PlayerGame playerGame : playerGames) {
-            Game game = playerGame.getGame();
             Player player = playerGame.getPlayer();
             try {
                 String gameType = playerGame.getGameType().name();
                 GameData gameData = gameDataMap.get(player.getId());
 
-                // TODO вот например для бомбера всем отдаются одни и те же борды, отличие только в паре спрайтов
-                Object board = game.getBoardAsString(); // TODO дольше всего строчка выполняется, прооптимизировать!
+                // общая для поля часть борды печатается раз за тик, дорисовываются только спрайты игрока
+                Object board = sharedBoards.getBoardAsString(playerGame);
+                lastBoards.put(player, board);
 
                 GuiPlotColorDecoder decoder = gameData.getDecoder();
                 cacheBoards.put(player, decoder.encodeForClient(board));
@@ -366,9 +399,20 @@ public class PlayerServiceImpl implements PlayerService {
             }
         }
 
+        log.debug("tick().buildScreenData() shared boards hits {} misses {}",
+                sharedBoards.getHits(), sharedBoards.getMisses());
+
         return map;
     }
 
+    private Object lastBoard(PlayerGame playerGame) {
+        Object board = lastBoards.get(playerGame.getPlayer());
+        if (board != null) {
+            return board;
+        }
+        return playerGame.getGame().getBoardAsString();
+    }
+
     private void sendScreenForWebSockets(Map<ScreenRecipient, ScreenData> map) {
         try {
             screenController.requestControlToAll(map);
@@ -465,7 +509,7 @@ public class PlayerServiceImpl implements PlayerService {
 
         boolean updateId = !playerGame.getPlayer().getId().equals(input.getId());
         if (updateId) {
-            updated.setId(input.getId());
+            playerGames.changeId(playerGame, input.getId());
             registration.updateId(input.getReadableName(), input.getId());
         }
 
@@ -548,8 +592,10 @@ public class PlayerServiceImpl implements PlayerService {
     public void removeAll(String roomName) {
         lock.writeLock().lock();
         try {
+            // комната уходит целиком - перераспределять оставшихся
+            // на ее полях после каждого удаления незачем
             playerGames.getAll(withRoom(roomName))
-                    .forEach(playerGames.all()::remove);
+                    .forEach(playerGame -> playerGames.removeCurrent(playerGame.getPlayer()));
         } finally {
             lock.writeLock().unlock();
         }
@@ -557,11 +603,11 @@ public class PlayerServiceImpl implements PlayerService {
 
     @Override
     public Joystick getJoystick(String id) {
-        lock.writeLock().lock();
+        lock.readLock().lock();
         try {
             return playerGames.get(id).getGame().getJoystick();
         } finally {
-            lock.writeLock().unlock();
+            lock.readLock().unlock();
         }
     }
 
@@ -34,6 +34,7 @@ public interface SaveService {
     long saveAll();
     long saveAll(String roomName);
     void loadAll();
+    void compactSaves();
     void removeSave(String id);
     void removeAllSaves();
 
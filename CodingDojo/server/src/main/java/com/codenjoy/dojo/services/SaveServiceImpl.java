@@ -26,9 +26,11 @@ package com.codenjoy.dojo.services;
 import com.codenjoy.dojo.services.dao.Registration;
 import com.codenjoy.dojo.services.nullobj.NullPlayerGame;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
  import static com.codenjoy.dojo.services.PlayerGames.withRoom;
 
@@ -43,19 +45,64 @@ public class SaveServiceImpl implements SaveService {
     @Autowired protected PlayerGames playerGames;
     @Autowired protected ConfigProperties config;
 
+    @Value("${game.save.keep}")
+    protected int keepSaves;
+
+    /**
+     * Отпечатки последних сохраненных в базу сейвов по id игрока.
+     * Если с прошлого сохранения ничего не поменялось - игрок не пересохраняется.
+     */
+    private Map<String, String> snapshots = new ConcurrentHashMap<>();
+
     @Override
     public long saveAll() {
-        return saveAll(playerGames.all());
+        List<PlayerGame> all = playerGames.all();
+        long now = saveAll(all);
+
+        // вышедших игроков больше не отслеживаем
+        Set<String> ids = new HashSet<>();
+        all.forEach(playerGame -> ids.add(playerGame.getPlayer().getId()));
+        snapshots.keySet().retainAll(ids);
+
+        return now;
     }
 
     private long saveAll(List<PlayerGame> playerGames) {
         long now = System.currentTimeMillis();
+        List<PlayerSave> changed = new LinkedList<>();
+        Map<String, String> prints = new HashMap<>();
         for (PlayerGame playerGame : playerGames) {
-            saveGame(playerGame, now);
+            PlayerSave save = playerSave(playerGame);
+            String print = fingerprint(save);
+            if (print.equals(snapshots.get(save.getId()))) {
+                continue;
+            }
+            changed.add(save);
+            prints.put(save.getId(), print);
         }
+        saver.saveGames(changed, now);
+        snapshots.putAll(prints);
         return now;
     }
 
+    private PlayerSave playerSave(PlayerGame playerGame) {
+        Player player = playerGame.getPlayer();
+        return new PlayerSave(player.getId(),
+                player.getCallbackUrl(),
+                player.getRoomName(),
+                player.getGameName(),
+                player.getScore(),
+                playerGame.getGame().getSave().toString());
+    }
+
+    private String fingerprint(PlayerSave save) {
+        return save.getCallbackUrl() + '|' +
+                save.getRoomName() + '|' +
+                save.getGameName() + '|' +
+                save.getScore() + '|' +
+                save.getSave();
+    }
+
     @Override
     public long saveAll(String roomName) {
         return saveAll(playerGames.getAll(withRoom(roomName)));
@@ -63,11 +110,16 @@ public class SaveServiceImpl implements SaveService {
 
     @Override
     public void loadAll() {
-        for (String id : saver.getSavedList()) {
-            load(id);
+        for (PlayerSave save : saver.loadAll()) {
+            resetPlayer(save.getId(), save);
         }
     }
 
+    @Override
+    public void compactSaves() {
+        saver.compact(keepSaves);
+    }
+
     @Override
     public long save(String id) {
         PlayerGame playerGame = playerGames.get(id);
@@ -80,9 +132,9 @@ public class SaveServiceImpl implements SaveService {
     }
 
     private void saveGame(PlayerGame playerGame, long time) {
-        saver.saveGame(playerGame.getPlayer(),
-                playerGame.getGame().getSave().toString(),
-                time);
+        PlayerSave save = playerSave(playerGame);
+        saver.saveGame(playerGame.getPlayer(), save.getSave(), time);
+        snapshots.put(save.getId(), fingerprint(save));
     }
 
     @Override
@@ -172,6 +224,7 @@ public class SaveServiceImpl implements SaveService {
     @Override
     public void removeSave(String id) {
         saver.delete(id);
+        snapshots.remove(id);
     }
 
     @Override
@@ -179,6 +232,7 @@ public class SaveServiceImpl implements SaveService {
         for (String id : saver.getSavedList()) {
             saver.delete(id);
         }
+        snapshots.clear();
     }
 
 }
@@ -0,0 +1,91 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import com.codenjoy.dojo.services.multiplayer.GameField;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Все игроки на одном поле получают почти одинаковые борды, отличие только
+ * в паре спрайтов. Тут на каждый тик кешируется общая часть борды каждого поля
+ * (см. {@link Game#getSharedBoard()}), а для каждого игрока поверх нее
+ * дорисовываются лишь клетки, вид которых зависит от игрока.
+ * Игры, принтер которых так не умеет, печатаются как и прежде.
+ */
+@Component
+public class SharedBoardsCache {
+
+    private Map<GameField, Object> boards = new HashMap<>();
+
+    private AtomicLong hits = new AtomicLong();
+    private AtomicLong misses = new AtomicLong();
+
+    /**
+     * Сбрасывает общие борды прошлого тика, вызывать перед прорисовкой.
+     */
+    public void tick() {
+        boards.clear();
+    }
+
+    public Object getBoardAsString(PlayerGame playerGame) {
+        Game game = playerGame.getGame();
+        GameField field = playerGame.getField();
+
+        Object shared;
+        if (boards.containsKey(field)) {
+            shared = boards.get(field);
+            if (shared != null) {
+                hits.incrementAndGet();
+            }
+        } else {
+            shared = game.getSharedBoard();
+            boards.put(field, shared);
+            if (shared != null) {
+                misses.incrementAndGet();
+            }
+        }
+
+        if (shared == null) {
+            return game.getBoardAsString();
+        }
+        return game.getBoardAsString(shared);
+    }
+
+    /**
+     * @return сколько раз общая часть борды была взята из кеша
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return сколько раз общая часть борды строилась заново
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,185 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Длительности фаз тика в виде гистограмм, а так же опоздания тиков
+ * относительно расписания {@link TimerService}. По ним видно, какой
+ * период тика сервер выдерживает и какая фаза съедает время.
+ */
+@Component
+public class TickMetrics {
+
+    public static final String TICK = "tick";
+    public static final String LOG = "log";
+    public static final String AUTOSAVE = "autosave";
+    public static final String GAME = "game";
+    public static final String SCREEN = "screen";
+    public static final String SEND = "send";
+    public static final String CONTROL = "control";
+    public static final String SEMIFINAL = "semifinal";
+
+    /**
+     * Верхние границы корзин гистограммы в ms, все что дольше - в последней корзине.
+     */
+    private static final long[] BUCKETS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private final Map<String, Histogram> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final AtomicLong overruns = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong maxLag = new AtomicLong();
+
+    public TickMetrics() {
+        reset();
+    }
+
+    /**
+     * @param start время начала фазы по {@link System#nanoTime()}
+     * @return время окончания фазы - начало следующей
+     */
+    public long done(String phase, long start) {
+        long now = System.nanoTime();
+        add(phase, now - start);
+        return now;
+    }
+
+    void add(String phase, long nanos) {
+        phases.computeIfAbsent(phase, key -> new Histogram()).add(nanos);
+    }
+
+    /**
+     * Тик закончился позже, чем должен был начаться следующий.
+     */
+    public void overrun(long lagNanos) {
+        overruns.incrementAndGet();
+        maxLag.accumulateAndGet(lagNanos, Math::max);
+    }
+
+    public void skipped(long ticks) {
+        skipped.addAndGet(ticks);
+    }
+
+    public long getOverruns() {
+        return overruns.get();
+    }
+
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    public long getMaxLagMs() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLag.get());
+    }
+
+    public Map<String, Histogram> getPhases() {
+        synchronized (phases) {
+            return new LinkedHashMap<>(phases);
+        }
+    }
+
+    public void reset() {
+        synchronized (phases) {
+            phases.clear();
+            for (String phase : new String[]{TICK, LOG, AUTOSAVE, GAME, SCREEN, SEND, CONTROL, SEMIFINAL}) {
+                phases.put(phase, new Histogram());
+            }
+        }
+        overruns.set(0);
+        skipped.set(0);
+        maxLag.set(0);
+    }
+
+    public static class Histogram {
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS.length + 1);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void add(long nanos) {
+            long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while (bucket < BUCKETS.length && ms >= BUCKETS[bucket]) {
+                bucket++;
+            }
+            counts.incrementAndGet(bucket);
+            count.increment();
+            total.add(nanos);
+            max.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getAverageMs() {
+            long count = this.count.sum();
+            if (count == 0) {
+                return 0;
+            }
+            return Math.round(total.sum() / count / 1000.0) / 1000.0;
+        }
+
+        public long getMaxMs() {
+            return TimeUnit.NANOSECONDS.toMillis(max.get());
+        }
+
+        /**
+         * @return "<1ms" -> количество, "<2ms" -> ..., ">=5000ms" -> ...
+         */
+        public Map<String, Long> getBuckets() {
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (int bucket = 0; bucket < counts.length(); bucket++) {
+                String name = (bucket < BUCKETS.length)
+                        ? "<" + BUCKETS[bucket] + "ms"
+                        : ">=" + BUCKETS[BUCKETS.length - 1] + "ms";
+                result.put(name, counts.get(bucket));
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder result = new StringBuilder();
+            getBuckets().forEach((name, value) -> {
+                if (value > 0) {
+                    result.append(name).append(':').append(value).append(' ');
+                }
+            });
+            return String.format("[count:%s, avg:%sms, max:%sms%s]",
+                    getCount(), getAverageMs(), getMaxMs(),
+                    (result.length() == 0) ? "" : ", " + result.toString().trim());
+        }
+    }
+}
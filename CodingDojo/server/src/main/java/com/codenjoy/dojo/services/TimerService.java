@@ -25,48 +25,133 @@ package com.codenjoy.dojo.services;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Планировщик тиков. Каждый тик имеет свой дедлайн по монотонным часам,
+ * первый выровнен по границе периода на настенных часах. Если тик не
+ * уложился в период - это фиксируется в {@link TickMetrics}, а дальше
+ * в зависимости от game.tick.overrun либо пропущенные тики догоняются
+ * подряд (но не больше game.tick.catch-up-limit), либо пропускаются.
+ * Смена периода не прерывает текущий тик.
+ */
 @Component
 @Slf4j
-public class TimerService implements Runnable {
+public class TimerService {
+
+    public enum OverrunPolicy {
+        CATCH_UP, SKIP
+    }
 
-    private ScheduledThreadPoolExecutor executor;
+    private ScheduledExecutorService executor;
     private ScheduledFuture<?> future;
 
     @Autowired
     private PlayerService playerService;
 
+    @Autowired
+    private TickMetrics metrics;
+
+    @Value("${game.tick.overrun}")
+    private OverrunPolicy policy;
+
+    @Value("${game.tick.catch-up-limit}")
+    private int catchUpLimit;
+
     private volatile boolean paused;
     private volatile long period;
 
+    private long deadline;
+    private long generation;
+
     public void start() {
         period = 1000;
         paused = true;
-        executor = new ScheduledThreadPoolExecutor(1);
-        schedule();
+        executor = createExecutor();
+        scheduleAligned();
     }
 
-    private void schedule() {
-        future = executor.scheduleAtFixedRate(this, period, period, TimeUnit.MILLISECONDS);
+    protected ScheduledExecutorService createExecutor() {
+        return new ScheduledThreadPoolExecutor(1);
     }
 
-    @Override
-    public void run() {
-        if (paused) {
-            return;
+    /**
+     * @return монотонное время для дедлайнов тиков
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Первый тик - на ближайшей границе периода по настенным часам.
+     */
+    private synchronized void scheduleAligned() {
+        long delay = period - currentTimeMillis() % period;
+        deadline = nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+        schedule(deadline);
+    }
+
+    private synchronized void schedule(long deadline) {
+        long current = ++generation;
+        long delay = Math.max(0, deadline - nanoTime());
+        future = executor.schedule(() -> tick(current), delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void tick(long generation) {
+        synchronized (this) {
+            if (generation != this.generation) {
+                return;
+            }
         }
 
         try {
-            playerService.tick();
+            if (!paused) {
+                long start = System.nanoTime();
+                playerService.tick();
+                metrics.done(TickMetrics.TICK, start);
+            }
         } catch (Exception e) {
             e.printStackTrace();
             log.error("Error while processing next step", e);
+        } finally {
+            synchronized (this) {
+                // период поменяли во время тика - следующий уже запланирован
+                if (generation == this.generation) {
+                    scheduleNext();
+                }
+            }
+        }
+    }
+
+    private void scheduleNext() {
+        long step = TimeUnit.MILLISECONDS.toNanos(period);
+        deadline += step;
+
+        long lag = nanoTime() - deadline;
+        if (lag > 0) {
+            metrics.overrun(lag);
+            long behind = lag / step + 1;
+            if (policy == OverrunPolicy.SKIP || behind > catchUpLimit) {
+                deadline += behind * step;
+                metrics.skipped(behind);
+                log.debug("Tick overrun by {} ms, {} ticks skipped",
+                        TimeUnit.NANOSECONDS.toMillis(lag), behind);
+            }
         }
+
+        schedule(deadline);
     }
 
     public void pause() {
@@ -81,18 +166,30 @@ public class TimerService implements Runnable {
         return paused;
     }
 
-    public void changePeriod(long period) {
-        this.period = period;
-        if (period > 0){
-            if (future != null){
-                future.cancel(true);
-            }
+    public synchronized void changePeriod(long period) {
+        if (period <= 0) {
+            return;
+        }
 
-            schedule();
+        this.period = period;
+        if (future != null) {
+            future.cancel(false);
         }
+        scheduleAligned();
     }
 
     public long getPeriod() {
         return period;
     }
+
+    public Map<String, Object> getMetrics() {
+        return new LinkedHashMap<String, Object>(){{
+            put("period", period);
+            put("policy", policy);
+            put("overruns", metrics.getOverruns());
+            put("skipped", metrics.getSkipped());
+            put("maxLagMs", metrics.getMaxLagMs());
+            put("phases", metrics.getPhases());
+        }};
+    }
 }
@@ -25,12 +25,15 @@ package com.codenjoy.dojo.services.controller;
 import com.codenjoy.dojo.services.Player;
 import org.json.JSONObject;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
 class GetScreenJSONRequest {
 
     private JSONObject request;
+    private List<String> players;
 
     public GetScreenJSONRequest(String message) {
         request = new JSONObject(message);
@@ -45,10 +48,13 @@ class GetScreenJSONRequest {
     }
 
     private List<String> getPlayers() {
-        return new LinkedList<String>() {{
-            request.getJSONArray("players")
-                    .forEach(it -> add((String) it));
-        }};
+        if (players == null) {
+            players = new LinkedList<String>() {{
+                request.getJSONArray("players")
+                        .forEach(it -> add((String) it));
+            }};
+        }
+        return players;
     }
 
     public boolean isFor(Player player) {
@@ -62,4 +68,16 @@ class GetScreenJSONRequest {
     public boolean isMyGame(Player player) {
         return player.getGameName().equals(getGameName());
     }
+
+    /**
+     * @return ключ, одинаковый для запросов, которым нужен один и тот же экран
+     */
+    public String getKey() {
+        if (isAllPlayers()) {
+            return getGameName() + ":*";
+        }
+        List<String> sorted = new ArrayList<>(getPlayers());
+        Collections.sort(sorted);
+        return getGameName() + ":" + sorted;
+    }
 }
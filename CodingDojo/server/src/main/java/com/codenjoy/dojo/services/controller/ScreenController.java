@@ -36,6 +36,7 @@ import java.util.Map;
 public class ScreenController implements Controller<Map<ScreenRecipient, ScreenData>, Void> {
 
     private final PlayerTransport transport;
+    private final ScreenPayloads payloads = new ScreenPayloads();
 
     // autowiring by name
     public ScreenController(PlayerTransport screenPlayerTransport) {
@@ -61,7 +62,7 @@ public class ScreenController implements Controller<Map<ScreenRecipient, ScreenD
     @Override
     public void registerPlayerTransport(Player player, Void nothing) {
         transport.registerPlayerEndpoint(player.getId(),
-                new ScreenResponseHandler(transport, player));
+                new ScreenResponseHandler(transport, player, payloads));
     }
 
     @Override
@@ -0,0 +1,99 @@
+package com.codenjoy.dojo.services.controller;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import com.codenjoy.dojo.services.Player;
+import com.codenjoy.dojo.services.playerdata.PlayerData;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Кеш json для экранов зрителей. Все сокеты с одинаковым запросом
+ * (игра и набор игроков либо все игроки) получают в рамках одного тика
+ * один и тот же объект, который сериализуется в строку только один раз.
+ * Новый тик определяется по новому инстансу данных на входе.
+ */
+@Slf4j
+class ScreenPayloads {
+
+    private Object data;
+    private Map<String, Payload> payloads = new HashMap<>();
+    private int built;
+    private int sent;
+
+    public synchronized JSONObject get(Map<Player, PlayerData> data,
+                                       GetScreenJSONRequest request,
+                                       Function<Map<Player, PlayerData>, Map<Player, PlayerData>> filter)
+    {
+        if (this.data != data) {
+            nextTick(data);
+        }
+        sent++;
+        return payloads.computeIfAbsent(request.getKey(), key -> {
+            built++;
+            return new Payload(filter.apply(data));
+        });
+    }
+
+    private void nextTick(Object data) {
+        if (this.data != null) {
+            log.debug("Screen payloads: built {}, sent {}", built, sent);
+        }
+        this.data = data;
+        payloads.clear();
+        built = 0;
+        sent = 0;
+    }
+
+    public synchronized int getBuilt() {
+        return built;
+    }
+
+    public synchronized int getSent() {
+        return sent;
+    }
+
+    /**
+     * Сериализуется единожды, дальше отдается готовая строка.
+     */
+    static class Payload extends JSONObject {
+
+        private String json;
+
+        public Payload(Map<?, ?> map) {
+            super(map);
+        }
+
+        @Override
+        public synchronized String toString() {
+            if (json == null) {
+                json = super.toString();
+            }
+            return json;
+        }
+    }
+}
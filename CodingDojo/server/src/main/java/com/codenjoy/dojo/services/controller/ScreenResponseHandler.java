@@ -31,7 +31,6 @@ import com.codenjoy.dojo.transport.ws.ResponseHandler;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jetty.websocket.api.Session;
-import org.json.JSONObject;
 
 import java.util.Map;
 import java.util.Set;
@@ -48,6 +47,7 @@ public class ScreenResponseHandler implements ResponseHandler {
 
     private PlayerTransport transport;
     private Player player;
+    private ScreenPayloads payloads;
 
     @Override
     public void onResponse(PlayerSocket socket, String message) {
@@ -57,7 +57,8 @@ public class ScreenResponseHandler implements ResponseHandler {
         }
 
         transport.setFilterFor(socket,
-                data -> new JSONObject(filter((Map<Player, PlayerData>) data, request)));
+                data -> payloads.get((Map<Player, PlayerData>) data, request,
+                        map -> filter(map, request)));
     }
 
     private Map<Player, PlayerData> filter(Map<Player, PlayerData> data,
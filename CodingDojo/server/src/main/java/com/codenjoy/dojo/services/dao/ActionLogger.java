@@ -27,28 +27,61 @@ import com.codenjoy.dojo.services.*;
 import com.codenjoy.dojo.services.jdbc.ConnectionThreadPoolFactory;
 import com.codenjoy.dojo.services.jdbc.CrudConnectionThreadPool;
 import com.codenjoy.dojo.services.jdbc.JDBCTimeUtils;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
+/**
+ * Логи борд пишутся в базу асинхронно: tick только кладет записи
+ * в ограниченную очередь, а отдельный поток раз в {@code board.save.ticks}
+ * тиков сливает их в базу пачками по {@code board.log.batch-size},
+ * каждая пачка в своей транзакции. Если база не успевает и очередь
+ * заполнилась - в зависимости от {@code board.log.overflow} новые записи
+ * либо отбрасываются (DROP), либо tick ждет освобождения места (BLOCK),
+ * но не дольше {@link #BLOCK_TIMEOUT_MS} за весь tick - дальше записи
+ * этого тика отбрасываются.
+ */
+@Slf4j
 public class ActionLogger extends Suspendable {
 
+    public enum Overflow {
+        DROP, BLOCK
+    }
+
+    public static final int DEFAULT_QUEUE_SIZE = 10_000;
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final long BLOCK_TIMEOUT_MS = 1_000;
+
     @Value("${board.save.ticks}")
     private int ticks;
 
     protected ExecutorService executor = Executors.newSingleThreadExecutor();
-    private Queue<BoardLog> cache = new ConcurrentLinkedQueue<>();
+    private BlockingQueue<BoardLog> cache = new ArrayBlockingQueue<>(DEFAULT_QUEUE_SIZE);
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private Overflow overflow = Overflow.DROP;
+    private AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private Function<PlayerGame, Object> boards = playerGame -> playerGame.getGame().getBoardAsString();
     private int count;
 
+    private AtomicLong dropped = new AtomicLong();
+    private AtomicLong rows = new AtomicLong();
+    private AtomicLong flushes = new AtomicLong();
+    private AtomicLong flushTime = new AtomicLong();
+    private volatile long lastFlushTime;
+
     private CrudConnectionThreadPool pool;
 
     public ActionLogger(ConnectionThreadPoolFactory factory) {
@@ -68,25 +101,59 @@ public class ActionLogger extends Suspendable {
         this.ticks = ticks;
     }
 
+    @Value("${board.log.queue-size}")
+    public void setQueueSize(int size) {
+        cache = new ArrayBlockingQueue<>(size);
+    }
+
+    @Value("${board.log.batch-size}")
+    public void setBatchSize(int size) {
+        batchSize = Math.max(1, size);
+    }
+
+    @Value("${board.log.overflow}")
+    public void setOverflow(Overflow overflow) {
+        this.overflow = overflow;
+    }
+
+    /**
+     * @param boards откуда брать борду игрока - например уже отрисованную
+     *               на прошлом тике для отправки клиентам, чтобы не рисовать ее повторно
+     */
+    public void setBoards(Function<PlayerGame, Object> boards) {
+        this.boards = boards;
+    }
+
     void removeDatabase() {
         pool.removeDatabase();
     }
 
+    public Map<String, Object> getDbMetrics() {
+        return pool.getMetrics();
+    }
+
     public void saveToDB() {
-        pool.run(connection -> {
+        List<BoardLog> batch = new ArrayList<>(batchSize);
+        while (cache.drainTo(batch, batchSize) > 0) {
+            long start = System.nanoTime();
+            saveToDB(batch);
+            flushTime.addAndGet(System.nanoTime() - start);
+            lastFlushTime = System.nanoTime() - start;
+            flushes.incrementAndGet();
+            rows.addAndGet(batch.size());
+            batch.clear();
+        }
+        log.debug("Board logs saved: {}", getMetrics());
+    }
+
+    private void saveToDB(List<BoardLog> batch) {
+        pool.transaction(connection -> {
             String sql = "INSERT INTO player_boards " +
                     "(time, player_id, game_type, score, command, message, board) " +
                     "VALUES (?,?,?,?,?,?,?);";
 
-            BoardLog data;
             try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                int size = cache.size();
-                for (int i = 0; i < size; i++) {
-                    data = cache.poll();
-                    if (data == null) {
-                        break;
-                    }
-
+                for (BoardLog data : batch) {
                     stmt.setString(1, JDBCTimeUtils.toString(new Date(data.getTime())));
                     stmt.setString(2, data.getPlayerId());
                     stmt.setString(3, data.getGameType());
@@ -109,21 +176,86 @@ public class ActionLogger extends Suspendable {
 
         // для всех players одно и то же время используется - фактически как id группы сейвов
         long time = now();
+        // ждать места в очереди (BLOCK) tick может не дольше BLOCK_TIMEOUT_MS суммарно
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(BLOCK_TIMEOUT_MS);
+        boolean timeout = false;
         for (PlayerGame playerGame : playerGames.active()) {
             Player player = playerGame.getPlayer();
-            cache.add(new BoardLog(time,
+            BoardLog data = new BoardLog(time,
                     player.getId(),
                     player.getGameName(),
                     player.getScore(),
-                    playerGame.getGame().getBoardAsString().toString(),
+                    boards.apply(playerGame).toString(),
                     player.getEventListener().popLastMessages(),
-                    playerGame.popLastCommand()));
+                    playerGame.popLastCommand());
+
+            if (timeout) {
+                // время тика вышло - остаток записей отбрасываем не дожидаясь
+                dropped.incrementAndGet();
+            } else {
+                timeout = !add(data, deadline);
+            }
+        }
+
+        if (count++ % ticks == 0 || cache.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * @return false если запись так и не попала в очередь до deadline (BLOCK)
+     */
+    private boolean add(BoardLog data, long deadline) {
+        if (cache.offer(data)) {
+            return true;
+        }
+
+        if (overflow == Overflow.BLOCK) {
+            // база не успевает - притормаживаем tick, но не навсегда
+            flush();
+            try {
+                long wait = deadline - System.nanoTime();
+                if (wait > 0 && cache.offer(data, wait, TimeUnit.NANOSECONDS)) {
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            dropped.incrementAndGet();
+            return false;
         }
 
-        if (count++ % ticks == 0) {
-            // executor.submit потому что sqlite тормозит при сохранении
-            executor.submit(() -> saveToDB());
+        dropped.incrementAndGet();
+        return true;
+    }
+
+    private void flush() {
+        // одного запланированного сохранения достаточно - оно сольет всю очередь
+        if (!flushScheduled.compareAndSet(false, true)) {
+            return;
         }
+        // executor.submit потому что sqlite тормозит при сохранении
+        executor.submit(() -> {
+            flushScheduled.set(false);
+            saveToDB();
+        });
+    }
+
+    /**
+     * @return метрики очереди логов: глубина, отброшенные записи,
+     *         время сохранения пачки и скорость записи в базу
+     */
+    public Map<String, Object> getMetrics() {
+        long time = flushTime.get();
+        return new LinkedHashMap<String, Object>(){{
+            put("queue", cache.size());
+            put("capacity", cache.size() + cache.remainingCapacity());
+            put("dropped", dropped.get());
+            put("rows", rows.get());
+            put("flushes", flushes.get());
+            put("lastFlushMs", TimeUnit.NANOSECONDS.toMillis(lastFlushTime));
+            put("rowsPerSecond", (time == 0) ? 0 : rows.get() * TimeUnit.SECONDS.toNanos(1) / time);
+        }};
     }
 
     protected long now() {
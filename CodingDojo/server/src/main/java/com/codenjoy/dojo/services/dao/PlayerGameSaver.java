@@ -28,11 +28,21 @@ import com.codenjoy.dojo.services.Player;
 import com.codenjoy.dojo.services.PlayerSave;
 import com.codenjoy.dojo.services.jdbc.*;
 
+import java.sql.*;
 import java.sql.Date;
 import java.util.*;
 
+/**
+ * Все сейвы хранятся в истории saves (индекс по player_id + time),
+ * а самый свежий сейв каждого игрока дублируется в latest_saves,
+ * где player_id - первичный ключ. Так загрузка сейва - один lookup
+ * по ключу, а история чистится через {@link #compact(int)}.
+ */
 public class PlayerGameSaver implements GameSaver {
 
+    private static final String COLUMNS =
+            "(time, player_id, callback_url, room_name, game_name, score, save)";
+
     private CrudConnectionThreadPool pool;
 
     public PlayerGameSaver(ConnectionThreadPoolFactory factory) {
@@ -44,50 +54,166 @@ public class PlayerGameSaver implements GameSaver {
                         "room_name varchar(255)," +
                         "game_name varchar(255)," +
                         "score int," +
+                        "save varchar(255));",
+                "CREATE INDEX IF NOT EXISTS saves_player_time " +
+                        "ON saves (player_id, time);",
+                "CREATE TABLE IF NOT EXISTS latest_saves (" +
+                        "time varchar(255), " +
+                        "player_id varchar(255) PRIMARY KEY, " +
+                        "callback_url varchar(255)," +
+                        "room_name varchar(255)," +
+                        "game_name varchar(255)," +
+                        "score int," +
                         "save varchar(255));");
+
+        migrate();
+    }
+
+    /**
+     * Если база старая и latest_saves еще пустая -
+     * заполняем ее последними сейвами из истории.
+     */
+    private void migrate() {
+        boolean empty = pool.select("SELECT COUNT(*) AS count FROM latest_saves;",
+                rs -> rs.next() && rs.getInt("count") == 0);
+        if (!empty) {
+            return;
+        }
+
+        Map<String, Object[]> latest = pool.select(
+                "SELECT * FROM saves AS s WHERE NOT EXISTS (" +
+                        "SELECT 1 FROM saves AS n " +
+                        "WHERE n.player_id = s.player_id AND n.time > s.time);",
+                rs -> {
+                    // при одинаковом time побеждает последняя запись
+                    Map<String, Object[]> result = new LinkedHashMap<>();
+                    while (rs.next()) {
+                        result.put(rs.getString("player_id"), new Object[]{
+                                rs.getString("time"),
+                                rs.getString("player_id"),
+                                rs.getString("callback_url"),
+                                rs.getString("room_name"),
+                                rs.getString("game_name"),
+                                rs.getInt("score"),
+                                rs.getString("save")
+                        });
+                    }
+                    return result;
+                });
+        if (latest.isEmpty()) {
+            return;
+        }
+
+        pool.batchUpdate("INSERT INTO latest_saves " + COLUMNS + " VALUES (?,?,?,?,?,?,?);",
+                new ArrayList<>(latest.values()),
+                (stmt, row) -> {
+                    for (int index = 0; index < row.length; index++) {
+                        stmt.setObject(index + 1, row[index]);
+                    }
+                    return true;
+                });
     }
 
     void removeDatabase() {
         pool.removeDatabase();
     }
 
+    int historySize(String id) {
+        return pool.select("SELECT COUNT(*) AS count FROM saves WHERE player_id = ?;",
+                new Object[]{id},
+                rs -> rs.next() ? rs.getInt("count") : 0);
+    }
+
     @Override
     public void saveGame(Player player, String save, long time) {
-        pool.update("INSERT INTO saves " +
-                        "(time, player_id, callback_url, room_name, game_name, score, save) " +
-                        "VALUES (?,?,?,?,?,?,?);",
-                new Object[]{JDBCTimeUtils.toString(new Date(time)),
-                        player.getId(),
+        saveGames(Arrays.asList(new PlayerSave(player.getId(),
                         player.getCallbackUrl(),
                         player.getRoomName(),
                         player.getGameName(),
                         player.getScore(),
-                        save
-                });
+                        save)),
+                time);
+    }
+
+    @Override
+    public void saveGames(List<PlayerSave> saves, long time) {
+        if (saves.isEmpty()) {
+            return;
+        }
+
+        String date = JDBCTimeUtils.toString(new Date(time));
+        pool.transaction(connection -> {
+            try (PreparedStatement history = connection.prepareStatement(
+                        "INSERT INTO saves " + COLUMNS + " VALUES (?,?,?,?,?,?,?);");
+                 PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM latest_saves WHERE player_id = ?;");
+                 PreparedStatement latest = connection.prepareStatement(
+                        "INSERT INTO latest_saves " + COLUMNS + " VALUES (?,?,?,?,?,?,?);"))
+            {
+                for (PlayerSave save : saves) {
+                    set(history, date, save);
+                    history.addBatch();
+
+                    delete.setString(1, save.getId());
+                    delete.addBatch();
+
+                    set(latest, date, save);
+                    latest.addBatch();
+                }
+                history.executeBatch();
+                delete.executeBatch();
+                latest.executeBatch();
+            } catch (SQLException e) {
+                throw new RuntimeException("Error saving games", e);
+            }
+            return null;
+        });
+    }
+
+    private void set(PreparedStatement stmt, String date, PlayerSave save) throws SQLException {
+        stmt.setString(1, date);
+        stmt.setString(2, save.getId());
+        stmt.setString(3, save.getCallbackUrl());
+        stmt.setString(4, save.getRoomName());
+        stmt.setString(5, save.getGameName());
+        stmt.setObject(6, save.getScore());
+        stmt.setString(7, save.getSave());
     }
 
     @Override
     public PlayerSave loadGame(String id) {
-        return pool.select("SELECT * FROM saves WHERE player_id = ? ORDER BY time DESC LIMIT 1;",
+        return pool.select("SELECT * FROM latest_saves WHERE player_id = ?;",
                 new Object[]{id},
+                rs -> rs.next() ? playerSave(rs) : PlayerSave.NULL
+        );
+    }
+
+    private PlayerSave playerSave(ResultSet rs) throws SQLException {
+        String id = rs.getString("player_id");
+        String callbackUrl = rs.getString("callback_url");
+        int score = rs.getInt("score");
+        String roomName = rs.getString("room_name");
+        String gameName = rs.getString("game_name");
+        String save = rs.getString("save");
+        return new PlayerSave(id, callbackUrl, roomName, gameName, score, save);
+    }
+
+    @Override
+    public List<PlayerSave> loadAll() {
+        return pool.select("SELECT * FROM latest_saves ORDER BY player_id;",
                 rs -> {
-                    if (rs.next()) {
-                        String callbackUrl = rs.getString("callback_url");
-                        int score = rs.getInt("score");
-                        String roomName = rs.getString("room_name");
-                        String gameName = rs.getString("game_name");
-                        String save = rs.getString("save");
-                        return new PlayerSave(id, callbackUrl, roomName, gameName, score, save);
-                    } else {
-                        return PlayerSave.NULL;
+                    List<PlayerSave> result = new LinkedList<>();
+                    while (rs.next()) {
+                        result.add(playerSave(rs));
                     }
+                    return result;
                 }
         );
     }
 
     @Override
     public List<String> getSavedList() {
-        return pool.select("SELECT DISTINCT player_id FROM saves;", // TODO убедиться, что загружены самые последние
+        return pool.select("SELECT player_id FROM latest_saves ORDER BY player_id;",
                 rs -> {
                     List<String> result = new LinkedList<>();
                     while (rs.next()) {
@@ -101,7 +227,27 @@ public class PlayerGameSaver implements GameSaver {
 
     @Override
     public void delete(String id) {
-        pool.update("DELETE FROM saves WHERE player_id = ?;",
-                new Object[]{id});
+        pool.transaction(connection -> {
+            for (String table : Arrays.asList("saves", "latest_saves")) {
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        "DELETE FROM " + table + " WHERE player_id = ?;"))
+                {
+                    stmt.setString(1, id);
+                    stmt.execute();
+                } catch (SQLException e) {
+                    throw new RuntimeException("Error deleting save", e);
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void compact(int keep) {
+        pool.update("DELETE FROM saves WHERE (" +
+                        "SELECT COUNT(*) FROM saves AS newer " +
+                        "WHERE newer.player_id = saves.player_id " +
+                        "AND newer.time > saves.time) >= ?;",
+                new Object[]{keep});
     }
 }
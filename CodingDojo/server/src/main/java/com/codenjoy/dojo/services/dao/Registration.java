@@ -28,6 +28,9 @@ import com.codenjoy.dojo.services.hash.Hash;
 import com.codenjoy.dojo.services.jdbc.ConnectionThreadPoolFactory;
 import com.codenjoy.dojo.services.jdbc.CrudConnectionThreadPool;
 import com.codenjoy.dojo.services.security.GameAuthorities;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -40,6 +43,8 @@ import org.springframework.security.oauth2.core.user.OAuth2User;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import static com.codenjoy.dojo.services.dao.Registration.User.APPROVED;
 import static com.codenjoy.dojo.services.dao.Registration.User.NOT_APPROVED;
@@ -50,11 +55,24 @@ import static org.apache.commons.lang3.RandomStringUtils.randomAlphanumeric;
 public class Registration {
 
     public static final int ADMIN_USER_ID = 0;
+    public static final int CACHE_SIZE = 10_000;
 
     private CrudConnectionThreadPool pool;
     private PasswordEncoder passwordEncoder;
     private ConfigProperties properties;
 
+    /**
+     * Кеши самых частых запросов при авторизации: code -> id
+     * и id -> (email, readable_name, code). Кешируется в том числе
+     * и отсутствие пользователя. Любое изменение в базе их сбрасывает.
+     */
+    private Cache<String, Optional<String>> idsByCode = cache();
+    private Cache<String, Optional<Names>> namesById = cache();
+
+    // меняется при каждой записи, чтобы не положить
+    // в кеш то, что прочитали до нее
+    private AtomicLong generation = new AtomicLong();
+
     public Registration(ConnectionThreadPoolFactory factory, String adminEmail, String adminPassword, PasswordEncoder passwordEncoder, ConfigProperties properties, boolean initAdminUser) {
         this.passwordEncoder = passwordEncoder;
         this.properties = properties;
@@ -69,6 +87,10 @@ public class Registration {
                 "code varchar(255)," +
                 "data varchar(255)," +
                 "roles varchar(255));");
+        initialScripts.add("CREATE INDEX IF NOT EXISTS users_id ON users (id);");
+        initialScripts.add("CREATE INDEX IF NOT EXISTS users_code ON users (code);");
+        initialScripts.add("CREATE INDEX IF NOT EXISTS users_email ON users (email);");
+        initialScripts.add("CREATE INDEX IF NOT EXISTS users_readable_name ON users (readable_name);");
         if (initAdminUser) {
             initialScripts.add(String.format("INSERT INTO users (id, email, readable_name, email_approved, password, code, data, roles)" +
                     " select '%s', '%s', '%s', %s,  '%s', '%s', '{}', '%s, %s'" +
@@ -83,6 +105,71 @@ public class Registration {
         pool.removeDatabase();
     }
 
+    public Map<String, Object> getDbMetrics() {
+        return pool.getMetrics();
+    }
+
+    private static <T> Cache<String, Optional<T>> cache() {
+        return CacheBuilder.newBuilder()
+                .maximumSize(CACHE_SIZE)
+                .recordStats()
+                .build();
+    }
+
+    private <T> T cached(Cache<String, Optional<T>> cache, String key, Supplier<T> loader) {
+        if (key == null) {
+            return loader.get();
+        }
+
+        Optional<T> value = cache.getIfPresent(key);
+        if (value != null) {
+            return value.orElse(null);
+        }
+
+        long before = generation.get();
+        T loaded = loader.get();
+        cache.put(key, Optional.ofNullable(loaded));
+        if (generation.get() != before) {
+            // пока читали, кто-то успел записать
+            cache.invalidate(key);
+        }
+        return loaded;
+    }
+
+    private void invalidate(String id, String code) {
+        generation.incrementAndGet();
+        if (id != null) {
+            namesById.invalidate(id);
+        }
+        if (code != null) {
+            idsByCode.invalidate(code);
+        }
+    }
+
+    private void invalidateAll() {
+        generation.incrementAndGet();
+        namesById.invalidateAll();
+        idsByCode.invalidateAll();
+    }
+
+    public Map<String, Object> getCacheMetrics() {
+        return new LinkedHashMap<String, Object>(){{
+            put("idsByCode", metrics(idsByCode));
+            put("namesById", metrics(namesById));
+        }};
+    }
+
+    private Map<String, Object> metrics(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new LinkedHashMap<String, Object>(){{
+            put("size", cache.size());
+            put("hits", stats.hitCount());
+            put("misses", stats.missCount());
+            put("hitRate", stats.hitRate());
+            put("evictions", stats.evictionCount());
+        }};
+    }
+
     public boolean approved(String id) {
         return pool.select("SELECT * FROM users WHERE id = ?;",
                 new Object[]{id},
@@ -139,7 +226,8 @@ public class Registration {
         
         pool.update("INSERT INTO users (id, email, readable_name, email_approved, password, code, data, roles) VALUES (?,?,?,?,?,?,?,?);",
                 new Object[]{id, email, readableName, NOT_APPROVED, password, code, data, GameAuthorities.joinRoles(roles)});
-        
+        invalidate(id, code);
+
         return getUserByCode(code);
     }
 
@@ -187,10 +275,11 @@ public class Registration {
     }
 
     public String getIdByCode(String code) {
-        return pool.select("SELECT id FROM users WHERE code = ?;",
-                new Object[]{code},
-                rs -> rs.next() ? rs.getString("id") : null
-        );
+        return cached(idsByCode, code, () ->
+                pool.select("SELECT id FROM users WHERE code = ?;",
+                    new Object[]{code},
+                    rs -> rs.next() ? rs.getString("id") : null
+                ));
     }
 
     public boolean emailIsUsed(String email) {
@@ -208,10 +297,20 @@ public class Registration {
     }
 
     public String getEmailById(String id) {
-        return pool.select("SELECT email FROM users WHERE id = ?;",
-                new Object[]{id},
-                rs -> rs.next() ? rs.getString("email") : null
-        );
+        Names names = getNames(id);
+        return (names == null) ? null : names.email;
+    }
+
+    private Names getNames(String id) {
+        return cached(namesById, id, () ->
+                pool.select("SELECT email, readable_name, code FROM users WHERE id = ?;",
+                    new Object[]{id},
+                    rs -> rs.next()
+                            ? new Names(rs.getString("email"),
+                                    rs.getString("readable_name"),
+                                    rs.getString("code"))
+                            : null
+                ));
     }
 
     public String getIdByName(String name) {
@@ -229,37 +328,51 @@ public class Registration {
     }
 
     public String getNameById(String id) {
-        return pool.select("SELECT readable_name FROM users WHERE id = ?;",
-                new Object[]{id},
-                rs -> rs.next() ? rs.getString("readable_name") : null
-        );
+        Names names = getNames(id);
+        return (names == null) ? null : names.readableName;
     }
 
     public String getCodeById(String id) {
-        return pool.select("SELECT code FROM users WHERE id = ?;",
-                new Object[]{id},
-                rs -> rs.next() ? rs.getString("code") : null
-        );
+        Names names = getNames(id);
+        return (names == null) ? null : names.code;
     }
 
     public void approve(String code) {
         pool.update("UPDATE users SET email_approved = ? WHERE code = ?;",
                 new Object[]{APPROVED, code});
+        invalidate(null, code);
     }
 
     public void updateReadableName(String id, String name) {
         pool.update("UPDATE users SET readable_name = ? WHERE id = ?;",
                 new Object[]{name, id});
+        invalidate(id, null);
     }
 
     public void updateId(String name, String id) {
         pool.update("UPDATE users SET id = ? WHERE readable_name = ?;",
                 new Object[]{id, name});
+        // старый id мы не знаем
+        invalidateAll();
     }
 
     public void updateNameAndEmail(String id, String name, String email) {
         pool.update("UPDATE users SET readable_name = ?, email = ? WHERE id = ?;",
                 new Object[]{name, email, id});
+        invalidate(id, null);
+    }
+
+    private static final class Names {
+
+        private final String email;
+        private final String readableName;
+        private final String code;
+
+        private Names(String email, String readableName, String code) {
+            this.email = email;
+            this.readableName = readableName;
+            this.code = code;
+        }
     }
 
     @Data
@@ -389,15 +502,19 @@ public class Registration {
             pool.update("UPDATE users SET readable_name = ?, email = ?, email_approved = ?, password = ?, code = ?, data = ?, roles = ? WHERE id = ?;",
                     parameters);
         }
+        // мог поменяться code, а старый мы не знаем
+        invalidateAll();
     }
 
     public void remove(String id) {
         pool.update("DELETE FROM users WHERE id = ?;",
                 new Object[]{id});
+        invalidateAll();
     }
 
     public void removeAll() {
         pool.update("DELETE FROM users WHERE roles NOT LIKE '%" + ROLE_ADMIN + "%';");
+        invalidateAll();
     }
 
 }
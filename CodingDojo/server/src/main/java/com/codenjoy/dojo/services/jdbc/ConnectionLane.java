@@ -0,0 +1,132 @@
+package com.codenjoy.dojo.services.jdbc;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import lombok.SneakyThrows;
+
+import java.sql.Connection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Набор потоков, каждый со своим Connection, плюс статистика
+ * сколько запросы ждали в очереди и сколько выполнялись.
+ */
+public class ConnectionLane {
+
+    private ExecutorService executorService;
+    private List<Connection> connections = Collections.synchronizedList(new LinkedList<>());
+    private int count;
+
+    private AtomicInteger queue = new AtomicInteger();
+    private Timing wait = new Timing();
+    private Timing execution = new Timing();
+
+    public ConnectionLane(int count, Supplier<Connection> factory) {
+        this.count = count;
+        executorService = Executors.newFixedThreadPool(count, openConnection(factory));
+    }
+
+    @SneakyThrows
+    private ThreadFactory openConnection(Supplier<Connection> factory) {
+        return runnable -> {
+            Connection connection = factory.get();
+            connections.add(connection);
+            return new ConnectionThread(runnable, connection);
+        };
+    }
+
+    @SneakyThrows
+    public void close() {
+        synchronized (connections) {
+            for (Connection connection : connections) {
+                // TODO если один свалился, то хоть другие закрой, а?
+                connection.close();
+            }
+        }
+        executorService.shutdown();
+    }
+
+    @SneakyThrows
+    public <T> T run(final For<T> runner) {
+        long submitted = System.nanoTime();
+        queue.incrementAndGet();
+        Future<T> submit = executorService.submit(() -> {
+            long started = System.nanoTime();
+            queue.decrementAndGet();
+            wait.add(started - submitted);
+            try {
+                ConnectionThread thread = (ConnectionThread) Thread.currentThread();
+                Connection connection = thread.getConnection();
+                return runner.run(connection);
+            } finally {
+                execution.add(System.nanoTime() - started);
+            }
+        });
+
+        return submit.get();
+    }
+
+    public Map<String, Object> getMetrics() {
+        return new LinkedHashMap<String, Object>(){{
+            put("connections", count);
+            put("queue", queue.get());
+            put("queries", execution.count.sum());
+            put("avgWaitUs", wait.average());
+            put("maxWaitUs", wait.max());
+            put("avgExecutionUs", execution.average());
+            put("maxExecutionUs", execution.max());
+        }};
+    }
+
+    private static class Timing {
+
+        private LongAdder count = new LongAdder();
+        private LongAdder total = new LongAdder();
+        private AtomicLong max = new AtomicLong();
+
+        void add(long nanos) {
+            count.increment();
+            total.add(nanos);
+            max.accumulateAndGet(nanos, Math::max);
+        }
+
+        long average() {
+            long count = this.count.sum();
+            return (count == 0) ? 0 : TimeUnit.NANOSECONDS.toMicros(total.sum() / count);
+        }
+
+        long max() {
+            return TimeUnit.NANOSECONDS.toMicros(max.get());
+        }
+    }
+}
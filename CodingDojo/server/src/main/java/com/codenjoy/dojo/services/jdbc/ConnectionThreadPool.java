@@ -23,50 +23,52 @@ package com.codenjoy.dojo.services.jdbc;
  */
 
 
-import lombok.SneakyThrows;
-
 import java.sql.Connection;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.concurrent.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Supplier;
 
+/**
+ * Запросы на запись идут в writer, а select'ы в отдельный набор
+ * reader connections - так долгая пакетная запись не блокирует чтение.
+ * Если readers = 0, то все идет через writer.
+ */
 public class ConnectionThreadPool {
 
-    private ExecutorService executorService;
-    private List<Connection> connections = new LinkedList<>();
+    private ConnectionLane writer;
+    private ConnectionLane reader;
 
     public ConnectionThreadPool(int count, Supplier<Connection> factory) {
-        executorService = Executors.newFixedThreadPool(count, openConnection(factory));
+        this(count, 0, factory);
     }
 
-    @SneakyThrows
-    private ThreadFactory openConnection(Supplier<Connection> factory) {
-        return runnable -> {
-            Connection connection = factory.get();
-            connections.add(connection);
-            return new ConnectionThread(runnable, connection);
-        };
+    public ConnectionThreadPool(int writers, int readers, Supplier<Connection> factory) {
+        writer = new ConnectionLane(writers, factory);
+        reader = (readers > 0) ? new ConnectionLane(readers, factory) : writer;
     }
 
-    @SneakyThrows
     public void close() {
-        for (Connection connection : connections) {
-            // TODO если один свалился, то хоть другие закрой, а?
-            connection.close();
+        writer.close();
+        if (reader != writer) {
+            reader.close();
         }
-        executorService.shutdown();
     }
 
-    @SneakyThrows
     public <T> T run(final For<T> runner) {
-        Future<T> submit = executorService.submit(() -> {
-            ConnectionThread thread = (ConnectionThread) Thread.currentThread();
-            Connection connection = thread.getConnection();
-            return runner.run(connection);
-        });
+        return writer.run(runner);
+    }
+
+    public <T> T read(final For<T> runner) {
+        return reader.run(runner);
+    }
 
-        return submit.get();
+    public Map<String, Object> getMetrics() {
+        return new LinkedHashMap<String, Object>(){{
+            put("write", writer.getMetrics());
+            if (reader != writer) {
+                put("read", reader.getMetrics());
+            }
+        }};
     }
 
     public void removeDatabase() {
@@ -36,8 +36,37 @@ public class CrudConnectionThreadPool extends ConnectionThreadPool {
        super(count, factory);
     }
 
-    public <T> T select(final String query, final Object[] parameters, final ObjectMapper<T> mapper) {
+    public CrudConnectionThreadPool(int writers, int readers, Supplier<Connection> factory) {
+        super(writers, readers, factory);
+    }
+
+    /**
+     * Выполняет все, что делает runner, в одной транзакции:
+     * commit если все прошло успешно, иначе rollback.
+     */
+    public <T> T transaction(final For<T> runner) {
         return run(connection -> {
+            try {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try {
+                    T result = runner.run(connection);
+                    connection.commit();
+                    return result;
+                } catch (RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Error in transaction: " + e, e);
+            }
+        });
+    }
+
+    public <T> T select(final String query, final Object[] parameters, final ObjectMapper<T> mapper) {
+        return read(connection -> {
             try (PreparedStatement stmt = connection.prepareStatement(query)) {
                 for (int index = 0; index < parameters.length; index++) {
                     stmt.setObject(index + 1, parameters[index]);
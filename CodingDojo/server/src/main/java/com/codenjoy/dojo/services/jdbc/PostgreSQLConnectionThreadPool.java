@@ -31,10 +31,15 @@ import java.sql.SQLException;
 
 public class PostgreSQLConnectionThreadPool extends CrudConnectionThreadPool {
 
-    private static final int CONNECTIONS_COUNT = 10;
+    private static final int WRITERS = 5;
+    public static final int READERS = 5;
 
     public PostgreSQLConnectionThreadPool(String database, String... createTableSqls) {
-        super(CONNECTIONS_COUNT, () -> getConnection(database));
+        this(database, READERS, createTableSqls);
+    }
+
+    public PostgreSQLConnectionThreadPool(String database, int readers, String... createTableSqls) {
+        super(WRITERS, readers, () -> getConnection(database));
 
         for (String sql : createTableSqls) {
             createDB(sql);
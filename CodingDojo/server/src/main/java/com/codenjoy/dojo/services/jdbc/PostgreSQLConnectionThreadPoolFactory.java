@@ -22,15 +22,22 @@ package com.codenjoy.dojo.services.jdbc;
  * #L%
  */
 
-import lombok.AllArgsConstructor;
-
-@AllArgsConstructor
 public class PostgreSQLConnectionThreadPoolFactory implements ConnectionThreadPoolFactory {
 
     private String database;
+    private int readers;
+
+    public PostgreSQLConnectionThreadPoolFactory(String database) {
+        this(database, PostgreSQLConnectionThreadPool.READERS);
+    }
+
+    public PostgreSQLConnectionThreadPoolFactory(String database, int readers) {
+        this.database = database;
+        this.readers = readers;
+    }
 
     @Override
     public CrudConnectionThreadPool create(String... createTableSqls) {
-        return new PostgreSQLConnectionThreadPool(database, createTableSqls);
+        return new PostgreSQLConnectionThreadPool(database, readers, createTableSqls);
     }
 }
@@ -33,11 +33,18 @@ import java.sql.DriverManager;
 
 public class SqliteConnectionThreadPool extends CrudConnectionThreadPool {
 
-    private static final int CONNECTIONS = 3;
+    // sqlite все равно пишет только одним соединением за раз
+    private static final int WRITERS = 1;
+    public static final int READERS = 2;
+
     private String database;
 
     public SqliteConnectionThreadPool(String database, String... createTableSqls) {
-        super(CONNECTIONS, () -> getConnection(database));
+        this(database, READERS, createTableSqls);
+    }
+
+    public SqliteConnectionThreadPool(String database, int readers, String... createTableSqls) {
+        super(WRITERS, readers, () -> getConnection(database));
 
         this.database = database;
 
@@ -54,6 +61,8 @@ public class SqliteConnectionThreadPool extends CrudConnectionThreadPool {
         config.setOpenMode(SQLiteOpenMode.READWRITE);
         config.setOpenMode(SQLiteOpenMode.CREATE);
         config.setOpenMode(SQLiteOpenMode.NOMUTEX);
+        // в WAL режиме читатели не блокируют писателя и наоборот
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
 
         return DriverManager.getConnection("jdbc:sqlite:" + database, config.toProperties());
     }
@@ -69,5 +78,7 @@ public class SqliteConnectionThreadPool extends CrudConnectionThreadPool {
         if (!file.delete()) {
             throw new RuntimeException("Cant remove DB " + file.getAbsolutePath());
         }
+        new File(database + "-wal").delete();
+        new File(database + "-shm").delete();
     }
 }
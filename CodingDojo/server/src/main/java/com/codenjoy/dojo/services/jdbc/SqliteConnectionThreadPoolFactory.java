@@ -30,8 +30,20 @@ import java.io.File;
 public class SqliteConnectionThreadPoolFactory implements ConnectionThreadPoolFactory {
 
     private String database;
+    private int readers;
 
     public SqliteConnectionThreadPoolFactory(boolean inMemory, String uri, ContextPathGetter context) {
+        this(inMemory, uri, context, SqliteConnectionThreadPool.READERS);
+    }
+
+    /**
+     * @param readers сколько отдельных соединений на чтение, для базы в памяти
+     *                всегда 0: в shared cache читатель ловит SQLITE_LOCKED
+     *                на таблице, в которую пишут (WAL там не работает),
+     *                потому все идет через единственный writer
+     */
+    public SqliteConnectionThreadPoolFactory(boolean inMemory, String uri, ContextPathGetter context, int readers) {
+        this.readers = inMemory ? 0 : readers;
         if (inMemory) {
             String name = StringUtils.substringBetween(uri, "/", ".db");
             database = String.format("file:%s?mode=memory&cache=shared", name);
@@ -50,6 +62,6 @@ public class SqliteConnectionThreadPoolFactory implements ConnectionThreadPoolFa
 
     @Override
     public CrudConnectionThreadPool create(String... createTableSqls) {
-        return new SqliteConnectionThreadPool(database, createTableSqls);
+        return new SqliteConnectionThreadPool(database, readers, createTableSqls);
     }
 }
@@ -0,0 +1,52 @@
+package com.codenjoy.dojo.services.lock;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Набор локов для отдельных полей (lock striping).
+ * Поле выбирает свой лок по identity hash, а потому разные поля
+ * почти всегда блокируются независимо, а число локов не растет
+ * вместе с количеством полей.
+ */
+public class FieldLocks {
+
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final Lock[] stripes;
+
+    public FieldLocks(int count) {
+        stripes = new Lock[Math.max(1, count)];
+        for (int index = 0; index < stripes.length; index++) {
+            stripes[index] = new ReentrantLock();
+        }
+    }
+
+    public Lock get(Object field) {
+        int hash = System.identityHashCode(field);
+        hash ^= (hash >>> 16);
+        return stripes[(hash & Integer.MAX_VALUE) % stripes.length];
+    }
+}
@@ -31,18 +31,49 @@ import com.codenjoy.dojo.services.multiplayer.GamePlayer;
 import com.codenjoy.dojo.services.multiplayer.LevelProgress;
 import org.json.JSONObject;
 
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 
 public class LockedGame implements Game {
 
     private final LockedJoystick joystick;
     private ReadWriteLock lock;
+    private FieldLocks fields;
 
     private Game game;
 
     public LockedGame(ReadWriteLock lock) {
+        this(lock, new FieldLocks(1));
+    }
+
+    /**
+     * @param lock общий лок - write берется только на изменение
+     *             состава игр и полей (newGame, loadSave, on, close...)
+     * @param fields локи полей - все остальное, что касается только
+     *               этой игры, берет read на общем и лок своего поля,
+     *               а потому разные поля друг другу не мешают
+     */
+    public LockedGame(ReadWriteLock lock, FieldLocks fields) {
         this.lock = lock;
-        this.joystick = new LockedJoystick(lock);
+        this.fields = fields;
+        this.joystick = new LockedJoystick(this);
+    }
+
+    Lock lockField() {
+        lock.readLock().lock();
+        try {
+            Lock field = fields.get(game.getField());
+            field.lock();
+            return field;
+        } catch (RuntimeException e) {
+            lock.readLock().unlock();
+            throw e;
+        }
+    }
+
+    void unlock(Lock field) {
+        field.unlock();
+        lock.readLock().unlock();
     }
 
     public Game wrap(Game game) {
@@ -57,31 +88,31 @@ public class LockedGame implements Game {
 
     @Override
     public boolean isGameOver() {
-        lock.writeLock().lock();
+        Lock field = lockField();
         try {
             return game.isGameOver();
         } finally {
-            lock.writeLock().unlock();
+            unlock(field);
         }
     }
 
     @Override
     public boolean isWin() {
-        lock.writeLock().lock();
+        Lock field = lockField();
         try {
             return game.isWin();
         } finally {
-            lock.writeLock().unlock();
+            unlock(field);
         }
     }
 
     @Override
     public boolean shouldLeave() {
-        lock.writeLock().lock();
+        Lock field = lockField();
         try {
             return game.shouldLeave();
         } finally {
-            lock.writeLock().unlock();
+            unlock(field);
         }
     }
 
@@ -107,11 +138,31 @@ public class LockedGame implements Game {
 
     @Override
     public Object getBoardAsString() {
-        lock.writeLock().lock();
+        Lock field = lockField();
         try {
             return game.getBoardAsString();
         } finally {
-            lock.writeLock().unlock();
+            unlock(field);
+        }
+    }
+
+    @Override
+    public Object getSharedBoard() {
+        Lock field = lockField();
+        try {
+            return game.getSharedBoard();
+        } finally {
+            unlock(field);
+        }
+    }
+
+    @Override
+    public Object getBoardAsString(Object shared) {
+        Lock field = lockField();
+        try {
+            return game.getBoardAsString(shared);
+        } finally {
+            unlock(field);
         }
     }
 
@@ -127,51 +178,51 @@ public class LockedGame implements Game {
 
     @Override
     public void clearScore() {
-        lock.writeLock().lock();
+        Lock field = lockField();
         try {
             game.clearScore();
         } finally {
-            lock.writeLock().unlock();
+            unlock(field);
         }
     }
 
     @Override
     public HeroData getHero() {
-        lock.writeLock().lock();
+        Lock field = lockField();
         try {
             return game.getHero();
         } finally {
-            lock.writeLock().unlock();
+            unlock(field);
         }
     }
 
     @Override
     public JSONObject getSave() {
-        lock.writeLock().lock();
+        Lock field = lockField();
         try {
             return game.getSave();
         } finally {
-            lock.writeLock().unlock();
+            unlock(field);
         }
     }
 
     @Override
     public GamePlayer getPlayer() {
-        lock.writeLock().lock();
+        lock.readLock().lock();
         try {
             return game.getPlayer();
         } finally {
-            lock.writeLock().unlock();
+            lock.readLock().unlock();
         }
     }
 
     @Override
     public GameField getField() {
-        lock.writeLock().lock();
+        lock.readLock().lock();
         try {
             return game.getField();
         } finally {
-            lock.writeLock().unlock();
+            lock.readLock().unlock();
         }
     }
 
@@ -197,21 +248,21 @@ public class LockedGame implements Game {
 
     @Override
     public LevelProgress getProgress() {
-        lock.writeLock().lock();
+        Lock field = lockField();
         try {
             return game.getProgress();
         } finally {
-            lock.writeLock().unlock();
+            unlock(field);
         }
     }
 
     @Override
     public String toString() {
-        lock.writeLock().lock();
+        Lock field = lockField();
         try {
             return game.toString();
         } finally {
-            lock.writeLock().unlock();
+            unlock(field);
         }
     }
 
@@ -25,15 +25,15 @@ package com.codenjoy.dojo.services.lock;
 
 import com.codenjoy.dojo.services.Joystick;
 
-import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.Lock;
 
 public class LockedJoystick implements Joystick {
 
-    private ReadWriteLock lock;
+    private LockedGame game;
     private Joystick joystick;
 
-    public LockedJoystick(ReadWriteLock lock) {
-        this.lock = lock;
+    public LockedJoystick(LockedGame game) {
+        this.game = game;
     }
 
     public Joystick wrap(Joystick joystick) {
@@ -43,61 +43,61 @@ public class LockedJoystick implements Joystick {
 
     @Override
     public void down() {
-        lock.writeLock().lock();
+        Lock field = game.lockField();
         try {
             joystick.down();
         } finally {
-            lock.writeLock().unlock();
+            game.unlock(field);
         }
     }
 
     @Override
     public void up() {
-        lock.writeLock().lock();
+        Lock field = game.lockField();
         try {
             joystick.up();
         } finally {
-            lock.writeLock().unlock();
+            game.unlock(field);
         }
     }
 
     @Override
     public void left() {
-        lock.writeLock().lock();
+        Lock field = game.lockField();
         try {
             joystick.left();
         } finally {
-            lock.writeLock().unlock();
+            game.unlock(field);
         }
     }
 
     @Override
     public void right() {
-        lock.writeLock().lock();
+        Lock field = game.lockField();
         try {
             joystick.right();
         } finally {
-            lock.writeLock().unlock();
+            game.unlock(field);
         }
     }
 
     @Override
     public void act(int... p) {
-        lock.writeLock().lock();
+        Lock field = game.lockField();
         try {
             joystick.act(p);
         } finally {
-            lock.writeLock().unlock();
+            game.unlock(field);
         }
     }
 
     @Override
     public void message(String command) {
-        lock.writeLock().lock();
+        Lock field = game.lockField();
         try {
             joystick.message(command);
         } finally {
-            lock.writeLock().unlock();
+            game.unlock(field);
         }
     }
 
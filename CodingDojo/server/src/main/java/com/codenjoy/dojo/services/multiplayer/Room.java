@@ -78,6 +78,10 @@ public class Room {
         return field.equals(input);
     }
 
+    GameField field() {
+        return field;
+    }
+
     public List<GamePlayer> players() {
         return players;
     }
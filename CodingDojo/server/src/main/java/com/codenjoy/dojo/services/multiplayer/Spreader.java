@@ -25,16 +25,29 @@ package com.codenjoy.dojo.services.multiplayer;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
 
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 import java.util.function.Supplier;
 
 import static java.util.stream.Collectors.toList;
 
+/**
+ * Помимо общего списка комнат держит identity индексы
+ * поле -> комнаты и игрок -> комнаты, а так же для каждого roomName
+ * упорядоченные по времени создания свободные комнаты - так поиск комнаты
+ * для нового игрока и проверка укомплектованности поля на каждом тике
+ * не зависят от общего количества комнат.
+ */
 public class Spreader {
 
     private Multimap<String, Room> rooms = LinkedHashMultimap.create();
 
+    private Map<Room, Long> order = new IdentityHashMap<>();
+    private Map<Room, String> names = new IdentityHashMap<>();
+    private Map<GamePlayer, List<Room>> byPlayer = new IdentityHashMap<>();
+    private Map<GameField, List<Room>> byField = new IdentityHashMap<>();
+    private Map<String, NavigableSet<Room>> free = new HashMap<>();
+    private long counter;
+
     public GameField fieldFor(GamePlayer player, String roomName,
                               MultiplayerType type,
                               int roomSize, int levelNumber,
@@ -49,26 +62,50 @@ public class Spreader {
             add(roomName, room);
         }
 
-        return room.join(player);
+        return join(room, player);
+    }
+
+    private GameField join(Room room, GamePlayer player) {
+        boolean joined = !room.contains(player);
+        GameField result = room.join(player);
+        if (joined) {
+            insert(byPlayer, player, room);
+        }
+        if (!room.isFree()) {
+            freeRooms(names.get(room)).remove(room);
+        }
+        return result;
     }
 
     private void add(String roomName, Room room) {
         rooms.get(roomName).add(room);
+        order.put(room, counter++);
+        names.put(room, roomName);
+        insert(byField, room.field(), room);
+        if (room.isFree()) {
+            freeRooms(roomName).add(room);
+        }
+    }
+
+    private NavigableSet<Room> freeRooms(String roomName) {
+        return free.computeIfAbsent(roomName,
+                key -> new TreeSet<>(Comparator.comparing(order::get)));
     }
 
     private Room findUnfilled(String roomName) {
-        Collection<Room> rooms = rooms(roomName);
-        if (rooms.isEmpty()) {
+        NavigableSet<Room> rooms = free.get(roomName);
+        if (rooms == null) {
             return null;
         }
-        return rooms.stream()
-                .filter(Room::isFree)
-                .findFirst()
-                .orElse(null);
-    }
-
-    private Collection<Room> rooms(String roomName) {
-        return rooms.get(roomName);
+        // комната могла заполниться в обход спредера - такие просто выкидываем
+        while (!rooms.isEmpty()) {
+            Room room = rooms.first();
+            if (room.isFree()) {
+                return room;
+            }
+            rooms.pollFirst();
+        }
+        return null;
     }
 
     /**
@@ -80,7 +117,7 @@ public class Spreader {
         List<Room> rooms = roomsFor(player);
 
         List<GamePlayer> removed = rooms.stream()
-                .flatMap(room -> room.remove(player).stream())
+                .flatMap(room -> remove(room, player).stream())
                 .collect(toList());
 
         rooms.forEach(this::removeIfEmpty);
@@ -88,30 +125,63 @@ public class Spreader {
         return removed;
     }
 
+    private List<GamePlayer> remove(Room room, GamePlayer player) {
+        List<GamePlayer> removed = room.remove(player);
+
+        delete(byPlayer, player, room);
+        removed.forEach(last -> delete(byPlayer, last, room));
+        if (room.isFree() && names.containsKey(room)) {
+            freeRooms(names.get(room)).add(room);
+        }
+
+        return removed;
+    }
+
     private void removeIfEmpty(Room room) {
         if (!room.isEmpty()) return;
 
-        rooms.entries().stream()
-                .filter(entry -> entry.getValue() == room)
-                .map(entry -> entry.getKey())
-                .distinct()
-                .forEach(key -> rooms.remove(key, room));
+        String roomName = names.remove(room);
+        if (roomName == null) return;
+
+        rooms.remove(roomName, room);
+        delete(byField, room.field(), room);
+        NavigableSet<Room> rooms = free.get(roomName);
+        if (rooms != null) {
+            rooms.remove(room);
+            if (rooms.isEmpty()) {
+                free.remove(roomName);
+            }
+        }
+        order.remove(room);
+    }
+
+    private <K> void insert(Map<K, List<Room>> map, K key, Room room) {
+        List<Room> list = map.computeIfAbsent(key, k -> new ArrayList<>(1));
+        list.add(room);
+        if (list.size() > 1) {
+            list.sort(Comparator.comparing(order::get));
+        }
+    }
+
+    private <K> void delete(Map<K, List<Room>> map, K key, Room room) {
+        List<Room> list = map.get(key);
+        if (list == null) return;
+        list.remove(room);
+        if (list.isEmpty()) {
+            map.remove(key);
+        }
     }
 
     private List<Room> roomsFor(GamePlayer player) {
-        return rooms.values().stream()
-                    .filter(room -> room.contains(player))
-                    .collect(toList());
+        return new ArrayList<>(byPlayer.getOrDefault(player, Collections.emptyList()));
     }
 
     private List<Room> roomsFor(GameField field) {
-        return rooms.values().stream()
-                .filter(room -> room.isFor(field))
-                .collect(toList());
+        return byField.getOrDefault(field, Collections.emptyList());
     }
 
     public boolean contains(GamePlayer player) {
-        return !roomsFor(player).isEmpty();
+        return byPlayer.containsKey(player);
     }
 
     public boolean isRoomStaffed(GameField field) {
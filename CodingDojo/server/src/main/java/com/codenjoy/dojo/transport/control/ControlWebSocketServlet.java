@@ -25,6 +25,7 @@ package com.codenjoy.dojo.transport.control;
 
 import com.codenjoy.dojo.services.TimerService;
 import com.codenjoy.dojo.transport.auth.AuthenticationService;
+import com.codenjoy.dojo.transport.ws.Compression;
 import com.codenjoy.dojo.transport.ws.PlayerSocket;
 import com.codenjoy.dojo.transport.ws.PlayerSocketCreator;
 import com.codenjoy.dojo.transport.ws.PlayerTransport;
@@ -39,6 +40,7 @@ public class ControlWebSocketServlet extends WebSocketServlet {
     private TimerService timer;
     private PlayerTransport transport;
     private AuthenticationService authentication;
+    private Compression compression;
 
     @Override
     public void configure(WebSocketServletFactory webSocketServletFactory) {
@@ -48,6 +50,7 @@ public class ControlWebSocketServlet extends WebSocketServlet {
                         PlayerSocket.SERVER_SEND_FIRST);
 
         webSocketServletFactory.setCreator(creator);
+        compression.apply(webSocketServletFactory);
 
         timer.resume();
     }
@@ -24,6 +24,7 @@ package com.codenjoy.dojo.transport.screen.ws;
 
 
 import com.codenjoy.dojo.transport.auth.AuthenticationService;
+import com.codenjoy.dojo.transport.ws.Compression;
 import com.codenjoy.dojo.transport.ws.PlayerSocket;
 import com.codenjoy.dojo.transport.ws.PlayerSocketCreator;
 import com.codenjoy.dojo.transport.ws.PlayerTransport;
@@ -37,6 +38,7 @@ public class ScreenWebSocketServlet extends WebSocketServlet{
 
     private PlayerTransport transport;
     private AuthenticationService authentication;
+    private Compression compression;
 
     @Override
     public void configure(WebSocketServletFactory webSocketServletFactory) {
@@ -46,5 +48,6 @@ public class ScreenWebSocketServlet extends WebSocketServlet{
                         PlayerSocket.CLIENT_SEND_FIRST);
 
         webSocketServletFactory.setCreator(creator);
+        compression.apply(webSocketServletFactory);
     }
 }
@@ -0,0 +1,122 @@
+package com.codenjoy.dojo.transport.ws;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+
+import java.nio.ByteBuffer;
+import java.util.Deque;
+import java.util.LinkedList;
+
+/**
+ * Исходящая очередь одного сокета для неблокирующей отправки.
+ * В jetty одновременно может быть только одна незавершенная async запись,
+ * потому следующий фрейм уходит только из callback предыдущего.
+ * Пока клиент не успевает принимать, в очереди держится не более capacity
+ * последних фреймов - старые выбрасываются, ведь экран уже устарел.
+ */
+@Slf4j
+public class AsyncSender {
+
+    private final int capacity;
+    private final SendMetrics metrics;
+    private final Deque<Object> queue = new LinkedList<>();
+    private RemoteEndpoint remote;
+    private boolean sending;
+
+    public AsyncSender(int capacity, SendMetrics metrics) {
+        this.capacity = Math.max(1, capacity);
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param message String для текстового фрейма или ByteBuffer для бинарного
+     */
+    public void send(RemoteEndpoint remote, Object message) {
+        synchronized (this) {
+            this.remote = remote;
+            if (queue.size() >= capacity) {
+                queue.pollFirst();
+                metrics.dropped();
+            } else {
+                metrics.enqueued();
+            }
+            queue.addLast(message);
+            if (sending) {
+                return;
+            }
+            sending = true;
+        }
+        next();
+    }
+
+    private void next() {
+        Object message;
+        RemoteEndpoint remote;
+        synchronized (this) {
+            message = queue.pollFirst();
+            if (message == null) {
+                sending = false;
+                return;
+            }
+            metrics.dequeued();
+            remote = this.remote;
+        }
+        write(remote, message);
+    }
+
+    private void write(RemoteEndpoint remote, Object message) {
+        long start = System.nanoTime();
+        try {
+            WriteCallback callback = new WriteCallback() {
+                @Override
+                public void writeFailed(Throwable error) {
+                    metrics.failed();
+                    log.debug("Async send failed: {}", error.toString());
+                    next();
+                }
+
+                @Override
+                public void writeSuccess() {
+                    metrics.sent(System.nanoTime() - start);
+                    next();
+                }
+            };
+            if (message instanceof ByteBuffer) {
+                remote.sendBytes((ByteBuffer) message, callback);
+            } else {
+                remote.sendString((String) message, callback);
+            }
+        } catch (Exception e) {
+            metrics.failed();
+            log.debug("Async send failed: {}", e.toString());
+            next();
+        }
+    }
+
+    public synchronized int getQueueSize() {
+        return queue.size();
+    }
+}
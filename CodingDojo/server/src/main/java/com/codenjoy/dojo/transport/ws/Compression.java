@@ -0,0 +1,68 @@
+package com.codenjoy.dojo.transport.ws;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.eclipse.jetty.util.component.ContainerLifeCycle;
+import org.eclipse.jetty.websocket.api.extensions.ExtensionFactory;
+import org.eclipse.jetty.websocket.servlet.WebSocketServletFactory;
+
+import java.util.Arrays;
+
+/**
+ * Настройки сжатия вебсокетов (transport.compression в application.yml).
+ * Jetty по умолчанию сжимает все, что попросит клиент, с уровнем
+ * по умолчанию - тут это можно выключить или подобрать уровень
+ * под соотношение трафик/CPU на тик.
+ */
+@Getter
+@AllArgsConstructor
+public class Compression {
+
+    /**
+     * Устаревшие deflate расширения, которые jetty тоже регистрирует по умолчанию.
+     */
+    private static final String[] LEGACY = {"deflate-frame", "x-webkit-deflate-frame"};
+
+    private boolean enabled;
+    private int level;
+    private boolean contextTakeover;
+
+    public void apply(WebSocketServletFactory factory) {
+        ExtensionFactory extensions = factory.getExtensionFactory();
+        if (!enabled) {
+            extensions.unregister(DeflateExtension.NAME);
+            Arrays.stream(LEGACY).forEach(extensions::unregister);
+            return;
+        }
+
+        // у каждого сервлета своя фабрика - расширения, что она создаст,
+        // возьмут настройки у нее (см. DeflateExtension#init)
+        if (factory instanceof ContainerLifeCycle) {
+            ((ContainerLifeCycle) factory).addBean(this);
+        }
+        extensions.register(DeflateExtension.NAME, DeflateExtension.class);
+    }
+}
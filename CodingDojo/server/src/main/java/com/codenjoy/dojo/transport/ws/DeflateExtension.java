@@ -0,0 +1,81 @@
+package com.codenjoy.dojo.transport.ws;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import org.eclipse.jetty.util.component.ContainerLifeCycle;
+import org.eclipse.jetty.websocket.api.extensions.ExtensionConfig;
+import org.eclipse.jetty.websocket.common.extensions.compress.PerMessageDeflateExtension;
+import org.eclipse.jetty.websocket.common.scopes.WebSocketContainerScope;
+
+import java.util.zip.Deflater;
+
+/**
+ * permessage-deflate с настраиваемым уровнем сжатия и переносом
+ * контекста (словаря) между сообщениями. Jetty создает расширения
+ * рефлексией на каждое соединение, потому настройки расширение берет
+ * у фабрики, которая его создала - их туда кладет {@link Compression}.
+ */
+public class DeflateExtension extends PerMessageDeflateExtension {
+
+    public static final String NAME = "permessage-deflate";
+
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+
+    private int level = Deflater.DEFAULT_COMPRESSION;
+    private boolean contextTakeover = true;
+
+    /**
+     * Фабрика расширений jetty 9.4 зовет этот метод (хоть он и deprecated)
+     * перед {@link #setConfig}, container - фабрика сервлета.
+     */
+    @Override
+    public void init(WebSocketContainerScope container) {
+        super.init(container);
+        Compression compression = (container instanceof ContainerLifeCycle)
+                ? ((ContainerLifeCycle) container).getBean(Compression.class)
+                : null;
+        if (compression != null) {
+            level = compression.getLevel();
+            contextTakeover = compression.isContextTakeover();
+        }
+    }
+
+    @Override
+    public Deflater getDeflater() {
+        Deflater deflater = super.getDeflater();
+        deflater.setLevel(level);
+        return deflater;
+    }
+
+    @Override
+    public void setConfig(ExtensionConfig config) {
+        if (!contextTakeover) {
+            // сервер вправе отказаться от словаря между сообщениями сам,
+            // это экономит память на соединение ценой степени сжатия
+            config = new ExtensionConfig(config);
+            config.setParameter(SERVER_NO_CONTEXT_TAKEOVER);
+        }
+        super.setConfig(config);
+    }
+}
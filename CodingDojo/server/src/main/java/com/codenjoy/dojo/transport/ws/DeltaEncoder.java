@@ -0,0 +1,75 @@
+package com.codenjoy.dojo.transport.ws;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import com.codenjoy.dojo.client.BoardDelta;
+
+/**
+ * Разностное кодирование досок одного сокета (см. {@link BoardDelta}).
+ * Включается клиентом параметром delta=N в url вебсокета:
+ * полная доска уходит раз в N фреймов, между ними - только изменения.
+ * Сообщения, которые не являются доской, проходят как есть.
+ */
+public class DeltaEncoder {
+
+    public static final String PARAMETER = "delta";
+
+    private final int keyframe;
+    private final SendMetrics metrics;
+    private String last;
+    private int count;
+
+    public DeltaEncoder(int keyframe, SendMetrics metrics) {
+        this.keyframe = keyframe;
+        this.metrics = metrics;
+    }
+
+    public synchronized String encode(String message) {
+        if (!message.startsWith(BoardDelta.BOARD)) {
+            return message;
+        }
+
+        String board = message.substring(BoardDelta.BOARD.length());
+        String delta = (count < keyframe) ? BoardDelta.diff(last, board) : null;
+        last = board;
+
+        if (delta == null || delta.length() >= board.length()) {
+            count = 1;
+            metrics.encoded(message.length(), message.length(), true);
+            return message;
+        }
+
+        count++;
+        String result = BoardDelta.DELTA + delta;
+        metrics.encoded(message.length(), result.length(), false);
+        return result;
+    }
+
+    /**
+     * Клиент мог не получить какой-то фрейм - следующий будет полным.
+     */
+    public synchronized void reset() {
+        last = null;
+    }
+}
@@ -23,10 +23,12 @@ package com.codenjoy.dojo.transport.ws;
  */
 
 
+import com.codenjoy.dojo.client.BoardBinary;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.*;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 @WebSocket
 public class PlayerSocket {
@@ -39,6 +41,10 @@ public class PlayerSocket {
     private String id;
     private boolean requested;
     private Runnable onClose;
+    private AsyncSender sender;
+    private int delta;
+    private boolean binary;
+    private DeltaEncoder encoder;
 
     public PlayerSocket(String id, boolean requested) {
         this.id = id;
@@ -83,11 +89,77 @@ public class PlayerSocket {
         if (!requested) {
             requested = true;
             if (session.isOpen()) {
+                if (sender != null) {
+                    sendAsync(message);
+                } else {
+                    sendBlocking(message);
+                }
+            }
+        }
+    }
+
+    private void sendAsync(String message) {
+        ByteBuffer bytes = binary ? BoardBinary.encode(message) : null;
+        sender.send(session.getRemote(), (bytes != null) ? bytes : message);
+    }
+
+    private void sendBlocking(String message) throws IOException {
+        if (encoder != null) {
+            message = encoder.encode(message);
+        }
+        ByteBuffer bytes = binary ? BoardBinary.encode(message) : null;
+        try {
+            if (bytes != null) {
+                session.getRemote().sendBytes(bytes);
+            } else {
                 session.getRemote().sendString(message);
             }
+        } catch (IOException | RuntimeException e) {
+            // клиент мог не получить фрейм, от которого
+            // encoder считает разницу - следующим шлем полную доску
+            if (encoder != null) {
+                encoder.reset();
+            }
+            throw e;
         }
     }
 
+    /**
+     * @param delta если больше 0 - доски уходят клиенту разностными
+     *              фреймами с полной доской раз в delta фреймов.
+     *              Только при блокирующей отправке (control сокеты):
+     *              в async режиме фреймы выбрасываются из очереди,
+     *              а разностный фрейм выбрасывать нельзя
+     */
+    public void delta(int delta) {
+        this.delta = delta;
+    }
+
+    /**
+     * @param binary если true - сообщения уходят бинарными фреймами
+     *               (см. {@link BoardBinary}), если их можно так закодировать
+     */
+    public void binary(boolean binary) {
+        this.binary = binary;
+    }
+
+    /**
+     * Вызывается при регистрации сокета, когда известны метрики endpoint.
+     */
+    void metrics(SendMetrics metrics) {
+        if (delta > 0 && sender == null) {
+            encoder = new DeltaEncoder(delta, metrics);
+        }
+    }
+
+    /**
+     * Переводит сокет в неблокирующий режим отправки,
+     * где медленный клиент не задерживает остальных.
+     */
+    public void async(int queueSize, SendMetrics metrics) {
+        this.sender = new AsyncSender(queueSize, metrics);
+    }
+
     public void setHandler(ResponseHandler handler) {
         this.handler = handler;
     }
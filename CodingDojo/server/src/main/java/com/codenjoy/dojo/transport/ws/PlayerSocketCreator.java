@@ -41,6 +41,7 @@ import static java.util.stream.Collectors.toList;
 @AllArgsConstructor
 public class PlayerSocketCreator implements WebSocketCreator {
 
+    public static final String BINARY = "binary";
     public static final String UNAUTHORIZED_ACCESS = "Unauthorized access. Please register user and/or write valid EMAIL/CODE in the client.";
     private PlayerTransport transport;
     private AuthenticationService authenticationService;
@@ -51,6 +52,8 @@ public class PlayerSocketCreator implements WebSocketCreator {
         HttpServletRequest request = servletRequest.getHttpServletRequest();
         String authId = authenticationService.authenticate(request);
         PlayerSocket socket = new PlayerSocket(authId, waitForClient);
+        socket.delta(getDelta(request));
+        socket.binary(Boolean.parseBoolean(request.getParameter(BINARY)));
         if (authId == null) {
             log.warn("Unauthorized access [{}] from {}", getParameters(request), request.getRemoteAddr());
             try {
@@ -65,6 +68,16 @@ public class PlayerSocketCreator implements WebSocketCreator {
         return socket;
     }
 
+    private int getDelta(HttpServletRequest request) {
+        String delta = request.getParameter(DeltaEncoder.PARAMETER);
+        try {
+            return (delta == null) ? 0 : Integer.parseInt(delta);
+        } catch (NumberFormatException e) {
+            log.warn("Bad {} parameter: {}", DeltaEncoder.PARAMETER, delta);
+            return 0;
+        }
+    }
+
     private String getParameters(HttpServletRequest request) {
         try {
             Map<String, String[]> parameters = request.getParameterMap();
@@ -23,6 +23,7 @@ package com.codenjoy.dojo.transport.ws;
  */
 
 
+import java.util.Map;
 import java.util.function.Function;
 
 public interface PlayerTransport {
@@ -70,4 +71,10 @@ public interface PlayerTransport {
     void setFilterFor(PlayerSocket socket, Function<Object, Object> filter);
 
     void setDefaultFilter(Function<Object, Object> filter);
+
+    /**
+     * @return метрики отправки (глубина очередей, drops, latency,
+     *         экономия разностного протокола) по каждому endpoint
+     */
+    Map<String, SendMetrics> getMetrics();
 }
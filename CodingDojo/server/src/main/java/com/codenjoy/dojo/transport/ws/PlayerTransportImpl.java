@@ -37,6 +37,25 @@ public class PlayerTransportImpl implements PlayerTransport {
     private Map<String, SocketsHandlerPair> endpoints = new LinkedHashMap<>();
     private Map<PlayerSocket, Function<Object, Object>> filters = new HashMap<>();
     private Function<Object, Object> defaultFilter;
+    private int asyncQueueSize;
+
+    public PlayerTransportImpl() {
+        this(0);
+    }
+
+    /**
+     * @param asyncQueueSize если больше 0 - сообщения отправляются в сокеты
+     *                       неблокирующе через очередь такого размера на каждый сокет
+     *                       (устаревшие фреймы медленных клиентов выбрасываются),
+     *                       иначе - блокирующая отправка прямо в потоке тика.
+     */
+    public PlayerTransportImpl(int asyncQueueSize) {
+        this.asyncQueueSize = asyncQueueSize;
+    }
+
+    public boolean isAsync() {
+        return asyncQueueSize > 0;
+    }
 
     @Override
     public void sendStateToAll(Object state) {
@@ -62,6 +81,9 @@ public class PlayerTransportImpl implements PlayerTransport {
                         messages.toString());
             }
             log.debug("tick().sendScreenUpdates().sendStateToAll() {} endpoints", requested);
+            if (isAsync() && log.isDebugEnabled()) {
+                log.debug("Async send metrics: {}", getMetrics());
+            }
         } finally {
             lock.readLock().unlock();
         }
@@ -138,6 +160,10 @@ public class PlayerTransportImpl implements PlayerTransport {
             if (pair == null) {
                 pair = new SocketsHandlerPair(id, this::getFilter);
             }
+            if (isAsync()) {
+                socket.async(asyncQueueSize, pair.getMetrics());
+            }
+            socket.metrics(pair.getMetrics());
             pair.addSocket(socket);
             endpoints.put(id, pair);
         } finally {
@@ -145,6 +171,20 @@ public class PlayerTransportImpl implements PlayerTransport {
         }
     }
 
+    @Override
+    public Map<String, SendMetrics> getMetrics() {
+        lock.readLock().lock();
+        try {
+            Map<String, SendMetrics> result = new LinkedHashMap<>();
+            for (SocketsHandlerPair pair : endpoints.values()) {
+                result.put(pair.getId(), pair.getMetrics());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     private Function<Object, Object> getFilter(PlayerSocket socket) {
         if (defaultFilter != null) {
             return defaultFilter;
@@ -0,0 +1,154 @@
+package com.codenjoy.dojo.transport.ws;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Метрики асинхронной отправки сообщений во все сокеты одного endpoint.
+ * Глубина очереди - суммарное количество ожидающих отправки фреймов,
+ * drops - сколько устаревших фреймов было выброшено из-за медленного клиента,
+ * latency - время от вызова async send в jetty до подтверждения записи.
+ * Для клиентов с разностным протоколом (см. {@link DeltaEncoder}) еще
+ * считается количество полных/разностных фреймов и сколько байт
+ * досок ушло на самом деле против полного размера.
+ */
+public class SendMetrics {
+
+    private AtomicInteger queueDepth = new AtomicInteger();
+    private AtomicInteger maxQueueDepth = new AtomicInteger();
+    private AtomicLong sent = new AtomicLong();
+    private AtomicLong dropped = new AtomicLong();
+    private AtomicLong failed = new AtomicLong();
+    private AtomicLong totalLatency = new AtomicLong();
+    private AtomicLong maxLatency = new AtomicLong();
+    private AtomicLong keyframes = new AtomicLong();
+    private AtomicLong deltas = new AtomicLong();
+    private AtomicLong rawBytes = new AtomicLong();
+    private AtomicLong encodedBytes = new AtomicLong();
+
+    void enqueued() {
+        int depth = queueDepth.incrementAndGet();
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    void dequeued() {
+        queueDepth.decrementAndGet();
+    }
+
+    void dropped() {
+        dropped.incrementAndGet();
+    }
+
+    void sent(long latencyNanos) {
+        sent.incrementAndGet();
+        totalLatency.addAndGet(latencyNanos);
+        maxLatency.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    void failed() {
+        failed.incrementAndGet();
+    }
+
+    void encoded(int raw, int encoded, boolean keyframe) {
+        (keyframe ? keyframes : deltas).incrementAndGet();
+        rawBytes.addAndGet(raw);
+        encodedBytes.addAndGet(encoded);
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getAverageLatencyMs() {
+        long count = sent.get();
+        if (count == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(totalLatency.get() / count);
+    }
+
+    public long getMaxLatencyMs() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatency.get());
+    }
+
+    public long getKeyframes() {
+        return keyframes.get();
+    }
+
+    public long getDeltas() {
+        return deltas.get();
+    }
+
+    public long getRawBytes() {
+        return rawBytes.get();
+    }
+
+    public long getEncodedBytes() {
+        return encodedBytes.get();
+    }
+
+    /**
+     * @return сколько байт в среднем сэкономлено на одном фрейме доски
+     */
+    public long getSavedBytesPerFrame() {
+        long frames = keyframes.get() + deltas.get();
+        if (frames == 0) {
+            return 0;
+        }
+        return (rawBytes.get() - encodedBytes.get()) / frames;
+    }
+
+    @Override
+    public String toString() {
+        String result = String.format("[queue:%s/%s, sent:%s, dropped:%s, failed:%s, latency:%s/%sms",
+                getQueueDepth(), getMaxQueueDepth(),
+                getSent(), getDropped(), getFailed(),
+                getAverageLatencyMs(), getMaxLatencyMs());
+        if (getKeyframes() + getDeltas() > 0) {
+            result += String.format(", frames:%s/%s, bytes:%s/%s, saved:%s/frame",
+                    getKeyframes(), getDeltas(),
+                    getEncodedBytes(), getRawBytes(),
+                    getSavedBytesPerFrame());
+        }
+        return result + "]";
+    }
+}
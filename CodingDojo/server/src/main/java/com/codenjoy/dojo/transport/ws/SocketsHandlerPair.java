@@ -37,6 +37,7 @@ public class SocketsHandlerPair {
     private String id;
     private ResponseHandler handler = NullResponseHandler.NULL;
     private List<PlayerSocket> sockets = new LinkedList<>();
+    private SendMetrics metrics = new SendMetrics();
 
     public SocketsHandlerPair(String id, Function<PlayerSocket, Function<Object, Object>> filters) {
         this.id = id;
@@ -87,4 +88,8 @@ public class SocketsHandlerPair {
     public List<PlayerSocket> getSockets() {
         return sockets;
     }
+
+    public SendMetrics getMetrics() {
+        return metrics;
+    }
 }
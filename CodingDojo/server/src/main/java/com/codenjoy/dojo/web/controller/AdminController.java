@@ -434,6 +434,7 @@ public class AdminController {
         model.addAttribute("generateCount", "30");
         model.addAttribute("generateRoomName", gameName);
         model.addAttribute("timerPeriod", timerService.getPeriod());
+        model.addAttribute("tickMetrics", timerService.getMetrics());
 
         MultiplayerType type = gameService.getGame(gameName).getMultiplayerType();
         JSONObject save = new LevelProgress(type).saveTo(new JSONObject());
@@ -24,11 +24,14 @@ package com.codenjoy.dojo.web.rest;
 
 
 import com.codenjoy.dojo.services.*;
+import com.codenjoy.dojo.services.dao.ActionLogger;
 import com.codenjoy.dojo.services.dao.Registration;
 import com.codenjoy.dojo.services.nullobj.NullPlayer;
 import com.codenjoy.dojo.services.security.GameAuthoritiesConstants;
 import com.codenjoy.dojo.services.settings.Parameter;
 import com.codenjoy.dojo.services.settings.Settings;
+import com.codenjoy.dojo.transport.ws.PlayerTransport;
+import com.codenjoy.dojo.transport.ws.SendMetrics;
 import com.codenjoy.dojo.web.controller.Validator;
 import com.codenjoy.dojo.web.rest.pojo.PParameters;
 import com.codenjoy.dojo.web.rest.pojo.PlayerDetailInfo;
@@ -38,6 +41,7 @@ import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -66,6 +70,10 @@ public class RestAdminController {
     private PlayerGames playerGames;
     private SemifinalSettings semifinalSettings;
     private GameService games;
+    private ActionLogger actionLogger;
+    private AIRunner aiRunner;
+    private PlayerTransport controlPlayerTransport; // autowiring by name
+    private PlayerTransport screenPlayerTransport; // autowiring by name
 
     @GetMapping("version")
     @ResponseBody
@@ -82,6 +90,43 @@ public class RestAdminController {
         return ticket.getInfo();
     }
 
+    @GetMapping("/log/metrics")
+    @ResponseBody
+    public Map<String, Object> getLogMetrics() {
+        return actionLogger.getMetrics();
+    }
+
+    @GetMapping("/db/metrics")
+    @ResponseBody
+    public Map<String, Object> getDbMetrics() {
+        return new LinkedHashMap<String, Object>(){{
+            put("log", actionLogger.getDbMetrics());
+            put("users", registration.getDbMetrics());
+            put("usersCache", registration.getCacheMetrics());
+        }};
+    }
+
+    @GetMapping("/tick/metrics")
+    @ResponseBody
+    public Map<String, Object> getTickMetrics() {
+        return timerService.getMetrics();
+    }
+
+    @GetMapping("/ai/metrics")
+    @ResponseBody
+    public Map<String, Object> getAIMetrics() {
+        return aiRunner.getMetrics();
+    }
+
+    @GetMapping("/ws/metrics")
+    @ResponseBody
+    public Map<String, Map<String, SendMetrics>> getWsMetrics() {
+        return new LinkedHashMap<String, Map<String, SendMetrics>>(){{
+            put("control", controlPlayerTransport.getMetrics());
+            put("screen", screenPlayerTransport.getMetrics());
+        }};
+    }
+
     @GetMapping("/errors")
     @ResponseBody
     public Map<String, Map<String, Object>> getTickets(
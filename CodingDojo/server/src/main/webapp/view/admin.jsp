@@ -118,6 +118,17 @@
                 </tr>
             </form:form>
         </tr>
+        <tr>
+            <td>
+                Overruns: ${tickMetrics.overruns}, skipped ticks: ${tickMetrics.skipped},
+                max lag: ${tickMetrics.maxLagMs} ms (${tickMetrics.policy})
+            </td>
+        </tr>
+        <c:forEach items="${tickMetrics.phases}" var="phase">
+            <tr>
+                <td>${phase.key}: ${phase.value}</td>
+            </tr>
+        </c:forEach>
     </table>
 
     <table class="admin-table" id="recordGame">
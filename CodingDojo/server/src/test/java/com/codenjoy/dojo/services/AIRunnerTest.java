@@ -0,0 +1,139 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import com.codenjoy.dojo.client.ClientBoard;
+import com.codenjoy.dojo.client.Closeable;
+import com.codenjoy.dojo.client.Solver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class AIRunnerTest {
+
+    private AIRunner runner;
+    private Joystick joystick;
+    private List<String> boards = new LinkedList<>();
+
+    @Before
+    public void setup() {
+        runner = new AIRunner() {{
+            this.inProcess = true;
+            this.poolSize = 2;
+        }};
+        runner.init();
+        joystick = mock(Joystick.class);
+    }
+
+    @After
+    public void tearDown() {
+        runner.destroy();
+    }
+
+    public static class Board implements ClientBoard {
+
+        private String data;
+
+        @Override
+        public ClientBoard forString(String input) {
+            data = input;
+            return this;
+        }
+    }
+
+    @Test
+    public void shouldPassBoardToSolver_andCommandToJoystick() throws Exception {
+        // given
+        CountDownLatch done = new CountDownLatch(1);
+        Solver<Board> solver = board -> {
+            boards.add(board.data);
+            done.countDown();
+            return "LEFT";
+        };
+        runner.run("bot", solver, new Board());
+
+        // when
+        boolean requested = runner.requestControl("bot", joystick, "board-data");
+
+        // then
+        assertTrue(requested);
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        verify(joystick, timeout(1000)).left();
+        assertEquals("[board-data]", boards.toString());
+    }
+
+    @Test
+    public void shouldNotRequest_whenNoBot() {
+        assertFalse(runner.requestControl("player", joystick, "board-data"));
+    }
+
+    @Test
+    public void shouldNotRequest_afterClose() {
+        // given
+        Closeable bot = runner.run("bot", board -> "ACT", new Board());
+
+        // when
+        bot.close();
+
+        // then
+        assertFalse(runner.requestControl("bot", joystick, "board-data"));
+    }
+
+    @Test
+    public void shouldSkipTick_whenBotIsStillThinking() throws Exception {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Solver<Board> solver = board -> {
+            boards.add(board.data);
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return "UP";
+        };
+        runner.run("bot", solver, new Board());
+
+        // when
+        runner.requestControl("bot", joystick, "tick1");
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        runner.requestControl("bot", joystick, "tick2");
+        release.countDown();
+
+        // then
+        verify(joystick, timeout(1000)).up();
+        assertEquals("[tick1]", boards.toString());
+        assertEquals(1L, runner.getMetrics().get("busy"));
+    }
+}
@@ -0,0 +1,181 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+import com.codenjoy.dojo.profile.Profiler;
+import com.codenjoy.dojo.services.printer.CharElements;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class GuiPlotColorDecoderPerformanceTest {
+
+    private static final int TICKS = 1000;
+
+    private CharElements[] elements = GuiPlotColorDecoderTest.Elements1.values();
+    private Random random = new Random(0);
+
+    /**
+     * Прежняя реализация GuiPlotColorDecoder (regex + линейный поиск
+     * по enum) - для сверки результатов и скорости.
+     */
+    static class Legacy {
+
+        private CharElements[] values;
+
+        Legacy(CharElements[] values) {
+            this.values = values;
+        }
+
+        private char getGuiChar(char ch) {
+            return GuiPlotColorDecoder.GUI.charAt(getIndex(ch));
+        }
+
+        private int getIndex(char ch) {
+            for (int index = 0; index < values.length; index++) {
+                if (values[index].ch() == ch) {
+                    return index;
+                }
+            }
+            throw new IllegalArgumentException("Not enum symbol '" + ch + "'");
+        }
+
+        public String encodeForClient(Object board) {
+            return board.toString().replaceAll("\n", "");
+        }
+
+        public Object encodeForBrowser(Object board) {
+            if (board instanceof String) {
+                return encode((String)board);
+            }
+
+            JSONObject result = (JSONObject)board;
+            JSONArray encoded = new JSONArray();
+            for (Object layer : result.getJSONArray("layers")) {
+                encoded.put(encode((String)layer));
+            }
+            result.put("layers", encoded);
+            return result;
+        }
+
+        private String encode(String board) {
+            char[] chars = board.replaceAll("\n", "").toCharArray();
+            for (int index = 0; index < chars.length; index++) {
+                chars[index] = getGuiChar(chars[index]);
+            }
+            return String.copyValueOf(chars);
+        }
+    }
+
+    @Test
+    public void test() {
+        // bomberman - одна строка 33x33
+        measureBoard("bomberman 33x33", 33);
+
+        // icancode - 3 слоя 20x20
+        measureLayers("icancode 3x20x20", 3, 20);
+
+        // expansion - 5 слоев 20x20
+        measureLayers("expansion 5x20x20", 5, 20);
+    }
+
+    private void measureBoard(String phase, int size) {
+        Legacy legacy = new Legacy(elements);
+        GuiPlotColorDecoder decoder = new GuiPlotColorDecoder(elements);
+
+        String board = board(size);
+
+        // тот же результат, что и раньше
+        assertEquals(legacy.encodeForClient(board), decoder.encodeForClient(board));
+        assertEquals(legacy.encodeForBrowser(board), decoder.encodeForBrowser(board));
+
+        Profiler profiler = new Profiler();
+        profiler.start();
+        for (int tick = 0; tick < TICKS; tick++) {
+            legacy.encodeForClient(board);
+            legacy.encodeForBrowser(board);
+        }
+        profiler.done("legacy " + phase);
+
+        for (int tick = 0; tick < TICKS; tick++) {
+            decoder.encodeForClient(board);
+            decoder.encodeForBrowser(board);
+        }
+        profiler.done("table " + phase);
+        profiler.print();
+    }
+
+    private void measureLayers(String phase, int count, int size) {
+        Legacy legacy = new Legacy(elements);
+        GuiPlotColorDecoder decoder = new GuiPlotColorDecoder(elements);
+
+        String[] layers = new String[count];
+        for (int index = 0; index < count; index++) {
+            layers[index] = board(size);
+        }
+
+        // тот же результат, что и раньше
+        assertEquals(legacy.encodeForClient(layers(layers)),
+                decoder.encodeForClient(layers(layers)));
+        assertEquals(legacy.encodeForBrowser(layers(layers)).toString(),
+                decoder.encodeForBrowser(layers(layers)).toString());
+
+        // legacy перекодирует борду на месте, потому каждый раз новая
+        Profiler profiler = new Profiler();
+        profiler.start();
+        for (int tick = 0; tick < TICKS; tick++) {
+            JSONObject board = layers(layers);
+            legacy.encodeForClient(board);
+            legacy.encodeForBrowser(board);
+        }
+        profiler.done("legacy " + phase);
+
+        for (int tick = 0; tick < TICKS; tick++) {
+            JSONObject board = layers(layers);
+            decoder.encodeForClient(board);
+            decoder.encodeForBrowser(board);
+        }
+        profiler.done("table " + phase);
+        profiler.print();
+    }
+
+    private JSONObject layers(String[] layers) {
+        JSONObject result = new JSONObject();
+        result.put("layers", new JSONArray(layers));
+        return result;
+    }
+
+    private String board(int size) {
+        StringBuilder result = new StringBuilder();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                result.append(elements[random.nextInt(elements.length)].ch());
+            }
+            result.append('\n');
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,213 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import com.codenjoy.dojo.services.multiplayer.GameField;
+import com.codenjoy.dojo.services.multiplayer.GamePlayer;
+import com.codenjoy.dojo.services.printer.BoardReader;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelFieldsTickerTest {
+
+    private static final int SIZE = 10;
+    private static final int TICKS = 500;
+    private static final long SEED = 42;
+
+    private ParallelFieldsTicker ticker;
+
+    /**
+     * Как и в Bomberman, все поля одного GameType
+     * бросают один и тот же Dice из общих настроек.
+     */
+    static class GameSettings {
+
+        private Dice dice = new RandomDice();
+    }
+
+    static class WalkingField implements GameField {
+
+        private GameSettings settings;
+        private int x = SIZE / 2;
+        private int y = SIZE / 2;
+        private List<String> events = new LinkedList<>();
+        private StringBuilder board = new StringBuilder();
+
+        WalkingField(GameSettings settings) {
+            this.settings = settings;
+        }
+
+        @Override
+        public void tick() {
+            Direction direction = Direction.valueOf(settings.dice.next(4));
+            int nx = direction.changeX(x);
+            int ny = direction.changeY(y);
+            if (nx < 0 || ny < 0 || nx >= SIZE || ny >= SIZE) {
+                events.add("WALL");
+            } else {
+                x = nx;
+                y = ny;
+            }
+            if (settings.dice.next(10) == 0) {
+                events.add("GOLD");
+            }
+            board.append(x).append(',').append(y).append(';');
+        }
+
+        @Override
+        public BoardReader reader() {
+            return null;
+        }
+
+        @Override
+        public void newGame(GamePlayer player) {
+            // do nothing
+        }
+
+        @Override
+        public void remove(GamePlayer player) {
+            // do nothing
+        }
+
+        @Override
+        public String toString() {
+            return board + " " + events;
+        }
+    }
+
+    static class Fields {
+
+        List<GameSettings> games = new LinkedList<>();
+        List<GameField> fields = new LinkedList<>();
+
+        Fields(int count) {
+            for (int game = 0; game < count; game++) {
+                games.add(new GameSettings());
+            }
+            // поля разных игр вперемешку, как их отдает PlayerGames
+            for (int index = 0; index < 12; index++) {
+                GameSettings settings = games.get(index % games.size());
+                fields.add(new WalkingField(settings));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return fields.toString();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (ticker != null) {
+            ticker.shutdown();
+        }
+    }
+
+    private String tick(int parallelism, int games) {
+        ticker = new ParallelFieldsTicker(parallelism, SEED);
+        Fields fields = new Fields(games);
+        for (int tick = 0; tick < TICKS; tick++) {
+            ticker.tick(fields.fields);
+        }
+        ticker.shutdown();
+        return fields.toString();
+    }
+
+    @Test
+    public void shouldTickFields_inParallel_sameAsSequential() {
+        // given
+        String sequential = tick(1, 3);
+
+        // when
+        String parallel = tick(4, 3);
+
+        // then
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void shouldTickFields_inParallel_sameAsSequential_severalTimes() {
+        // given
+        String sequential = tick(1, 3);
+
+        // when then
+        for (int count = 0; count < 10; count++) {
+            assertEquals(sequential, tick(8, 3));
+        }
+    }
+
+    @Test
+    public void shouldTickFields_ofOneGameType_inParallel_sameAsSequential() {
+        // given
+        String sequential = tick(1, 1);
+
+        // when then
+        for (int count = 0; count < 10; count++) {
+            assertEquals(sequential, tick(8, 1));
+        }
+    }
+
+    @Test
+    public void shouldTickFields_ofOneGameType_simultaneously() {
+        // given
+        ticker = new ParallelFieldsTicker(2, SEED);
+        GameSettings settings = new GameSettings();
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        List<String> passed = new LinkedList<>();
+
+        // оба поля ждут друг друга - дождутся, только если тикаются одновременно
+        List<GameField> fields = new LinkedList<>();
+        for (int index = 0; index < 2; index++) {
+            fields.add(new WalkingField(settings) {
+                @Override
+                public void tick() {
+                    try {
+                        barrier.await(5, TimeUnit.SECONDS);
+                        synchronized (passed) {
+                            passed.add("passed");
+                        }
+                    } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                        // not passed
+                    }
+                }
+            });
+        }
+
+        // when
+        ticker.tick(fields);
+
+        // then
+        assertEquals("[passed, passed]", passed.toString());
+    }
+}
@@ -436,6 +436,33 @@ public class PlayerGamesTest extends AbstractPlayerGamesTest {
         verifyFieldTicked(2);
     }
 
+    @Test
+    public void shouldTickAllFields_inParallel() {
+        // given
+        playerGames.setTickParallelism(4);
+
+        createPlayer("player1", "room1", "game1", MultiplayerType.MULTIPLE); // field 0
+        createPlayer("player2", "room1", "game1", MultiplayerType.MULTIPLE);
+
+        createPlayer("player3", "room2", "game2", MultiplayerType.SINGLE); // field 1
+        createPlayer("player4", "room2", "game2", MultiplayerType.SINGLE); // field 2
+
+        // field 3 not stuffed
+        createPlayer("player5", "room3", "game3", MultiplayerType.TRIPLE);
+
+        resetAllFields();
+
+        // when
+        playerGames.tick();
+
+        // then
+        assertEquals(4, fields.size());
+        verifyFieldTicked(0);
+        verifyFieldTicked(1);
+        verifyFieldTicked(2);
+        verifyFieldTicked(3, NEVER);
+    }
+
     private void verifyFieldTicked(int index) {
         verifyFieldTicked(index, ONCE);
     }
@@ -1461,6 +1488,46 @@ public class PlayerGamesTest extends AbstractPlayerGamesTest {
         assertEquals("[room1, room2, room3]", playerGames.getRooms(ALL).toString());
     }
 
+    @Test
+    public void testIndexes_keepConsistent_afterChangeRoomChangeIdAndRemove() {
+        // given
+        MultiplayerType type = MultiplayerType.SINGLE;
+        Player player1 = createPlayer("player1", "room1", "game1", type);
+        Player player2 = createPlayer("player2", "room2", "game2", type);
+        Player player3 = createPlayer("player3", "room1", "game1", type);
+        Player player4 = createPlayer("player4", "room3", "game1", type);
+
+        // when
+        playerGames.changeRoom("player1", "room3");
+
+        // then
+        // порядок комнат как при проходе по списку игроков
+        assertEquals("[room3, room2, room1]", playerGames.getRooms(ALL).toString());
+        assertEquals("[player1, player3, player4]",
+                playerGames.getPlayers("game1").toString());
+
+        // when
+        playerGames.changeId(playerGames.get("player3"), "newPlayer3");
+
+        // then
+        assertSame(NullPlayerGame.INSTANCE, playerGames.get("player3"));
+        assertSame(player3, playerGames.get("newPlayer3").getPlayer());
+        assertEquals("[player1, newPlayer3, player4]",
+                playerGames.getPlayers("game1").toString());
+
+        // when
+        playerGames.remove(player1);
+
+        // then
+        assertSame(NullPlayerGame.INSTANCE, playerGames.get("player1"));
+        assertEquals("[room2, room1, room3]", playerGames.getRooms(ALL).toString());
+        assertEquals("[newPlayer3, player4]",
+                playerGames.getPlayers("game1").toString());
+        assertSame(player2, playerGames.get(gamePlayers.get(1)).getPlayer());
+        assertSame(player4, playerGames.get(gamePlayers.get(3)).getPlayer());
+        assertEquals(3, playerGames.getGameTypes().size());
+    }
+
     private void assertPlayers(String expected, List<PlayerGame> list) {
         assertEquals(expected,
                 list.stream()
@@ -0,0 +1,89 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+import com.codenjoy.dojo.profile.Profiler;
+import com.codenjoy.dojo.services.hero.HeroData;
+import com.codenjoy.dojo.services.multiplayer.GameField;
+import com.codenjoy.dojo.services.multiplayer.MultiplayerType;
+import com.codenjoy.dojo.services.settings.SimpleParameter;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PlayerGamesViewPerformanceTest {
+
+    private static final int GROUP_SIZE = 4;
+
+    @Test
+    public void test() {
+        Profiler profiler = new Profiler();
+
+        // время построения должно расти линейно от количества игроков
+        for (int players : new int[]{250, 500, 1000, 2000}) {
+            PlayerGamesView view = buildView(players);
+
+            profiler.start();
+            for (int tick = 0; tick < 10; tick++) {
+                Map<String, GameData> data = view.getGamesDataMap();
+                assertEquals(players, data.size());
+            }
+            profiler.done("getGamesDataMap() for " + players + " players");
+        }
+
+        profiler.print();
+    }
+
+    private PlayerGamesView buildView(int count) {
+        PlayerGames playerGames = new PlayerGames();
+        playerGames.roomService = mock(RoomService.class);
+
+        PlayerGamesView result = new PlayerGamesView();
+        result.service = playerGames;
+
+        GameType gameType = mock(GameType.class);
+        when(gameType.name()).thenReturn("game");
+        when(gameType.getBoardSize()).thenReturn(new SimpleParameter<>(20));
+
+        for (int index = 0; index < count; index++) {
+            PlayerScores scores = mock(PlayerScores.class);
+            when(scores.getScore()).thenReturn(index);
+
+            Player player = new Player("player" + index, "url", gameType, scores, null);
+            player.setEventListener(mock(InformationCollector.class));
+
+            TestUtils.Env env = TestUtils.getPlayerGame(playerGames, player,
+                    "room" + (index / GROUP_SIZE),
+                    inv -> mock(GameField.class),
+                    MultiplayerType.MULTIPLE,
+                    null,
+                    parameters -> "board");
+            when(env.gamePlayer.getHeroData()).thenReturn(mock(HeroData.class));
+        }
+
+        return result;
+    }
+}
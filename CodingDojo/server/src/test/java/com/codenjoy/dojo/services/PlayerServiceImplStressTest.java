@@ -0,0 +1,235 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import com.codenjoy.dojo.CodenjoyContestApplication;
+import com.codenjoy.dojo.config.meta.SQLiteProfile;
+import com.codenjoy.dojo.services.controller.PlayerController;
+import com.codenjoy.dojo.services.controller.ScreenController;
+import com.codenjoy.dojo.services.dao.ActionLogger;
+import com.codenjoy.dojo.services.dao.Registration;
+import com.codenjoy.dojo.services.hero.HeroDataImpl;
+import com.codenjoy.dojo.services.multiplayer.GameField;
+import com.codenjoy.dojo.services.multiplayer.GamePlayer;
+import com.codenjoy.dojo.services.multiplayer.MultiplayerType;
+import com.codenjoy.dojo.services.printer.BoardReader;
+import com.codenjoy.dojo.services.printer.PrinterFactory;
+import com.codenjoy.dojo.transport.screen.ScreenSender;
+import lombok.SneakyThrows;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.codenjoy.dojo.services.PointImpl.pt;
+import static com.codenjoy.dojo.services.settings.SimpleParameter.v;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Настоящий {@link PlayerServiceImpl#tick()} вперемешку с вызовами,
+ * которые делают REST контроллеры и вебсокет джойстиков. Рассылка экранов
+ * (медленное IO по сокетам) идет под read lock, потому REST не должен
+ * ждать ее окончания.
+ */
+@SpringBootTest(classes = CodenjoyContestApplication.class)
+@RunWith(SpringRunner.class)
+@ActiveProfiles(SQLiteProfile.NAME)
+public class PlayerServiceImplStressTest {
+
+    private static final int PLAYERS = 40;
+    private static final int TICKS = 30;
+    private static final int SEND_MS = 20;
+    private static final int REST_THREADS = 4;
+    private static final int JOYSTICK_THREADS = 2;
+    private static final long PAUSE_NS = 100_000;
+
+    @MockBean
+    private ScreenSender screenSender;
+
+    @MockBean
+    private PlayerController playerController;
+
+    @MockBean
+    private ScreenController screenController;
+
+    @MockBean
+    private AutoSaver autoSaver;
+
+    @MockBean
+    private SaveService saveService;
+
+    @MockBean
+    private Registration registration;
+
+    @MockBean
+    private GameService gameService;
+
+    @MockBean
+    private Semifinal semifinal;
+
+    @MockBean
+    private ActionLogger actionLogger;
+
+    @SpyBean
+    private PlayerGames playerGames;
+
+    @MockBean
+    protected RoomService roomService;
+
+    @SpyBean
+    private PlayerGamesView playerGamesView;
+
+    @Autowired
+    private PlayerServiceImpl playerService;
+
+    private List<String> ids = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        reset(actionLogger, autoSaver, gameService, playerController, screenController, playerGames);
+        playerGames.clean();
+        playerGames.clear();
+
+        GameType gameType = gameType();
+        when(gameService.getGame(anyString())).thenReturn(gameType);
+        when(roomService.isActive(anyString())).thenReturn(true);
+
+        // рассылка экранов - медленное IO по сокетам
+        doAnswer(inv -> {
+            Thread.sleep(SEND_MS);
+            return null;
+        }).when(screenController).requestControlToAll(any());
+
+        playerService.openRegistration();
+        playerService.init();
+
+        for (int index = 0; index < PLAYERS; index++) {
+            String id = "player" + index;
+            playerService.register(id, "http://" + id + ":1234", "room", "game");
+            ids.add(id);
+        }
+    }
+
+    private GameType gameType() {
+        GameType gameType = mock(GameType.class);
+
+        GraphicPrinter printer = mock(GraphicPrinter.class);
+        when(printer.print(any(), any())).thenReturn("1234");
+
+        when(gameType.getBoardSize()).thenReturn(v(15));
+        when(gameType.getPlayerScores(anyInt())).thenAnswer(inv -> mock(PlayerScores.class));
+        when(gameType.createGame(anyInt())).thenAnswer(inv -> {
+            GameField field = mock(GameField.class);
+            when(field.reader()).thenReturn(mock(BoardReader.class));
+            return field;
+        });
+        when(gameType.createPlayer(any(EventListener.class), anyString())).thenAnswer(inv -> {
+            GamePlayer gamePlayer = mock(GamePlayer.class);
+            when(gamePlayer.getJoystick()).thenReturn(mock(Joystick.class));
+            when(gamePlayer.getHeroData()).thenReturn(new HeroDataImpl(pt(1, 2), false));
+            when(gamePlayer.isAlive()).thenReturn(true);
+            return gamePlayer;
+        });
+        when(gameType.name()).thenReturn("game");
+        when(gameType.getPlots()).thenReturn(PlayerServiceImplTest.Elements.values());
+        when(gameType.getPrinterFactory()).thenReturn(PrinterFactory.get(printer));
+        when(gameType.getMultiplayerType()).thenReturn(MultiplayerType.SINGLE);
+        return gameType;
+    }
+
+    @Test
+    @SneakyThrows
+    public void shouldNotDeadlock_andShouldNotBlockRest_whileSendingScreens() {
+        // given
+        AtomicBoolean done = new AtomicBoolean(false);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(REST_THREADS + JOYSTICK_THREADS);
+
+        for (int index = 0; index < REST_THREADS; index++) {
+            executor.submit(() -> {
+                Random random = new Random();
+                while (!done.get()) {
+                    String id = ids.get(random.nextInt(ids.size()));
+                    long start = System.nanoTime();
+                    playerService.get(id);
+                    playerService.getAll("game");
+                    latencies.add(System.nanoTime() - start);
+                    LockSupport.parkNanos(PAUSE_NS);
+                }
+            });
+        }
+
+        for (int index = 0; index < JOYSTICK_THREADS; index++) {
+            executor.submit(() -> {
+                Random random = new Random();
+                while (!done.get()) {
+                    String id = ids.get(random.nextInt(ids.size()));
+                    playerService.getJoystick(id).act(1);
+                    LockSupport.parkNanos(PAUSE_NS);
+                }
+            });
+        }
+
+        // when
+        for (int tick = 0; tick < TICKS; tick++) {
+            playerService.tick();
+        }
+
+        done.set(true);
+        executor.shutdown();
+
+        // then
+        assertTrue("Deadlock detected",
+                executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // под глобальной write блокировкой на время рассылки
+        // почти каждый запрос ждал бы ее окончания - до SEND_MS
+        long p99 = percentile(latencies, 99);
+        assertTrue("REST p99 during ticks is " + TimeUnit.NANOSECONDS.toMillis(p99) + " ms",
+                p99 < TimeUnit.MILLISECONDS.toNanos(SEND_MS) / 2);
+    }
+
+    private long percentile(List<Long> values, int percent) {
+        List<Long> sorted = new ArrayList<>(values);
+        assertTrue("No REST calls during ticks", !sorted.isEmpty());
+        Collections.sort(sorted);
+        return sorted.get((sorted.size() - 1) * percent / 100);
+    }
+}
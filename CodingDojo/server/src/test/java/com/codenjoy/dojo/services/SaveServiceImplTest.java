@@ -40,6 +40,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static com.codenjoy.dojo.services.PlayerSave.NULL;
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -348,8 +349,66 @@ public class SaveServiceImplTest {
 
         long time = saveService.saveAll();
 
-        verify(saver).saveGame(players.get(0), "{\"key\":\"value1\"}", time);
-        verify(saver).saveGame(players.get(1), "{\"key\":\"value2\"}", time);
+        assertSaved(time, "[first:{\"key\":\"value1\"}, " +
+                "second:{\"key\":\"value2\"}]");
+    }
+
+    private void assertSaved(long time, String expected) {
+        ArgumentCaptor<List<PlayerSave>> captor = ArgumentCaptor.forClass(List.class);
+        verify(saver).saveGames(captor.capture(), eq(time));
+        assertEquals(expected, captor.getValue().stream()
+                .map(save -> save.getId() + ":" + save.getSave())
+                .collect(toList())
+                .toString());
+    }
+
+    @Test
+    public void shouldSaveAll_onlyChanged() {
+        // given
+        createPlayer("first");
+        createPlayer("second");
+
+        fieldSave(0, "{'key':'value1'}");
+        fieldSave(1, "{'key':'value2'}");
+
+        long time = saveService.saveAll();
+        assertSaved(time, "[first:{\"key\":\"value1\"}, " +
+                "second:{\"key\":\"value2\"}]");
+        reset(saver);
+
+        // when
+        // ничего не поменялось
+        time = saveService.saveAll();
+
+        // then
+        assertSaved(time, "[]");
+        reset(saver);
+
+        // when
+        // поменялся только сейв второго
+        fieldSave(1, "{'key':'updated'}");
+        time = saveService.saveAll();
+
+        // then
+        assertSaved(time, "[second:{\"key\":\"updated\"}]");
+        reset(saver);
+
+        // when
+        // поменялся только счет первого
+        scores(players.get(0), 100);
+        time = saveService.saveAll();
+
+        // then
+        assertSaved(time, "[first:{\"key\":\"value1\"}]");
+        reset(saver);
+
+        // when
+        // сейв удалили из базы - надо сохранить снова
+        saveService.removeSave("second");
+        time = saveService.saveAll();
+
+        // then
+        assertSaved(time, "[second:{\"key\":\"updated\"}]");
     }
 
     @Test
@@ -364,8 +423,8 @@ public class SaveServiceImplTest {
 
         long time = saveService.saveAll("room1");
 
-        verify(saver).saveGame(players.get(0), "{\"key\":\"value1\"}", time);
-        verify(saver).saveGame(players.get(1), "{\"key\":\"value2\"}", time);
+        assertSaved(time, "[first:{\"key\":\"value1\"}, " +
+                "second:{\"key\":\"value2\"}]");
         verifyNoMoreInteractions(saver);
     }
 
@@ -375,13 +434,11 @@ public class SaveServiceImplTest {
 
     @Test
     public void shouldLoadAll() {
-        when(saver.getSavedList()).thenReturn(Arrays.asList("first", "second"));
         allPlayersNotRegistered();
 
-        PlayerSave first = mock(PlayerSave.class);
-        PlayerSave second = mock(PlayerSave.class);
-        when(saver.loadGame("first")).thenReturn(first);
-        when(saver.loadGame("second")).thenReturn(second);
+        PlayerSave first = save("first");
+        PlayerSave second = save("second");
+        when(saver.loadAll()).thenReturn(Arrays.asList(first, second));
 
         saveService.loadAll();
 
@@ -392,6 +449,12 @@ public class SaveServiceImplTest {
         verifyNoMoreInteractions(playerService);
     }
 
+    private PlayerSave save(String id) {
+        PlayerSave save = mock(PlayerSave.class);
+        when(save.getId()).thenReturn(id);
+        return save;
+    }
+
     private void allPlayersNotRegistered() {
         boolean NOT_REGISTERED = false;
         when(playerService.contains(anyString())).thenReturn(NOT_REGISTERED);
@@ -399,13 +462,11 @@ public class SaveServiceImplTest {
 
     @Test
     public void shouldLoadAll_whenRegistered() {
-        when(saver.getSavedList()).thenReturn(Arrays.asList("first", "second"));
         allPlayersRegistered();
 
-        PlayerSave first = mock(PlayerSave.class);
-        PlayerSave second = mock(PlayerSave.class);
-        when(saver.loadGame("first")).thenReturn(first);
-        when(saver.loadGame("second")).thenReturn(second);
+        PlayerSave first = save("first");
+        PlayerSave second = save("second");
+        when(saver.loadAll()).thenReturn(Arrays.asList(first, second));
 
         saveService.loadAll();
 
@@ -441,4 +502,14 @@ public class SaveServiceImplTest {
         verifyNoMoreInteractions(playerService);
     }
 
+    @Test
+    public void shouldCompactSaves() {
+        saveService.keepSaves = 5;
+
+        saveService.compactSaves();
+
+        verify(saver).compact(5);
+        verifyNoMoreInteractions(saver);
+    }
+
 }
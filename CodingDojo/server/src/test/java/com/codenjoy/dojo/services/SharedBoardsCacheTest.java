@@ -0,0 +1,111 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+import com.codenjoy.dojo.services.multiplayer.GameField;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class SharedBoardsCacheTest {
+
+    private SharedBoardsCache cache;
+    private GameField field;
+
+    @Before
+    public void setup() {
+        cache = new SharedBoardsCache();
+        field = mock(GameField.class);
+    }
+
+    private PlayerGame playerGame(GameField field, Object shared, Object board) {
+        Game game = mock(Game.class);
+        when(game.getField()).thenReturn(field);
+        when(game.getSharedBoard()).thenReturn(shared);
+        when(game.getBoardAsString()).thenReturn(board);
+        when(game.getBoardAsString(shared)).thenReturn(board);
+        return new PlayerGame(mock(Player.class), game, "room");
+    }
+
+    @Test
+    public void shouldBuildSharedBoardOncePerField() {
+        // given
+        Object shared = new Object();
+        PlayerGame playerGame1 = playerGame(field, shared, "board1");
+        PlayerGame playerGame2 = playerGame(field, shared, "board2");
+
+        // when
+        cache.tick();
+        Object board1 = cache.getBoardAsString(playerGame1);
+        Object board2 = cache.getBoardAsString(playerGame2);
+
+        // then
+        assertEquals("board1", board1);
+        assertEquals("board2", board2);
+
+        verify(playerGame1.getGame()).getSharedBoard();
+        verify(playerGame2.getGame(), never()).getSharedBoard();
+        verify(playerGame2.getGame()).getBoardAsString(shared);
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void shouldBuildSharedBoardAgain_whenNextTick() {
+        // given
+        PlayerGame playerGame = playerGame(field, new Object(), "board");
+
+        // when
+        cache.tick();
+        cache.getBoardAsString(playerGame);
+
+        cache.tick();
+        cache.getBoardAsString(playerGame);
+
+        // then
+        verify(playerGame.getGame(), times(2)).getSharedBoard();
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void shouldPrintAsUsual_whenGameHasNoSharedBoard() {
+        // given
+        PlayerGame playerGame1 = playerGame(field, null, "board1");
+        PlayerGame playerGame2 = playerGame(field, null, "board2");
+
+        // when
+        cache.tick();
+        Object board1 = cache.getBoardAsString(playerGame1);
+        Object board2 = cache.getBoardAsString(playerGame2);
+
+        // then
+        assertEquals("board1", board1);
+        assertEquals("board2", board2);
+
+        assertEquals(0, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+}
@@ -0,0 +1,85 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class TickMetricsTest {
+
+    private TickMetrics metrics = new TickMetrics();
+
+    @Test
+    public void shouldCollectPhasesHistogram() {
+        // when
+        metrics.add(TickMetrics.GAME, ms(3));
+        metrics.add(TickMetrics.GAME, ms(7));
+        metrics.add(TickMetrics.GAME, ms(6000));
+        metrics.add(TickMetrics.SEND, ms(150));
+
+        // then
+        TickMetrics.Histogram game = metrics.getPhases().get(TickMetrics.GAME);
+        assertEquals(3, game.getCount());
+        assertEquals(6000, game.getMaxMs());
+        assertEquals(2003.333, game.getAverageMs(), 0);
+        assertEquals("{<1ms=0, <2ms=0, <5ms=1, <10ms=1, <20ms=0, <50ms=0, <100ms=0, " +
+                        "<200ms=0, <500ms=0, <1000ms=0, <2000ms=0, <5000ms=0, >=5000ms=1}",
+                game.getBuckets().toString());
+
+        TickMetrics.Histogram send = metrics.getPhases().get(TickMetrics.SEND);
+        assertEquals(1, send.getCount());
+        assertEquals(150, send.getMaxMs());
+        assertEquals(1L, (long) send.getBuckets().get("<200ms"));
+
+        assertEquals("[tick, log, autosave, game, screen, send, control, semifinal]",
+                metrics.getPhases().keySet().toString());
+    }
+
+    @Test
+    public void shouldCountOverruns() {
+        // when
+        metrics.overrun(ms(120));
+        metrics.overrun(ms(30));
+        metrics.skipped(2);
+
+        // then
+        assertEquals(2, metrics.getOverruns());
+        assertEquals(2, metrics.getSkipped());
+        assertEquals(120, metrics.getMaxLagMs());
+
+        // when
+        metrics.reset();
+
+        // then
+        assertEquals(0, metrics.getOverruns());
+        assertEquals(0, metrics.getMaxLagMs());
+    }
+
+    private long ms(long ms) {
+        return TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+}
@@ -0,0 +1,260 @@
+package com.codenjoy.dojo.services;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.reflect.core.Reflection.field;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class TimerServiceTest {
+
+    // настенные часы на старте - за 750 мс до границы секунды
+    private static final long WALL = 1_000_000_250L;
+
+    private TimerService timer;
+    private PlayerService playerService;
+    private TickMetrics metrics;
+    private Executor executor;
+
+    private long clock;
+    private List<Long> ticks;
+    private LinkedList<Long> durations;
+    private Runnable duringTick;
+
+    @Before
+    public void setup() {
+        clock = 0;
+        ticks = new LinkedList<>();
+        durations = new LinkedList<>();
+        executor = new Executor();
+
+        timer = new TimerService() {
+            @Override
+            protected ScheduledExecutorService createExecutor() {
+                return executor;
+            }
+
+            @Override
+            protected long nanoTime() {
+                return clock;
+            }
+
+            @Override
+            protected long currentTimeMillis() {
+                return WALL + TimeUnit.NANOSECONDS.toMillis(clock);
+            }
+        };
+
+        // тик длится столько, сколько скажем, а иначе 100 мс
+        playerService = mock(PlayerService.class);
+        doAnswer(inv -> {
+            ticks.add(TimeUnit.NANOSECONDS.toMillis(clock));
+            clock += ms(durations.isEmpty() ? 100 : durations.removeFirst());
+            if (duringTick != null) {
+                Runnable runnable = duringTick;
+                duringTick = null;
+                runnable.run();
+            }
+            return null;
+        }).when(playerService).tick();
+
+        metrics = new TickMetrics();
+        field("playerService").ofType(PlayerService.class).in(timer).set(playerService);
+        field("metrics").ofType(TickMetrics.class).in(timer).set(metrics);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private void givenPolicy(TimerService.OverrunPolicy policy, int catchUpLimit) {
+        field("policy").ofType(TimerService.OverrunPolicy.class).in(timer).set(policy);
+        field("catchUpLimit").ofType(int.class).in(timer).set(catchUpLimit);
+        timer.start();
+        timer.resume();
+    }
+
+    private static long ms(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Запланированные задачи не выполняются сами - их по одной
+     * запускает тест, переводя часы на время запуска.
+     */
+    private class Executor extends ScheduledThreadPoolExecutor {
+
+        private List<Task> tasks = new LinkedList<>();
+
+        Executor() {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            ScheduledFuture<?> future = super.schedule(() -> {}, 1, TimeUnit.DAYS);
+            tasks.add(new Task(command, clock + unit.toNanos(delay), future));
+            return future;
+        }
+
+        List<Task> pending() {
+            tasks.removeIf(task -> task.future.isCancelled());
+            return tasks;
+        }
+
+        void runNext() {
+            Task next = pending().stream()
+                    .min((task1, task2) -> Long.compare(task1.time, task2.time))
+                    .orElseThrow(() -> new IllegalStateException("Nothing scheduled"));
+            tasks.remove(next);
+            clock = Math.max(clock, next.time);
+            next.command.run();
+        }
+    }
+
+    private static class Task {
+
+        private Runnable command;
+        private long time;
+        private ScheduledFuture<?> future;
+
+        Task(Runnable command, long time, ScheduledFuture<?> future) {
+            this.command = command;
+            this.time = time;
+            this.future = future;
+        }
+    }
+
+    private void runTicks(int count) {
+        for (int i = 0; i < count; i++) {
+            executor.runNext();
+        }
+    }
+
+    @Test
+    public void shouldAlignFirstTick_andKeepDeadlines_whenTickIsFast() {
+        // given
+        givenPolicy(TimerService.OverrunPolicy.CATCH_UP, 5);
+
+        // when
+        runTicks(3);
+
+        // then
+        // первый на границе секунды, дальше ровно через период,
+        // несмотря на то что сам тик длится 100 мс
+        assertEquals("[750, 1750, 2750]", ticks.toString());
+        assertEquals(0, metrics.getOverruns());
+        assertEquals(0, metrics.getSkipped());
+    }
+
+    @Test
+    public void shouldCatchUpMissedTicks_whenTickOverrunsPeriod_caseCatchUp() {
+        // given
+        givenPolicy(TimerService.OverrunPolicy.CATCH_UP, 5);
+        durations.add(2500L);
+
+        // when
+        runTicks(5);
+
+        // then
+        // два пропущенных тика идут подряд сразу, потом снова по расписанию
+        assertEquals("[750, 3250, 3350, 3750, 4750]", ticks.toString());
+        assertEquals(2, metrics.getOverruns());
+        assertEquals(0, metrics.getSkipped());
+        assertEquals(1500, metrics.getMaxLagMs());
+    }
+
+    @Test
+    public void shouldSkipMissedTicks_whenTickOverrunsPeriod_caseSkip() {
+        // given
+        givenPolicy(TimerService.OverrunPolicy.SKIP, 5);
+        durations.add(2500L);
+
+        // when
+        runTicks(3);
+
+        // then
+        // пропущенные тики выброшены, следующий - на ближайшей границе
+        assertEquals("[750, 3750, 4750]", ticks.toString());
+        assertEquals(1, metrics.getOverruns());
+        assertEquals(2, metrics.getSkipped());
+    }
+
+    @Test
+    public void shouldSkipMissedTicks_whenCatchUpLimitExceeded() {
+        // given
+        givenPolicy(TimerService.OverrunPolicy.CATCH_UP, 1);
+        durations.add(2500L);
+
+        // when
+        runTicks(3);
+
+        // then
+        // догонять пришлось бы 2 тика при лимите 1 - потому пропускаем
+        assertEquals("[750, 3750, 4750]", ticks.toString());
+        assertEquals(1, metrics.getOverruns());
+        assertEquals(2, metrics.getSkipped());
+    }
+
+    @Test
+    public void shouldNotInterruptRunningTick_whenChangePeriod() {
+        // given
+        givenPolicy(TimerService.OverrunPolicy.CATCH_UP, 5);
+        List<Long> finished = new LinkedList<>();
+        duringTick = () -> {
+            timer.changePeriod(500);
+            finished.add(TimeUnit.NANOSECONDS.toMillis(clock));
+        };
+
+        // when
+        runTicks(1);
+
+        // then
+        // тик доработал до конца, а следующий запланирован
+        // только один - уже выровненный по новому периоду
+        assertEquals("[850]", finished.toString());
+        assertEquals(1, executor.pending().size());
+
+        // when
+        runTicks(2);
+
+        // then
+        assertEquals("[750, 1250, 1750]", ticks.toString());
+        assertEquals(500, timer.getPeriod());
+        assertEquals(0, metrics.getOverruns());
+    }
+}
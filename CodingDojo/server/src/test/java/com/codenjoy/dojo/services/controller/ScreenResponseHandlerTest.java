@@ -38,6 +38,8 @@ import java.util.Map;
 import java.util.function.Function;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -48,12 +50,14 @@ public class ScreenResponseHandlerTest {
     private Player player;
     private ResponseHandler handler;
     private PlayerSocket socket;
+    private ScreenPayloads payloads;
 
     @Before
     public void setup() throws Exception {
         transport = mock(PlayerTransport.class);
         player = new Player();
-        handler = new ScreenResponseHandler(transport, player);
+        payloads = new ScreenPayloads();
+        handler = new ScreenResponseHandler(transport, player, payloads);
     }
 
     @Test
@@ -265,6 +269,53 @@ public class ScreenResponseHandlerTest {
                 "}", JsonUtils.prettyPrint(result));
     }
 
+    @Test
+    public void shouldSerializeOncePerTick_whenSameRequestFromDifferentSockets() {
+        // given
+        PlayerSocket socket1 = mock(PlayerSocket.class);
+        PlayerSocket socket2 = mock(PlayerSocket.class);
+        PlayerSocket socket3 = mock(PlayerSocket.class);
+
+        // when
+        handler.onResponse(socket1,
+                "{'name':getScreen, 'allPlayersScreen':false, " +
+                        "'players':['player1','player2'], 'gameName':'game'}");
+        handler.onResponse(socket2,
+                "{'name':getScreen, 'allPlayersScreen':false, " +
+                        "'players':['player2','player1'], 'gameName':'game'}");
+        handler.onResponse(socket3,
+                "{'name':getScreen, 'allPlayersScreen':true, " +
+                        "'players':[], 'gameName':'game'}");
+
+        Function function1 = verifySetFilterFor(socket1);
+        Function function2 = verifySetFilterFor(socket2);
+        Function function3 = verifySetFilterFor(socket3);
+
+        Map<Player, PlayerData> map = getDummyPlayers();
+
+        // when
+        Object result1 = function1.apply(map);
+        Object result2 = function2.apply(map);
+        Object result3 = function3.apply(map);
+
+        // then
+        assertSame(result1, result2);
+        assertNotSame(result1, result3);
+        assertSame(result1.toString(), result2.toString());
+        assertEquals(2, payloads.getBuilt());
+        assertEquals(3, payloads.getSent());
+
+        // when
+        // следующий тик
+        Object next = function1.apply(getDummyPlayers());
+
+        // then
+        assertNotSame(result1, next);
+        assertEquals(result1.toString(), next.toString());
+        assertEquals(1, payloads.getBuilt());
+        assertEquals(1, payloads.getSent());
+    }
+
     private Map<Player, PlayerData> getDummyPlayers() {
         Map<Player, PlayerData> map = new HashMap<>();
 
@@ -296,6 +347,10 @@ public class ScreenResponseHandlerTest {
     }
 
     private Function verifySetFilterFor() {
+        return verifySetFilterFor(socket);
+    }
+
+    private Function verifySetFilterFor(PlayerSocket socket) {
         ArgumentCaptor<Function> result = ArgumentCaptor.forClass(Function.class);
         verify(transport).setFilterFor(eq(socket), result.capture());
         return result.getValue();
@@ -28,13 +28,18 @@ import com.codenjoy.dojo.services.jdbc.SqliteConnectionThreadPoolFactory;
 import com.codenjoy.dojo.services.multiplayer.GameField;
 import com.codenjoy.dojo.services.multiplayer.MultiplayerType;
 import com.codenjoy.dojo.services.printer.BoardReader;
+import com.codenjoy.dojo.services.printer.CharElements;
 import lombok.SneakyThrows;
+import org.json.JSONObject;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -107,6 +112,140 @@ public class ActionLoggerTest {
                 logger.getAll());
     }
 
+    @Test
+    public void shouldDropLogs_whenQueueIsFull_caseDropPolicy() {
+        // given
+        logger.resume();
+        logger.setQueueSize(1);
+        logger.setOverflow(ActionLogger.Overflow.DROP);
+        givenPlayers();
+
+        // when
+        log(playerGames);
+        waitFor();
+
+        // then
+        assertLogs("BoardLog(time=101, playerId=player1, gameType=game1, score=123, board=player1Board:101, message=null, command=[])",
+                logger.getAll());
+
+        assertEquals(1L, logger.getMetrics().get("dropped"));
+        assertEquals(1L, logger.getMetrics().get("rows"));
+        assertEquals(0, logger.getMetrics().get("queue"));
+    }
+
+    @Test
+    public void shouldWaitOnceForTick_andDropRestLogs_whenQueueIsFull_caseBlockPolicy() throws Exception {
+        // given
+        logger.resume();
+        logger.setQueueSize(1);
+        logger.setOverflow(ActionLogger.Overflow.BLOCK);
+        givenPlayers();
+        addPlayer(playerGames, "player3Board", 345, "player3", "room3", "game3");
+
+        // база занята - очередь не освободится
+        CountDownLatch busy = new CountDownLatch(1);
+        executor.submit(() -> {
+            busy.await();
+            return null;
+        });
+
+        // when
+        long start = System.currentTimeMillis();
+        log(playerGames);
+        long duration = System.currentTimeMillis() - start;
+        busy.countDown();
+        waitFor();
+
+        // then
+        // ждали только один раз за tick, а не на каждую запись
+        assertEquals(true, duration >= ActionLogger.BLOCK_TIMEOUT_MS);
+        assertEquals(true, duration < 2 * ActionLogger.BLOCK_TIMEOUT_MS);
+
+        assertLogs("BoardLog(time=101, playerId=player1, gameType=game1, score=123, board=player1Board:101, message=null, command=[])",
+                logger.getAll());
+
+        assertEquals(2L, logger.getMetrics().get("dropped"));
+        assertEquals(1L, logger.getMetrics().get("rows"));
+    }
+
+    @Test
+    public void shouldSaveInSeveralBatches_whenBatchSizeIsLessThanQueue() {
+        // given
+        logger.resume();
+        logger.setBatchSize(1);
+        givenPlayers();
+
+        // when
+        log(playerGames);
+        waitFor();
+
+        // then
+        assertLogs("BoardLog(time=101, playerId=player1, gameType=game1, score=123, board=player1Board:101, message=null, command=[])\n" +
+                   "BoardLog(time=101, playerId=player2, gameType=game2, score=234, board=player2Board:101, message=null, command=[])",
+                logger.getAll());
+
+        assertEquals(2L, logger.getMetrics().get("flushes"));
+    }
+
+    @Test
+    public void shouldUseAlreadyRenderedBoards_whenSet() {
+        // given
+        logger.resume();
+        logger.setBoards(playerGame -> "rendered:" + playerGame.getPlayer().getId());
+        givenPlayers();
+
+        // when
+        log(playerGames);
+        waitFor();
+
+        // then
+        assertLogs("BoardLog(time=101, playerId=player1, gameType=game1, score=123, board=rendered:player1, message=null, command=[])\n" +
+                   "BoardLog(time=101, playerId=player2, gameType=game2, score=234, board=rendered:player2, message=null, command=[])",
+                logger.getAll());
+    }
+
+    enum Elements implements CharElements {
+        ONE('1'),
+        TWO('2');
+
+        private char ch;
+
+        Elements(char ch) {
+            this.ch = ch;
+        }
+
+        @Override
+        public char ch() {
+            return ch;
+        }
+    }
+
+    @Test
+    public void shouldLogRawJsonBoard_whenItWasAlreadyEncodedForBrowser() {
+        // given
+        logger.resume();
+        Map<String, JSONObject> boards = new HashMap<String, JSONObject>(){{
+            put("player1", new JSONObject("{'layers':['12','21']}"));
+            put("player2", new JSONObject("{'layers':['11','22']}"));
+        }};
+        logger.setBoards(playerGame -> boards.get(playerGame.getPlayer().getId()));
+        givenPlayers();
+
+        // на этом тике те же борды уже ушли в браузер
+        GuiPlotColorDecoder decoder = new GuiPlotColorDecoder(Elements.values());
+        boards.values().forEach(decoder::encodeForBrowser);
+
+        // when
+        log(playerGames);
+        waitFor();
+
+        // then
+        // в логе исходные слои, а не закодированные для браузера
+        assertLogs("BoardLog(time=101, playerId=player1, gameType=game1, score=123, board={\"layers\":[\"12\",\"21\"]}, message=null, command=[])\n" +
+                   "BoardLog(time=101, playerId=player2, gameType=game2, score=234, board={\"layers\":[\"11\",\"22\"]}, message=null, command=[])",
+                logger.getAll());
+    }
+
     private void allRoomsAreActive() {
         when(roomService.isActive(anyString())).thenReturn(true);
     }
@@ -29,8 +29,11 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -132,6 +135,86 @@ public class PlayerGameSaverTest {
         saver.saveGame(player2, "{'key':'value'}", now);
 
         // then
-        assertEquals("[vasia, katia]", saver.getSavedList().toString());
+        assertEquals("[katia, vasia]", saver.getSavedList().toString());
+    }
+
+    @Test
+    public void shouldSaveGames_replacePreviousSaves() {
+        // given
+        Player player = new Player("vasia", "http://127.0.0.1:8888", PlayerTest.mockGameType("game"), getScores(10), getInfo("Some info"));
+        player.setRoomName("room");
+
+        long now = System.currentTimeMillis();
+        saver.saveGame(player, "{'key':'old'}", now);
+
+        // when
+        saver.saveGames(Arrays.asList(
+                new PlayerSave("vasia", "http://127.0.0.1:8888", "room", "game", 20, "{'key':'vasia'}"),
+                new PlayerSave("katia", "http://127.0.0.3:7777", "room", "game", 30, "{'key':'katia'}")),
+                now + 1000);
+
+        // then
+        assertEquals("[katia, vasia]", saver.getSavedList().toString());
+
+        PlayerSave vasia = saver.loadGame("vasia");
+        assertEquals("{'key':'vasia'}", vasia.getSave());
+        assertEquals(20, vasia.getScore());
+
+        PlayerSave katia = saver.loadGame("katia");
+        assertEquals("{'key':'katia'}", katia.getSave());
+        assertEquals(30, katia.getScore());
+    }
+
+    @Test
+    public void shouldLoadAll_onlyLatestSaves() {
+        // given
+        saver.saveGames(Arrays.asList(
+                new PlayerSave("vasia", "http://127.0.0.1:8888", "room", "game", 10, "{'key':'vasia1'}"),
+                new PlayerSave("katia", "http://127.0.0.3:7777", "room", "game", 20, "{'key':'katia1'}")),
+                TIME);
+
+        saver.saveGames(Arrays.asList(
+                new PlayerSave("vasia", "http://127.0.0.1:8888", "room", "game", 30, "{'key':'vasia2'}")),
+                TIME + 1000);
+
+        // when
+        List<PlayerSave> saves = saver.loadAll();
+
+        // then
+        assertEquals("[katia:20:{'key':'katia1'}, vasia:30:{'key':'vasia2'}]",
+                saves.stream()
+                        .map(save -> save.getId() + ":" + save.getScore() + ":" + save.getSave())
+                        .collect(toList())
+                        .toString());
+    }
+
+    @Test
+    public void shouldCompact_keepLastSaves() {
+        // given
+        for (int index = 0; index < 5; index++) {
+            saver.saveGames(Arrays.asList(
+                    new PlayerSave("vasia", "http://127.0.0.1:8888", "room", "game", index, "{'key':" + index + "}"),
+                    new PlayerSave("katia", "http://127.0.0.3:7777", "room", "game", index, "{'key':" + index + "}")),
+                    TIME + index * 1000);
+        }
+        saver.saveGames(Arrays.asList(
+                new PlayerSave("petya", "http://127.0.0.4:6666", "room", "game", 1, "{'key':1}")),
+                TIME);
+
+        assertEquals(5, saver.historySize("vasia"));
+        assertEquals(5, saver.historySize("katia"));
+        assertEquals(1, saver.historySize("petya"));
+
+        // when
+        saver.compact(2);
+
+        // then
+        assertEquals(2, saver.historySize("vasia"));
+        assertEquals(2, saver.historySize("katia"));
+        assertEquals(1, saver.historySize("petya"));
+
+        assertEquals("{'key':4}", saver.loadGame("vasia").getSave());
+        assertEquals("{'key':4}", saver.loadGame("katia").getSave());
+        assertEquals("{'key':1}", saver.loadGame("petya").getSave());
     }
 }
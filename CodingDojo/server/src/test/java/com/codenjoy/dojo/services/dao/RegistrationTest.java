@@ -760,4 +760,72 @@ public class RegistrationTest {
         // then
         assertEquals(id, actualId);
     }
+
+    @Test
+    public void shouldCacheLookups() {
+        // given
+        String code = service.register("id", "email", "name", "pass", "data", USER.roles()).getCode();
+
+        // when
+        for (int index = 0; index < 3; index++) {
+            assertEquals("id", service.checkUser("id", code));
+            assertEquals("name", service.getNameById("id"));
+            assertEquals("email", service.getEmailById("id"));
+        }
+
+        // then
+        assertEquals("{idsByCode={size=1, hits=2, misses=1, hitRate=0.6666666666666666, evictions=0}, " +
+                        "namesById={size=1, hits=5, misses=1, hitRate=0.8333333333333334, evictions=0}}",
+                service.getCacheMetrics().toString());
+    }
+
+    @Test
+    public void shouldInvalidateCache_whenUpdated() {
+        // given
+        String code = service.register("id", "email", "name", "pass", "data", USER.roles()).getCode();
+        assertEquals("name", service.getNameById("id"));
+        assertEquals("email", service.getEmailById("id"));
+
+        // when
+        service.updateReadableName("id", "newName");
+
+        // then
+        assertEquals("newName", service.getNameById("id"));
+
+        // when
+        service.updateNameAndEmail("id", "otherName", "otherEmail");
+
+        // then
+        assertEquals("otherName", service.getNameById("id"));
+        assertEquals("otherEmail", service.getEmailById("id"));
+
+        // when
+        service.updateId("otherName", "newId");
+
+        // then
+        assertEquals(null, service.getNameById("id"));
+        assertEquals("otherName", service.getNameById("newId"));
+        assertEquals("newId", service.getIdByCode(code));
+    }
+
+    @Test
+    public void shouldInvalidateCache_whenRegisteredOrRemoved() {
+        // given
+        // отсутствие пользователя тоже кешируется
+        assertEquals(null, service.checkUser("id"));
+
+        // when
+        String code = service.register("id", "email", "name", "pass", "data", USER.roles()).getCode();
+
+        // then
+        assertEquals("id", service.checkUser("id"));
+        assertEquals("id", service.checkUser("id", code));
+
+        // when
+        service.remove("id");
+
+        // then
+        assertEquals(null, service.checkUser("id"));
+        assertEquals(null, service.checkUser("id", code));
+    }
 }
@@ -0,0 +1,133 @@
+package com.codenjoy.dojo.services.jdbc;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ConnectionThreadPoolTest {
+
+    private ConnectionThreadPool pool;
+    private ExecutorService clients = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        pool.close();
+        clients.shutdownNow();
+    }
+
+    @Test
+    public void shouldReadWhileWriterIsBusy() throws Exception {
+        // given
+        pool = new ConnectionThreadPool(1, 2, () -> mock(Connection.class));
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // when
+        // долгая запись заняла единственный writer
+        clients.submit(() -> pool.run(connection -> {
+            writing.countDown();
+            await(release);
+            return null;
+        }));
+        assertTrue(writing.await(1, TimeUnit.SECONDS));
+
+        // then
+        // чтение при этом не ждет
+        String result = clients.submit(() -> pool.read(connection -> "read"))
+                .get(1, TimeUnit.SECONDS);
+        assertEquals("read", result);
+
+        release.countDown();
+    }
+
+    @Test
+    public void shouldUseWriter_whenNoReaders() throws Exception {
+        // given
+        pool = new ConnectionThreadPool(1, () -> mock(Connection.class));
+
+        // when
+        pool.run(connection -> null);
+        pool.read(connection -> null);
+
+        // then
+        Map<String, Object> metrics = pool.getMetrics();
+        assertEquals("[write]", metrics.keySet().toString());
+        assertEquals(2L, ((Map) metrics.get("write")).get("queries"));
+    }
+
+    @Test
+    public void shouldCollectMetrics() throws Exception {
+        // given
+        pool = new ConnectionThreadPool(1, 1, () -> mock(Connection.class));
+
+        // when
+        pool.run(connection -> {
+            sleep(20);
+            return null;
+        });
+        pool.read(connection -> null);
+        pool.read(connection -> null);
+
+        // then
+        Map<String, Object> metrics = pool.getMetrics();
+        Map write = (Map) metrics.get("write");
+        Map read = (Map) metrics.get("read");
+
+        assertEquals(1, write.get("connections"));
+        assertEquals(1L, write.get("queries"));
+        assertEquals(0, write.get("queue"));
+        assertTrue((long) write.get("maxExecutionUs") >= TimeUnit.MILLISECONDS.toMicros(20));
+
+        assertEquals(2L, read.get("queries"));
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void sleep(int mills) {
+        try {
+            Thread.sleep(mills);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -31,6 +31,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Random;
 
+import static org.junit.Assert.assertEquals;
+
 public class SqliteConnectionThreadPoolTest {
 
     private SqliteConnectionThreadPool pool;
@@ -71,6 +73,30 @@ public class SqliteConnectionThreadPoolTest {
         }
     }
 
+    @Test
+    public void shouldReadThroughWriter_whenInMemory() {
+        // given
+        CrudConnectionThreadPool memory = new SqliteConnectionThreadPoolFactory(
+                true, "target/memory.db", null, 2)
+                .create("CREATE TABLE IF NOT EXISTS users (" +
+                        "user varchar(255), " +
+                        "password varchar(255));");
+
+        try {
+            // when
+            memory.update("INSERT INTO users (user, password) VALUES (?,?);",
+                    new Object[] {"user", "password"});
+
+            // then
+            // отдельных читателей нет - в shared cache они ловили бы SQLITE_LOCKED
+            assertEquals("[write]", memory.getMetrics().keySet().toString());
+            assertEquals(Integer.valueOf(1), memory.select("SELECT count(*) AS total FROM users;",
+                    resultSet -> resultSet.next() ? resultSet.getInt("total") : 0));
+        } finally {
+            memory.close();
+        }
+    }
+
     private void readRecords() {
         Integer result = pool.select("SELECT count(*) AS total FROM users;",
                 new ObjectMapper<Integer>() {
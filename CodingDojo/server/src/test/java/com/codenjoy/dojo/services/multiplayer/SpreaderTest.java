@@ -0,0 +1,239 @@
+package com.codenjoy.dojo.services.multiplayer;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+
+import static com.codenjoy.dojo.services.multiplayer.MultiplayerType.DISPOSABLE;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SpreaderTest {
+
+    private static final MultiplayerType REUSABLE = MultiplayerType.TEAM.apply(2, !DISPOSABLE);
+    private static final MultiplayerType ONCE = MultiplayerType.TOURNAMENT;
+
+    private Spreader spreader = new Spreader();
+    private List<GameField> fields = new LinkedList<>();
+
+    private GamePlayer player() {
+        GamePlayer player = mock(GamePlayer.class);
+        when(player.wantToStay()).thenReturn(true);
+        return player;
+    }
+
+    private GameField join(GamePlayer player, String roomName, MultiplayerType type) {
+        return spreader.fieldFor(player, roomName, type, type.getRoomSize(), 0, () -> {
+            GameField field = mock(GameField.class);
+            fields.add(field);
+            return field;
+        });
+    }
+
+    private void assertJoined(int index, GamePlayer player, String roomName, MultiplayerType type) {
+        GameField field = join(player, roomName, type);
+        assertSame(field(index), field);
+    }
+
+    private GameField field(int index) {
+        return fields.get(index);
+    }
+
+    private List<GamePlayer> players(String roomName) {
+        List<GamePlayer> result = new LinkedList<>();
+        spreader.rooms().get(roomName).forEach(room -> result.addAll(room.players()));
+        return result;
+    }
+
+    @Test
+    public void shouldJoinOldestUnfilledRoom() {
+        // given
+        GamePlayer player1 = player();
+        GamePlayer player2 = player();
+        GamePlayer player3 = player();
+        GamePlayer player4 = player();
+        GamePlayer player5 = player();
+
+        join(player1, "room", REUSABLE);
+        join(player2, "room", REUSABLE);
+        join(player3, "room", REUSABLE);
+        join(player4, "room", REUSABLE);
+        join(player5, "room", REUSABLE);
+        assertEquals(3, fields.size());
+
+        // when
+        // освобождаем место сперва в более новой комнате, потом в более старой
+        spreader.remove(player4);
+        spreader.remove(player2);
+
+        // then
+        // первым заполняется та, что создана раньше
+        GamePlayer player6 = player();
+        assertJoined(0, player6, "room", REUSABLE);
+
+        GamePlayer player7 = player();
+        assertJoined(1, player7, "room", REUSABLE);
+
+        // дальше свободна только последняя
+        GamePlayer player8 = player();
+        assertJoined(2, player8, "room", REUSABLE);
+
+        GamePlayer player9 = player();
+        assertJoined(3, player9, "room", REUSABLE);
+    }
+
+    @Test
+    public void shouldNotReuseDisposableRoom() {
+        // given
+        GamePlayer player1 = player();
+        GamePlayer player2 = player();
+        GamePlayer player3 = player();
+        join(player1, "room", ONCE);
+        join(player2, "room", ONCE);
+        join(player3, "room", ONCE);
+
+        // when
+        spreader.remove(player2);
+
+        // then
+        // одноразовая комната не освободилась, место есть только во второй
+        assertJoined(1, player(), "room", ONCE);
+        assertJoined(2, player(), "room", ONCE);
+        assertTrue(spreader.isRoomStaffed(field(0)));
+        assertTrue(spreader.isRoomStaffed(field(1)));
+        assertFalse(spreader.isRoomStaffed(field(2)));
+    }
+
+    @Test
+    public void shouldKeepRoomNamesApart() {
+        // given
+        join(player(), "room1", REUSABLE);
+
+        // when
+        GameField field = join(player(), "room2", REUSABLE);
+
+        // then
+        assertSame(field(1), field);
+        assertEquals(2, spreader.rooms().size());
+    }
+
+    @Test
+    public void shouldRemovePlayer_fromAllHisRooms() {
+        // given
+        GamePlayer player = player();
+        GamePlayer other1 = player();
+        GamePlayer other2 = player();
+        join(player, "room1", REUSABLE);
+        join(other1, "room1", REUSABLE);
+        join(player, "room2", REUSABLE);
+        join(other2, "room2", REUSABLE);
+        assertTrue(spreader.contains(player));
+
+        // when
+        List<GamePlayer> removed = spreader.remove(player);
+
+        // then
+        assertEquals(Arrays.asList(), removed);
+        assertFalse(spreader.contains(player));
+        assertEquals(Arrays.asList(other1), players("room1"));
+        assertEquals(Arrays.asList(other2), players("room2"));
+
+        // освободившиеся места занимают новые игроки
+        assertJoined(0, player(), "room1", REUSABLE);
+        assertJoined(1, player(), "room2", REUSABLE);
+    }
+
+    @Test
+    public void shouldRemoveLastPlayer_ifHeDoesNotWantToStay_andForgetRoom() {
+        // given
+        GamePlayer player1 = player();
+        GamePlayer player2 = mock(GamePlayer.class);
+        when(player2.wantToStay()).thenReturn(false);
+        join(player1, "room", REUSABLE);
+        join(player2, "room", REUSABLE);
+
+        // when
+        List<GamePlayer> removed = spreader.remove(player1);
+
+        // then
+        assertEquals(Arrays.asList(player2), removed);
+        assertFalse(spreader.contains(player1));
+        assertFalse(spreader.contains(player2));
+        assertTrue(spreader.rooms().isEmpty());
+
+        // пустая комната забыта - новому игроку новое поле
+        assertJoined(1, player(), "room", REUSABLE);
+    }
+
+    @Test
+    public void shouldNotJoinTwice_sameRoom() {
+        // given
+        GamePlayer player = player();
+        join(player, "room", REUSABLE);
+
+        // when
+        join(player, "room", REUSABLE);
+
+        // then
+        assertEquals(Arrays.asList(player), players("room"));
+        assertEquals(1, fields.size());
+    }
+
+    @Test
+    public void shouldThrowException_whenSeveralRoomsHaveSameField() {
+        // given
+        GameField field = mock(GameField.class);
+        for (int index = 0; index < 3; index++) {
+            spreader.fieldFor(player(), "room", REUSABLE, 2, 0, () -> field);
+        }
+        Collection<Room> rooms = spreader.rooms().get("room");
+        assertEquals(2, rooms.size());
+
+        try {
+            // when
+            spreader.isRoomStaffed(field);
+            fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            // then
+            assertEquals("Почему-то комната для поля не одна: 2", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldThrowException_whenNoRoomForField() {
+        try {
+            // when
+            spreader.isRoomStaffed(mock(GameField.class));
+            fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            // then
+            assertEquals("Почему-то комната для поля не одна: 0", e.getMessage());
+        }
+    }
+}
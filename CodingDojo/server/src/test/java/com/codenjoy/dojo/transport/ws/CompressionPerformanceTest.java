@@ -0,0 +1,162 @@
+package com.codenjoy.dojo.transport.ws;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import com.codenjoy.dojo.client.BoardBinary;
+import com.codenjoy.dojo.profile.Profiler;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Сколько байт уходит в сокет за тик и сколько CPU на это тратится
+ * при разных режимах: текст, бинарные фреймы, permessage-deflate
+ * с разным уровнем и с/без словаря между сообщениями.
+ * Deflate тут тот же, что делает jetty: raw deflate + SYNC_FLUSH на сообщение.
+ */
+public class CompressionPerformanceTest {
+
+    private static final int TICKS = 1000;
+    private static final int SIZE = 33;
+    private static final int CHANGES = 20;
+
+    private static final char[] ELEMENTS = {' ', '#', '☺', '♥', '☻', '&', '҉'};
+
+    private Random random = new Random(0);
+    private Map<String, Long> bytes = new LinkedHashMap<>();
+
+    @Test
+    public void test() {
+        String[] frames = frames();
+        Profiler profiler = new Profiler();
+
+        measure(profiler, frames, "text",
+                frame -> frame.getBytes(StandardCharsets.UTF_8).length);
+
+        measure(profiler, frames, "binary",
+                frame -> BoardBinary.encode(frame).remaining());
+
+        for (int level : new int[]{1, 6, 9}) {
+            measure(profiler, frames, "deflate " + level,
+                    deflate(level, true, this::utf8));
+
+            measure(profiler, frames, "deflate " + level + " no context takeover",
+                    deflate(level, false, this::utf8));
+
+            measure(profiler, frames, "binary + deflate " + level,
+                    deflate(level, true, this::binary));
+        }
+
+        profiler.print();
+        bytes.forEach((phase, total) ->
+                System.out.printf("%s: %s bytes/tick%n", phase, total / TICKS));
+
+        assertTrue(bytes.get("binary") < bytes.get("text"));
+        assertTrue(bytes.get("deflate 6") < bytes.get("deflate 6 no context takeover"));
+    }
+
+    private void measure(Profiler profiler, String[] frames,
+                         String phase, Function<String, Integer> encoder)
+    {
+        long total = 0;
+        profiler.start();
+        for (String frame : frames) {
+            total += encoder.apply(frame);
+        }
+        profiler.done(phase);
+        bytes.put(phase, total);
+    }
+
+    private Function<String, Integer> deflate(int level, boolean contextTakeover,
+                                              Function<String, byte[]> encoder)
+    {
+        Deflater deflater = new Deflater(level, true);
+        byte[] buffer = new byte[64 * 1024];
+        return frame -> {
+            if (!contextTakeover) {
+                deflater.reset();
+            }
+            deflater.setInput(encoder.apply(frame));
+            int result = 0;
+            int count;
+            do {
+                count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                result += count;
+            } while (count == buffer.length);
+            return result - 4; // permessage-deflate отбрасывает хвост 00 00 FF FF
+        };
+    }
+
+    private byte[] utf8(String frame) {
+        return frame.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] binary(String frame) {
+        ByteBuffer buffer = BoardBinary.encode(frame);
+        byte[] result = new byte[buffer.remaining()];
+        buffer.get(result);
+        return result;
+    }
+
+    /**
+     * Доска как в bomberman: стены по краю, разрушаемые стены,
+     * и каждый тик меняется небольшая часть клеток.
+     */
+    private String[] frames() {
+        char[] board = new char[SIZE * SIZE];
+        for (int index = 0; index < board.length; index++) {
+            int x = index % SIZE;
+            int y = index / SIZE;
+            boolean wall = x == 0 || y == 0 || x == SIZE - 1 || y == SIZE - 1
+                    || (x % 2 == 0 && y % 2 == 0);
+            board[index] = wall ? '☼' : element();
+        }
+
+        String[] result = new String[TICKS];
+        for (int tick = 0; tick < TICKS; tick++) {
+            for (int change = 0; change < CHANGES; change++) {
+                int index = random.nextInt(board.length);
+                if (board[index] != '☼') {
+                    board[index] = element();
+                }
+            }
+            result[tick] = "board=" + new String(board);
+        }
+        return result;
+    }
+
+    private char element() {
+        return (random.nextInt(3) == 0)
+                ? ELEMENTS[random.nextInt(ELEMENTS.length)]
+                : ' ';
+    }
+}
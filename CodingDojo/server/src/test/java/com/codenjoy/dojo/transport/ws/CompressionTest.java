@@ -0,0 +1,90 @@
+package com.codenjoy.dojo.transport.ws;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import org.eclipse.jetty.websocket.api.extensions.Extension;
+import org.eclipse.jetty.websocket.api.extensions.ExtensionConfig;
+import org.eclipse.jetty.websocket.server.WebSocketServerFactory;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class CompressionTest {
+
+    private List<WebSocketServerFactory> factories = new LinkedList<>();
+
+    @After
+    public void tearDown() throws Exception {
+        for (WebSocketServerFactory factory : factories) {
+            factory.stop();
+        }
+    }
+
+    private WebSocketServerFactory factory(Compression compression) throws Exception {
+        WebSocketServerFactory factory = new WebSocketServerFactory();
+        compression.apply(factory);
+        factory.start();
+        factories.add(factory);
+        return factory;
+    }
+
+    private String negotiate(WebSocketServerFactory factory) {
+        Extension extension = factory.getExtensionFactory()
+                .newInstance(new ExtensionConfig(DeflateExtension.NAME));
+        return extension.getClass().getSimpleName() + ":" +
+                extension.getConfig().getParameterizedName();
+    }
+
+    @Test
+    public void shouldConfigureExtension_byFactoryThatCreatedIt() throws Exception {
+        // given
+        // у control и screen сервлетов свои фабрики со своими настройками
+        WebSocketServerFactory control = factory(new Compression(true, 1, false));
+        WebSocketServerFactory screen = factory(new Compression(true, 9, true));
+
+        // when then
+        assertEquals("DeflateExtension:permessage-deflate;server_no_context_takeover",
+                negotiate(control));
+        assertEquals("DeflateExtension:permessage-deflate",
+                negotiate(screen));
+
+        // настройки второй фабрики не перетерли настройки первой
+        assertEquals("DeflateExtension:permessage-deflate;server_no_context_takeover",
+                negotiate(control));
+    }
+
+    @Test
+    public void shouldNotOfferDeflate_whenDisabled() throws Exception {
+        // when
+        WebSocketServerFactory factory = factory(new Compression(false, 1, true));
+
+        // then
+        assertEquals(false, factory.getExtensionFactory().isAvailable(DeflateExtension.NAME));
+        assertEquals(false, factory.getExtensionFactory().isAvailable("deflate-frame"));
+        assertEquals(false, factory.getExtensionFactory().isAvailable("x-webkit-deflate-frame"));
+    }
+}
@@ -23,24 +23,30 @@ package com.codenjoy.dojo.transport.ws;
  */
 
 
+import com.codenjoy.dojo.client.BoardBinary;
 import com.codenjoy.dojo.config.AppProperties;
 import com.codenjoy.dojo.services.DebugService;
 import com.codenjoy.dojo.transport.auth.AuthenticationService;
 import org.eclipse.jetty.websocket.api.RemoteEndpoint;
 import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
 import org.eclipse.jetty.websocket.servlet.ServletUpgradeRequest;
 import org.eclipse.jetty.websocket.servlet.ServletUpgradeResponse;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import javax.servlet.http.HttpServletRequest;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static java.util.stream.Collectors.toList;
 
 public class PlayerTransportTest {
 
@@ -49,6 +55,8 @@ public class PlayerTransportTest {
     private AuthenticationService authentication;
     private PlayerSocketCreator creator;
     private LinkedList<ServletUpgradeResponse> responses = new LinkedList<>();
+    private String delta;
+    private String binary;
 
     @Test
     public void shouldSendDataToWebSocketClient_caseClientSendFirst_withUniqueSocketFilter() throws IOException {
@@ -78,7 +86,11 @@ public class PlayerTransportTest {
     }
 
     private void createServices(boolean waitForClient) {
-        transport = new PlayerTransportImpl();
+        createServices(waitForClient, 0);
+    }
+
+    private void createServices(boolean waitForClient, int asyncQueueSize) {
+        transport = new PlayerTransportImpl(asyncQueueSize);
         authentication = mock(AuthenticationService.class);
         creator = new PlayerSocketCreator(transport, authentication, waitForClient);
     }
@@ -102,6 +114,8 @@ public class PlayerTransportTest {
         ServletUpgradeRequest request = mock(ServletUpgradeRequest.class);
         HttpServletRequest httpRequest = mock(HttpServletRequest.class);
         when(request.getHttpServletRequest()).thenReturn(httpRequest);
+        when(httpRequest.getParameter("delta")).thenReturn(delta);
+        when(httpRequest.getParameter("binary")).thenReturn(binary);
         ServletUpgradeResponse response = mock(ServletUpgradeResponse.class);
         responses.add(response);
         return creator.createWebSocket(request, response);
@@ -361,6 +375,188 @@ public class PlayerTransportTest {
 //        }
     }
 
+    @Test
+    public void shouldSendDataAsync_andDropStaleFrames_whenClientIsSlow() throws IOException {
+        // given
+        createServices(PlayerSocket.SERVER_SEND_FIRST, 1);
+        createServerWebSocket("id");
+        PlayerSocket webSocket = connectWebSocketClient("id");
+        transport.setDefaultFilter(data -> data);
+        RemoteEndpoint remote = webSocket.getSession().getRemote();
+        ArgumentCaptor<WriteCallback> callback = ArgumentCaptor.forClass(WriteCallback.class);
+
+        // when
+        transport.sendStateToAll("frame1");
+
+        // then
+        // отправка не блокирующая
+        verify(remote).sendString(eq("frame1"), callback.capture());
+        verify(remote, never()).sendString(anyString());
+
+        // when
+        // клиент медленный - первый фрейм еще не ушел, а уже готовы новые
+        webSocket.onWebSocketText("ok");
+        transport.sendStateToAll("frame2");
+        webSocket.onWebSocketText("ok");
+        transport.sendStateToAll("frame3");
+
+        // then
+        verifyNoMoreInteractions(remote);
+        SendMetrics metrics = ((PlayerTransportImpl)transport).getMetrics().get("id");
+        assertEquals("[queue:1/1, sent:0, dropped:1, failed:0, latency:0/0ms]",
+                metrics.toString());
+
+        // when
+        // первый фрейм дошел
+        callback.getValue().writeSuccess();
+
+        // then
+        // ушел только последний фрейм, устаревший выброшен
+        verify(remote, never()).sendString(eq("frame2"), any(WriteCallback.class));
+        verify(remote).sendString(eq("frame3"), any(WriteCallback.class));
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(1, metrics.getSent());
+        assertEquals(1, metrics.getDropped());
+    }
+
+    @Test
+    public void shouldSendDeltaFrames_whenClientAskForIt() throws IOException {
+        // given
+        createServices(PlayerSocket.SERVER_SEND_FIRST);
+        createServerWebSocket("id");
+        delta = "3";
+        PlayerSocket webSocket = connectWebSocketClient("id");
+        transport.setDefaultFilter(Object::toString);
+        RemoteEndpoint remote = webSocket.getSession().getRemote();
+
+        // when
+        sendAndAnswer(webSocket, "board=abcdefghijklmnopqrstuvwxyz");
+        sendAndAnswer(webSocket, "board=abcdefghijklmnopqrstuvwxyZ");
+        sendAndAnswer(webSocket, "board=Abcdefghijklmnopqrstuvwxyz");
+        sendAndAnswer(webSocket, "board=abcdefghijklmnopqrstuvwxyz");
+        sendAndAnswer(webSocket, "board=abcdefghijklmnopqrstuvwxyz+");
+
+        // then
+        // полная доска раз в 3 фрейма и если поменялся ее размер
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(remote, times(5)).sendString(captor.capture());
+        assertEquals("[board=abcdefghijklmnopqrstuvwxyz, " +
+                        "delta=25,1:Z, " +
+                        "delta=0,1:A25,1:z, " +
+                        "board=abcdefghijklmnopqrstuvwxyz, " +
+                        "board=abcdefghijklmnopqrstuvwxyz+]",
+                captor.getAllValues().toString());
+
+        SendMetrics metrics = transport.getMetrics().get("id");
+        assertEquals("[queue:0/0, sent:0, dropped:0, failed:0, latency:0/0ms, " +
+                        "frames:3/2, bytes:126/161, saved:7/frame]",
+                metrics.toString());
+    }
+
+    @Test
+    public void shouldSendFullBoard_afterFailedSend() throws IOException {
+        // given
+        createServices(PlayerSocket.SERVER_SEND_FIRST);
+        createServerWebSocket("id");
+        delta = "3";
+        PlayerSocket webSocket = connectWebSocketClient("id");
+        transport.setDefaultFilter(Object::toString);
+        RemoteEndpoint remote = webSocket.getSession().getRemote();
+        doThrow(new IOException("Error")).when(remote).sendString("delta=25,1:Z");
+
+        // when
+        sendAndAnswer(webSocket, "board=abcdefghijklmnopqrstuvwxyz");
+        sendAndAnswer(webSocket, "board=abcdefghijklmnopqrstuvwxyZ");
+        sendAndAnswer(webSocket, "board=abcdefghijklmnopqrstuvwxYZ");
+
+        // then
+        // разностный фрейм не дошел - клиенту нечем применить следующий
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(remote, times(3)).sendString(captor.capture());
+        assertEquals("[board=abcdefghijklmnopqrstuvwxyz, " +
+                        "delta=25,1:Z, " +
+                        "board=abcdefghijklmnopqrstuvwxYZ]",
+                captor.getAllValues().toString());
+    }
+
+    @Test
+    public void shouldSendFullBoards_whenAsync_evenIfDeltaAsked() throws IOException {
+        // given
+        createServices(PlayerSocket.SERVER_SEND_FIRST, 2);
+        createServerWebSocket("id");
+        delta = "3";
+        PlayerSocket webSocket = connectWebSocketClient("id");
+        transport.setDefaultFilter(Object::toString);
+        RemoteEndpoint remote = webSocket.getSession().getRemote();
+        ArgumentCaptor<WriteCallback> callback = ArgumentCaptor.forClass(WriteCallback.class);
+
+        // when
+        sendAndAnswer(webSocket, "board=abcdefghijklmnopqrstuvwxyz");
+        verify(remote).sendString(eq("board=abcdefghijklmnopqrstuvwxyz"), callback.capture());
+        callback.getValue().writeSuccess();
+
+        sendAndAnswer(webSocket, "board=abcdefghijklmnopqrstuvwxyZ");
+
+        // then
+        // из очереди фреймы выбрасываются, а разностный выбрасывать нельзя
+        ArgumentCaptor<String> sent = ArgumentCaptor.forClass(String.class);
+        verify(remote, times(2)).sendString(sent.capture(), any(WriteCallback.class));
+        assertEquals("[board=abcdefghijklmnopqrstuvwxyz, " +
+                        "board=abcdefghijklmnopqrstuvwxyZ]",
+                sent.getAllValues().toString());
+    }
+
+    @Test
+    public void shouldSendFullBoard_whenDeltaIsNotAsked() throws IOException {
+        // given
+        createServices(PlayerSocket.SERVER_SEND_FIRST);
+        createServerWebSocket("id");
+        PlayerSocket webSocket = connectWebSocketClient("id");
+        transport.setDefaultFilter(Object::toString);
+        RemoteEndpoint remote = webSocket.getSession().getRemote();
+
+        // when
+        sendAndAnswer(webSocket, "board=abcdefghijklmnopqrstuvwxyz");
+        sendAndAnswer(webSocket, "board=abcdefghijklmnopqrstuvwxyZ");
+
+        // then
+        verify(remote).sendString("board=abcdefghijklmnopqrstuvwxyz");
+        verify(remote).sendString("board=abcdefghijklmnopqrstuvwxyZ");
+    }
+
+    @Test
+    public void shouldSendBinaryFrames_whenClientAskForIt() throws IOException {
+        // given
+        createServices(PlayerSocket.SERVER_SEND_FIRST);
+        createServerWebSocket("id");
+        binary = "true";
+        delta = "3";
+        PlayerSocket webSocket = connectWebSocketClient("id");
+        transport.setDefaultFilter(Object::toString);
+        RemoteEndpoint remote = webSocket.getSession().getRemote();
+
+        // when
+        sendAndAnswer(webSocket, "board=☼☼☼☼ ☺ ☼☼☼☼");
+        sendAndAnswer(webSocket, "board=☼☼☼☼  ☺☼☼☼☼");
+
+        // then
+        ArgumentCaptor<ByteBuffer> captor = ArgumentCaptor.forClass(ByteBuffer.class);
+        verify(remote, times(2)).sendBytes(captor.capture());
+        verify(remote, never()).sendString(anyString());
+        assertEquals("[board=☼☼☼☼ ☺ ☼☼☼☼, delta=5,2: ☺]",
+                captor.getAllValues().stream()
+                        .map(buffer -> BoardBinary.decode(buffer.array(),
+                                buffer.arrayOffset() + buffer.position(),
+                                buffer.remaining()))
+                        .collect(toList())
+                        .toString());
+    }
+
+    private void sendAndAnswer(PlayerSocket webSocket, String board) {
+        transport.sendState("id", board);
+        webSocket.onWebSocketText("answer"); // SERVER_SEND_FIRST
+    }
+
     @Test
     public void shouldUnregisterPlayerSocket_whenClientClose() throws IOException {
         // given
@@ -239,6 +239,17 @@ public class RestAdminControllerTest {
                 "/rest/admin/room/$bad$/pause");
     }
 
+    @Test
+    public void shouldGetWsMetrics_ofControlAndScreenTransports() {
+        // when
+        JSONObject metrics = new JSONObject(get("/rest/admin/ws/metrics"));
+
+        // then
+        assertEquals(2, metrics.length());
+        assertEquals(true, metrics.get("control") instanceof JSONObject);
+        assertEquals(true, metrics.get("screen") instanceof JSONObject);
+    }
+
     private void assertException(String expected, Runnable supplier) {
         try {
             supplier.run();